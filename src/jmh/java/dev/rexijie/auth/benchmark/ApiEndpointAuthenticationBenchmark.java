@@ -0,0 +1,55 @@
+package dev.rexijie.auth.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rexijie.auth.benchmark.support.TokenFixtures;
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.filters.ApiEndpointAuthenticationFilter;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer token validation by {@link ApiEndpointAuthenticationFilter}: verifying the signature,
+ * reading the token and loading the authentication, with the client checked against an in-memory client service.
+ * <p>
+ * Run with {@code mvn -P benchmark verify -Djmh.args="ApiEndpointAuthenticationBenchmark -prof gc"}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiEndpointAuthenticationBenchmark {
+    private ApiEndpointAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() throws Exception {
+        var fixtures = new TokenFixtures();
+        filter = new ApiEndpointAuthenticationFilter(
+                new ObjectMapper(), fixtures.getTokenServices(), TokenMetrics.noop(), AuditLog.disabled());
+        authorization = "Bearer " + fixtures.signedAccessToken().getValue();
+    }
+
+    @Benchmark
+    public int validateToken() throws Exception {
+        // once per request filters mark the request, so each invocation needs a new one
+        var request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", authorization);
+        var response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,42 @@
+package dev.rexijie.auth.benchmark;
+
+import dev.rexijie.auth.benchmark.support.TokenFixtures;
+import dev.rexijie.auth.util.TokenUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Java serialization of authentications with {@link TokenUtils}, as done for stored authorization codes.
+ * <p>
+ * Run with {@code mvn -P benchmark verify -Djmh.args="AuthenticationSerializationBenchmark -prof gc"}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationSerializationBenchmark {
+    private OAuth2Authentication authentication;
+    private String serialized;
+
+    @Setup
+    public void setUp() throws Exception {
+        authentication = new TokenFixtures().authentication();
+        serialized = TokenUtils.serializeAuthentication(authentication);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return TokenUtils.serializeAuthentication(authentication);
+    }
+
+    @Benchmark
+    public OAuth2Authentication deserialize() {
+        return TokenUtils.deserializeAuthentication(serialized);
+    }
+}
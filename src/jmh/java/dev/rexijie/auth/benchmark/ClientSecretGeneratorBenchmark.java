@@ -0,0 +1,34 @@
+package dev.rexijie.auth.benchmark;
+
+import dev.rexijie.auth.service.ClientSecretGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Secret generation with {@link ClientSecretGenerator}, which looks up a strong {@code SecureRandom} per call.
+ * Throughput depends on the entropy source of the machine running it.
+ * <p>
+ * Run with {@code mvn -P benchmark verify -Djmh.args="ClientSecretGeneratorBenchmark -prof gc"}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientSecretGeneratorBenchmark {
+    private final ClientSecretGenerator generator = new ClientSecretGenerator();
+
+    @Benchmark
+    public String generate() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    public String generateKeyId() {
+        return generator.generate(8);
+    }
+}
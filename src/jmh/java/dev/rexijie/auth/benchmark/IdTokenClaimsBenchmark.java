@@ -0,0 +1,81 @@
+package dev.rexijie.auth.benchmark;
+
+import dev.rexijie.auth.util.ClaimsJsonWriter;
+import dev.rexijie.auth.util.ObjectUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing ID token claims with {@link ClaimsJsonWriter} against the previous
+ * clean map, parallel normalize and format path.
+ * <p>
+ * Run with {@code mvn -P benchmark verify -Djmh.args="IdTokenClaimsBenchmark -prof gc"}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdTokenClaimsBenchmark {
+    private final JsonParser jsonParser = JsonParserFactory.create();
+    private Map<String, Object> claims;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        claims = OidcIdToken.withTokenValue("token")
+                .issuer("https://rexijie.dev/openid")
+                .subject("rexijie")
+                .audience(Set.of("client-id"))
+                .authorizedParty("client-id")
+                .nonce("n-0S6_WzA2Mj")
+                .expiresAt(now.plusSeconds(600))
+                .issuedAt(now)
+                .authTime(now)
+                .accessTokenHash("77QmUPtjPfzWtF2AnpK9RQ")
+                .authorizationCodeHash(null)
+                .authenticationMethods(List.of("user"))
+                .claim("name", "Rex Ijiekhuamen")
+                .claim("given_name", "Rex")
+                .claim("family_name", "Ijiekhuamen")
+                .claim("birthdate", LocalDate.of(1990, 1, 1))
+                .claim("email", "rex@rexijie.dev")
+                .claim("email_verified", true)
+                .claim("updated_at", now)
+                .build()
+                .getClaims();
+    }
+
+    @Benchmark
+    public String legacy() {
+        Map<String, Object> cleaned = ObjectUtils.cleanMap(claims);
+        cleaned.keySet()
+                .parallelStream()
+                .forEach(key -> {
+                    if (cleaned.get(key) instanceof Instant)
+                        cleaned.put(key, ((Instant) cleaned.get(key)).getEpochSecond());
+                    if (cleaned.get(key) instanceof LocalDate)
+                        cleaned.put(key, cleaned.get(key).toString());
+                    if (cleaned.get(key) == null)
+                        cleaned.remove(key);
+                });
+        return jsonParser.formatMap(cleaned);
+    }
+
+    @Benchmark
+    public String streaming() {
+        return ClaimsJsonWriter.write(claims);
+    }
+}
@@ -0,0 +1,107 @@
+package dev.rexijie.auth.benchmark;
+
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.authority.Authority;
+import dev.rexijie.auth.model.authority.AuthorityEnum;
+import dev.rexijie.auth.model.authority.Role;
+import dev.rexijie.auth.model.authority.RoleEnum;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.model.client.ClientProfiles;
+import dev.rexijie.auth.model.client.ClientTypes;
+import dev.rexijie.auth.repository.converter.EntityReadingConverters;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading users and clients from documents with the default reflective mapping
+ * and with {@link EntityReadingConverters}.
+ * <p>
+ * Run with {@code mvn -P benchmark verify -Djmh.args="MongoConversionBenchmark -prof gc"}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MongoConversionBenchmark {
+    private MappingMongoConverter reflectiveConverter;
+    private MappingMongoConverter customConverter;
+    private Document userDocument;
+    private Document clientDocument;
+
+    @Setup
+    public void setUp() {
+        reflectiveConverter = converter(new MongoCustomConversions(List.of()));
+        customConverter = converter(new MongoCustomConversions(EntityReadingConverters.getConvertersToRegister()));
+
+        var role = new Role(RoleEnum.USER, List.of(new Authority(AuthorityEnum.CAN_VIEW),
+                new Authority(AuthorityEnum.CAN_CREATE)));
+        var user = new User("benchmark-user", "$2a$10$Kc0ItvKJgYAkHpAK0nRuV.7uDDLqMFKA5zoOiTQCnFhuPgn2ay1Vq", role);
+        user.setId("user-id");
+        user.setEnabled(true);
+        user.setAccountNonExpired(true);
+        user.setAccountNonLocked(true);
+        user.setCredentialsNonExpired(true);
+        user.setCreatedAt(LocalDateTime.now());
+        userDocument = new Document();
+        reflectiveConverter.write(user, userDocument);
+
+        var client = new Client("benchmark client", ClientTypes.CONFIDENTIAL, ClientProfiles.WEB);
+        client.setClientId("benchmark-client");
+        client.setClientSecret("$2a$10$Kc0ItvKJgYAkHpAK0nRuV.7uDDLqMFKA5zoOiTQCnFhuPgn2ay1Vq");
+        client.setScope(Set.of("openid", "profile", "email", "read", "write"));
+        client.setResourceIds(Set.of("api"));
+        client.setAuthorizedGrantTypes(Set.of("authorization_code", "password", "refresh_token", "client_credentials"));
+        client.setRegisteredRedirectUri(Set.of("http://localhost:8080/login/oauth2/code/client"));
+        client.setAuthorities(List.of(new Authority(AuthorityEnum.CLIENT)));
+        client.setAccessTokenValiditySeconds(600);
+        client.setRefreshTokenValiditySeconds(3600);
+        client.setAdditionalInformation(Map.of("tenant", "benchmark"));
+        client.setCreatedAt(LocalDateTime.now());
+        clientDocument = new Document();
+        reflectiveConverter.write(client, clientDocument);
+    }
+
+    @Benchmark
+    public User readUserReflectively() {
+        return reflectiveConverter.read(User.class, userDocument);
+    }
+
+    @Benchmark
+    public User readUser() {
+        return customConverter.read(User.class, userDocument);
+    }
+
+    @Benchmark
+    public Client readClientReflectively() {
+        return reflectiveConverter.read(Client.class, clientDocument);
+    }
+
+    @Benchmark
+    public Client readClient() {
+        return customConverter.read(Client.class, clientDocument);
+    }
+
+    private static MappingMongoConverter converter(MongoCustomConversions conversions) {
+        var mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
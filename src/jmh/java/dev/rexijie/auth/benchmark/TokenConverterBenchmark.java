@@ -0,0 +1,51 @@
+package dev.rexijie.auth.benchmark;
+
+import dev.rexijie.auth.benchmark.support.TokenFixtures;
+import dev.rexijie.auth.tokenservices.JwtTokenConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting tokens to claims and claims back to an authentication with {@link JwtTokenConverter}.
+ * Converting includes the user lookup of the claims enhancer, against an in-memory user service.
+ * <p>
+ * Run with {@code mvn -P benchmark verify -Djmh.args="TokenConverterBenchmark -prof gc"}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenConverterBenchmark {
+    private JwtTokenConverter converter;
+    private OAuth2AccessToken accessToken;
+    private OAuth2Authentication authentication;
+    private Map<String, ?> claims;
+
+    @Setup
+    public void setUp() throws Exception {
+        var fixtures = new TokenFixtures();
+        converter = fixtures.getAccessTokenConverter();
+        accessToken = fixtures.signedAccessToken();
+        authentication = fixtures.authentication();
+        claims = new HashMap<>(converter.convertAccessToken(accessToken, authentication));
+    }
+
+    @Benchmark
+    public Map<String, ?> convertAccessToken() {
+        return converter.convertAccessToken(accessToken, authentication);
+    }
+
+    @Benchmark
+    public OAuth2Authentication extractAuthentication() {
+        return converter.extractAuthentication(claims);
+    }
+}
@@ -0,0 +1,49 @@
+package dev.rexijie.auth.benchmark;
+
+import dev.rexijie.auth.benchmark.support.TokenFixtures;
+import dev.rexijie.auth.tokenservices.JwtTokenEnhancer;
+import dev.rexijie.auth.tokenservices.openid.IdTokenGeneratingTokenEnhancer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing an access token with {@link JwtTokenEnhancer}, which converts the token to claims and
+ * encodes them, and generating the ID token for it with {@link IdTokenGeneratingTokenEnhancer}.
+ * <p>
+ * Run with {@code mvn -P benchmark verify -Djmh.args="TokenEnhancerBenchmark -prof gc"}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenEnhancerBenchmark {
+    private TokenFixtures fixtures;
+    private OAuth2Authentication authentication;
+    private OAuth2AccessToken signedAccessToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixtures = new TokenFixtures();
+        authentication = fixtures.authentication();
+        signedAccessToken = fixtures.signedAccessToken();
+    }
+
+    @Benchmark
+    public OAuth2AccessToken encode() {
+        return fixtures.getTokenEnhancer().enhance(fixtures.accessToken(), authentication);
+    }
+
+    @Benchmark
+    public OAuth2AccessToken idToken() {
+        // the enhancer sets the id token on the token it is given
+        return fixtures.getIdTokenEnhancer().enhance(new DefaultOAuth2AccessToken(signedAccessToken), authentication);
+    }
+}
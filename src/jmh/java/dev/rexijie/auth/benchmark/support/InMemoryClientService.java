@@ -0,0 +1,67 @@
+package dev.rexijie.auth.benchmark.support;
+
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.repository.ClientFilter;
+import dev.rexijie.auth.service.ClientService;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * {@link ClientService} backed by a map, so benchmarks measure token code and not mongo
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class InMemoryClientService implements ClientService {
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+
+    @Override
+    public Client loadClientByClientId(String clientId) {
+        Client client = clients.get(clientId);
+        if (client == null) throw new NoSuchClientException("No client with requested id: " + clientId);
+        return client;
+    }
+
+    @Override
+    public Client addClient(Client client) {
+        clients.put(client.getClientId(), client);
+        return client;
+    }
+
+    @Override
+    public Client updateClient(String clientId, Client client) {
+        clients.put(clientId, client);
+        return client;
+    }
+
+    @Override
+    public Client updateClientSecret(String clientId, String secret) {
+        Client client = loadClientByClientId(clientId);
+        client.setClientSecret(secret);
+        return client;
+    }
+
+    @Override
+    public void removeClientDetails(String clientId) throws NoSuchClientException {
+        if (clients.remove(clientId) == null)
+            throw new NoSuchClientException("No client with requested id: " + clientId);
+    }
+
+    @Override
+    public List<Client> listClientDetails() {
+        return new ArrayList<>(clients.values());
+    }
+
+    @Override
+    public Stream<Client> streamClients(ClientFilter filter) {
+        return clients.values().stream()
+                .filter(client -> filter.getAfter() == null || client.getId().compareTo(filter.getAfter()) > 0)
+                .sorted(Comparator.comparing(Client::getId))
+                .limit(filter.getLimit());
+    }
+}
@@ -0,0 +1,59 @@
+package dev.rexijie.auth.benchmark.support;
+
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.UserInfo;
+import dev.rexijie.auth.service.UserService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link UserService} backed by a map, so benchmarks measure token code and not mongo
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class InMemoryUserService implements UserService {
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+
+    @Override
+    public User findUserByUsername(String username) {
+        User user = users.get(username);
+        if (user == null) throw new UsernameNotFoundException("user not found");
+        return user;
+    }
+
+    @Override
+    public UserInfo findProfileByUserId(String id) {
+        return getUserById(id).getUserInfo();
+    }
+
+    @Override
+    public UserInfo findProfileByUsername(String username) {
+        return findUserByUsername(username).getUserInfo();
+    }
+
+    @Override
+    public User addUser(User user) {
+        users.put(user.getUsername(), user);
+        return user;
+    }
+
+    @Override
+    public User getUserById(String id) {
+        return users.values().stream()
+                .filter(user -> id.equals(user.getId()))
+                .findFirst()
+                .orElseThrow(() -> new UsernameNotFoundException("user not found"));
+    }
+
+    @Override
+    public User updateUserInfo(User user) {
+        return addUser(user);
+    }
+
+    @Override
+    public User loadUserByUsername(String username) {
+        return findUserByUsername(username);
+    }
+}
@@ -0,0 +1,170 @@
+package dev.rexijie.auth.benchmark.support;
+
+import dev.rexijie.auth.cache.ScopeRegistry;
+import dev.rexijie.auth.config.OIDCDiscovery;
+import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.generators.KeyGen;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.UserInfo;
+import dev.rexijie.auth.model.authority.Role;
+import dev.rexijie.auth.model.authority.RoleEnum;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.model.client.ClientProfiles;
+import dev.rexijie.auth.model.client.ClientTypes;
+import dev.rexijie.auth.model.token.KeyPairHolder;
+import dev.rexijie.auth.model.token.RSAKeyPairHolder;
+import dev.rexijie.auth.tokenservices.DefaultJwtClaimEnhancer;
+import dev.rexijie.auth.tokenservices.JwtTokenConverter;
+import dev.rexijie.auth.tokenservices.JwtTokenEnhancer;
+import dev.rexijie.auth.tokenservices.openid.IDTokenEnhancer;
+import dev.rexijie.auth.tokenservices.openid.IdTokenGeneratingTokenEnhancer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Token services wired the way {@code TokenServicesConfig} wires them, without a spring context.
+ * Users and clients come from {@link InMemoryUserService} and {@link InMemoryClientService}.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class TokenFixtures {
+    public static final String ISSUER = "https://rexijie.dev/openid";
+    public static final String CLIENT_ID = "benchmark-client";
+    public static final String USERNAME = "rexijie";
+    public static final Set<String> SCOPES = Set.of("openid", "profile", "email", "read");
+
+    private final InMemoryUserService userService = new InMemoryUserService();
+    private final InMemoryClientService clientService = new InMemoryClientService();
+    private final KeyPairHolder keyPairHolder;
+    private final JwtTokenEnhancer tokenEnhancer;
+    private final IdTokenGeneratingTokenEnhancer idTokenEnhancer;
+    private final JwtTokenConverter accessTokenConverter;
+    private final DefaultTokenServices tokenServices;
+    private final User user;
+
+    public TokenFixtures() throws Exception {
+        keyPairHolder = new RSAKeyPairHolder("bench-01", KeyGen.generateKeys());
+        user = userService.addUser(createUser());
+        clientService.addClient(createClient());
+
+        var claimsEnhancer = new DefaultJwtClaimEnhancer(userService, TokenMetrics.noop());
+        ReflectionTestUtils.setField(claimsEnhancer, "issuer", ISSUER);
+        accessTokenConverter = new JwtTokenConverter(claimsEnhancer);
+
+        tokenEnhancer = new JwtTokenEnhancer(keyPairHolder);
+        tokenEnhancer.setAccessTokenConverter(accessTokenConverter);
+
+        var discovery = new OIDCDiscovery();
+        discovery.setScopesSupported(SCOPES);
+        idTokenEnhancer = new IdTokenGeneratingTokenEnhancer(
+                userService, new IDTokenEnhancer(), keyPairHolder, new ScopeRegistry(discovery));
+        idTokenEnhancer.setAccessTokenConverter(accessTokenConverter);
+
+        tokenServices = new DefaultTokenServices();
+        tokenServices.setTokenStore(new JwtTokenStore(tokenEnhancer));
+        tokenServices.setClientDetailsService(clientService);
+    }
+
+    public InMemoryUserService getUserService() {
+        return userService;
+    }
+
+    public InMemoryClientService getClientService() {
+        return clientService;
+    }
+
+    public KeyPairHolder getKeyPairHolder() {
+        return keyPairHolder;
+    }
+
+    public JwtTokenEnhancer getTokenEnhancer() {
+        return tokenEnhancer;
+    }
+
+    public IdTokenGeneratingTokenEnhancer getIdTokenEnhancer() {
+        return idTokenEnhancer;
+    }
+
+    public JwtTokenConverter getAccessTokenConverter() {
+        return accessTokenConverter;
+    }
+
+    public DefaultTokenServices getTokenServices() {
+        return tokenServices;
+    }
+
+    /**
+     * authentication of the benchmark user from an authorization code exchange
+     */
+    public OAuth2Authentication authentication() {
+        Map<String, String> parameters = Map.of(
+                "grant_type", GrantTypes.AUTHORIZATION_CODE,
+                "code", "Xk2Yq8pLr0",
+                "nonce", "n-0S6_WzA2Mj",
+                "client_id", CLIENT_ID);
+        var request = new OAuth2Request(parameters, CLIENT_ID, null, true, SCOPES,
+                Set.of("api"), "https://rexijie.dev/callback", Set.of("code"), null);
+        var userAuthentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        return new OAuth2Authentication(request, userAuthentication);
+    }
+
+    /**
+     * a fresh unsigned access token, {@link DefaultOAuth2AccessToken}s are mutated by the enhancers
+     */
+    public DefaultOAuth2AccessToken accessToken() {
+        var token = new DefaultOAuth2AccessToken("b5c6a8f1-3f0b-4d6e-9a3c-1d2e3f4a5b6c");
+        token.setScope(SCOPES);
+        token.setExpiration(new Date(System.currentTimeMillis() + 10 * 60 * 1000));
+        return token;
+    }
+
+    /**
+     * an access token signed by {@link #getTokenEnhancer()}
+     */
+    public OAuth2AccessToken signedAccessToken() {
+        return tokenEnhancer.enhance(accessToken(), authentication());
+    }
+
+    private User createUser() {
+        var user = new User(USERNAME, "{noop}password", new Role(RoleEnum.USER));
+        user.setId("5f4e3d2c1b0a");
+        user.setEnabled(true);
+        user.setAccountNonExpired(true);
+        user.setAccountNonLocked(true);
+        user.setCredentialsNonExpired(true);
+        user.setUserInfo(UserInfo.builder()
+                .firstName("Rex")
+                .lastName("Ijiekhuamen")
+                .username(USERNAME)
+                .email("rex@rexijie.dev")
+                .emailVerified(true)
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .build());
+        return user;
+    }
+
+    private Client createClient() {
+        var client = new Client("benchmark", ClientTypes.CONFIDENTIAL, ClientProfiles.WEB);
+        client.setClientId(CLIENT_ID);
+        client.setClientSecret("{noop}secret");
+        client.setAccessTokenValiditySeconds(10 * 60);
+        client.setScope(SCOPES);
+        client.setResourceIds(List.of("api"));
+        client.setAuthorizedGrantTypes(List.of(GrantTypes.AUTHORIZATION_CODE, GrantTypes.REFRESH_TOKEN));
+        client.addRedirectUri("https://rexijie.dev/callback");
+        return client;
+    }
+}
@@ -0,0 +1,23 @@
+package dev.rexijie.auth.loadtest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One iteration of a workload, completed when its last response arrived.
+ * Iterations fail exceptionally on any unexpected response.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@FunctionalInterface
+public interface Flow {
+    String PASSWORD = "password";
+    String CLIENT_CREDENTIALS = "client_credentials";
+    String AUTHORIZATION_CODE = "authorization_code";
+    String USERINFO = "userinfo";
+    String JWKS = "jwks";
+
+    /**
+     * @param iteration sequence number of the iteration, used to spread load over users and clients
+     */
+    CompletableFuture<?> run(long iteration);
+}
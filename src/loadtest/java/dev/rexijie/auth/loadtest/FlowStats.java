@@ -0,0 +1,71 @@
+package dev.rexijie.auth.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and errors of one flow. Latency is measured from when an iteration was
+ * scheduled to start, not when it was sent, so a slow server can not hide queueing.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class FlowStats {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String name;
+    private final int targetRate;
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+
+    public FlowStats(String name, int targetRate) {
+        this.name = name;
+        this.targetRate = targetRate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTargetRate() {
+        return targetRate;
+    }
+
+    public void recordSuccess(long latencyNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+    }
+
+    public void recordError() {
+        errors.incrementAndGet();
+    }
+
+    public void reset() {
+        latencies.reset();
+        errors.set(0);
+    }
+
+    public Map<String, Object> toReport(double elapsedSeconds) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(latencies.getValueAtPercentile(50)));
+        latency.put("p99", millis(latencies.getValueAtPercentile(99)));
+        latency.put("p999", millis(latencies.getValueAtPercentile(99.9)));
+        latency.put("max", millis(latencies.getMaxValue()));
+        latency.put("mean", millis((long) latencies.getMean()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRate", targetRate);
+        report.put("requests", latencies.getTotalCount());
+        report.put("errors", errors.get());
+        report.put("throughput", Math.round(latencies.getTotalCount() / elapsedSeconds * 10) / 10.0);
+        report.put("latencyMs", latency);
+        return report;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,159 @@
+package dev.rexijie.auth.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The workloads of the load test against the seeded users and clients.
+ * Browser sessions for the authorization code flow and access tokens for userinfo
+ * are created once by {@link #prepare()}, before any measurement.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+public class Flows {
+    private static final String TOKEN_PATH = "/oauth2/token";
+    private static final String LOGIN_PATH = "/oauth2/login";
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Pattern CODE = Pattern.compile("[?#&]code=([^&]+)");
+
+    private final LoadTestClient client;
+    private final LoadTestProperties properties;
+    private final List<String> sessionCookies = new ArrayList<>();
+    private final List<String> accessTokens = new ArrayList<>();
+
+    public Flows(LoadTestClient client, LoadTestProperties properties) {
+        this.client = client;
+        this.properties = properties;
+    }
+
+    /**
+     * logs in {@code sessions} users and issues an access token for each of them
+     */
+    public void prepare() {
+        int sessions = Math.max(1, Math.min(properties.getSessions(), properties.getUsers()));
+        for (int i = 0; i < sessions; i++) {
+            sessionCookies.add(login(LoadTestSeeder.username(i)).join());
+            accessTokens.add(passwordGrant(i).join());
+        }
+        log.info("prepared {} sessions", sessions);
+    }
+
+    /**
+     * @return every flow by name, in a stable order
+     */
+    public Map<String, Flow> all() {
+        Map<String, Flow> flows = new LinkedHashMap<>();
+        flows.put(Flow.PASSWORD, this::passwordGrant);
+        flows.put(Flow.CLIENT_CREDENTIALS, this::clientCredentialsGrant);
+        flows.put(Flow.AUTHORIZATION_CODE, this::authorizationCodeGrant);
+        flows.put(Flow.USERINFO, this::userInfo);
+        flows.put(Flow.JWKS, this::jwks);
+        return flows;
+    }
+
+    private CompletableFuture<String> passwordGrant(long iteration) {
+        var request = client.formPost(TOKEN_PATH, Map.of(
+                "grant_type", "password",
+                "username", LoadTestSeeder.username((int) (iteration % properties.getUsers())),
+                "password", properties.getPassword(),
+                "scope", "read profile"))
+                .header("Authorization", clientAuthorization(iteration))
+                .build();
+        return client.send(request, 200).thenApply(response -> client.json(response).get("access_token").asText());
+    }
+
+    private CompletableFuture<?> clientCredentialsGrant(long iteration) {
+        var request = client.formPost(TOKEN_PATH, Map.of(
+                "grant_type", "client_credentials",
+                "scope", "read"))
+                .header("Authorization", clientAuthorization(iteration))
+                .build();
+        return client.send(request, 200);
+    }
+
+    // response_type "code id_token", then the code is exchanged at the token endpoint
+    private CompletableFuture<?> authorizationCodeGrant(long iteration) {
+        String clientId = LoadTestSeeder.clientId((int) (iteration % properties.getClients()));
+        String query = LoadTestClient.encode(Map.of(
+                "response_type", "code id_token",
+                "client_id", clientId,
+                "redirect_uri", LoadTestSeeder.REDIRECT_URI,
+                "scope", "openid profile email",
+                "state", "s" + iteration,
+                "nonce", "n" + iteration));
+        var authorize = client.request("/oauth2/authorize?" + query)
+                .header("Cookie", sessionCookies.get((int) (iteration % sessionCookies.size())))
+                .GET()
+                .build();
+
+        return client.send(authorize, 302)
+                .thenCompose(response -> {
+                    var token = client.formPost(TOKEN_PATH, Map.of(
+                            "grant_type", "authorization_code",
+                            "code", authorizationCode(response),
+                            "redirect_uri", LoadTestSeeder.REDIRECT_URI))
+                            .header("Authorization", LoadTestClient.basic(clientId, properties.getPassword()))
+                            .build();
+                    return client.send(token, 200);
+                });
+    }
+
+    private CompletableFuture<?> userInfo(long iteration) {
+        var request = client.request("/openid/userinfo")
+                .header("Authorization", "Bearer " + accessTokens.get((int) (iteration % accessTokens.size())))
+                .GET()
+                .build();
+        return client.send(request, 200);
+    }
+
+    private CompletableFuture<?> jwks(long iteration) {
+        return client.send(client.request("/openid/.well-known/jwks.json").GET().build(), 200);
+    }
+
+    private CompletableFuture<String> login(String username) {
+        return client.send(client.request(LOGIN_PATH).GET().build(), 200)
+                .thenCompose(page -> {
+                    Matcher csrf = CSRF.matcher(page.body());
+                    if (!csrf.find()) throw new CompletionException(new IllegalStateException("no csrf token on the login page"));
+                    var login = client.formPost(LOGIN_PATH, Map.of(
+                            "username", username,
+                            "password", properties.getPassword(),
+                            "_csrf", csrf.group(1)))
+                            .header("Cookie", sessionCookie(page))
+                            .build();
+                    return client.send(login, 302);
+                })
+                .thenApply(this::sessionCookie); // the session id changes on login
+    }
+
+    private String clientAuthorization(long iteration) {
+        String clientId = LoadTestSeeder.clientId((int) (iteration % properties.getClients()));
+        return LoadTestClient.basic(clientId, properties.getPassword());
+    }
+
+    private String sessionCookie(HttpResponse<?> response) {
+        return response.headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("JSESSIONID="))
+                .map(cookie -> cookie.substring(0, cookie.indexOf(';') == -1 ? cookie.length() : cookie.indexOf(';')))
+                .findFirst()
+                .orElseThrow(() -> new CompletionException(new IllegalStateException("no session cookie")));
+    }
+
+    private String authorizationCode(HttpResponse<?> response) {
+        String location = response.headers().firstValue("Location").orElse("");
+        Matcher code = CODE.matcher(location);
+        if (!code.find())
+            throw new CompletionException(new IllegalStateException("no code in redirect: " + location));
+        return code.group(1);
+    }
+}
@@ -0,0 +1,85 @@
+package dev.rexijie.auth.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts flow iterations at a fixed arrival rate, whether or not earlier iterations have completed
+ * (an open workload). Requests are sent asynchronously so one scheduler thread can drive every flow.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+public class LoadGenerator {
+    private final Map<String, Flow> flows;
+    private final Map<String, FlowStats> stats;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadGenerator(Map<String, Flow> flows, Map<String, FlowStats> stats) {
+        this.flows = flows;
+        this.stats = stats;
+    }
+
+    /**
+     * runs every flow with a positive target rate for the duration, then waits for outstanding iterations
+     */
+    public void run(Duration duration, Duration drainTimeout) throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        List<ScheduledFuture<?>> ticks = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (FlowStats flowStats : stats.values()) {
+            if (flowStats.getTargetRate() <= 0) continue;
+            Flow flow = flows.get(flowStats.getName());
+            long periodNanos = TimeUnit.SECONDS.toNanos(1) / flowStats.getTargetRate();
+            AtomicLong iterations = new AtomicLong();
+            // fixed rate executions catch up after a delay, so the arrival rate holds
+            ticks.add(scheduler.scheduleAtFixedRate(() -> {
+                long iteration = iterations.getAndIncrement();
+                start(flow, flowStats, iteration, start + iteration * periodNanos);
+            }, 0, periodNanos, TimeUnit.NANOSECONDS));
+        }
+
+        Thread.sleep(duration.toMillis());
+        ticks.forEach(tick -> tick.cancel(false));
+        scheduler.shutdown();
+        drain(drainTimeout);
+    }
+
+    private void start(Flow flow, FlowStats flowStats, long iteration, long intendedStart) {
+        inFlight.incrementAndGet();
+        try {
+            flow.run(iteration).whenComplete((result, error) -> {
+                if (error == null) flowStats.recordSuccess(System.nanoTime() - intendedStart);
+                else record(flowStats, error);
+                inFlight.decrementAndGet();
+            });
+        } catch (RuntimeException e) {
+            record(flowStats, e);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void record(FlowStats flowStats, Throwable error) {
+        flowStats.recordError();
+        log.debug("{} failed: {}", flowStats.getName(), error.getMessage());
+    }
+
+    private void drain(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        if (inFlight.get() > 0)
+            log.warn("{} iterations still in flight after {}s", inFlight.get(), timeout.getSeconds());
+    }
+}
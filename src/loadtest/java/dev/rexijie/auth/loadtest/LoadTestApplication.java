@@ -0,0 +1,100 @@
+package dev.rexijie.auth.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.rexijie.auth.Oauth2ServerApplication;
+import dev.rexijie.auth.repository.RoleRepository;
+import dev.rexijie.auth.repository.UserRepository;
+import dev.rexijie.auth.service.ClientService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Boots the whole server against an embedded mongo, seeds it and drives the flows at their
+ * target rates. Latency percentiles and throughput per flow are written as json to {@code loadtest.report}.
+ * <p>
+ * Run with {@code mvn -P loadtest verify -Dloadtest.args="--loadtest.users=10000 --loadtest.rates.password=50"}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                Oauth2ServerApplication.class, LoadTestApplication.class)
+                .profiles("loadtest")
+                .run(args);
+        try {
+            var properties = context.getBean(LoadTestProperties.class);
+            var objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            context.getBean(LoadTestSeeder.class).seed();
+
+            String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+            var client = new LoadTestClient(baseUrl, Duration.ofSeconds(properties.getTimeoutSeconds()), objectMapper);
+            var flows = new Flows(client, properties);
+            flows.prepare();
+
+            Map<String, Flow> workloads = flows.all();
+            Map<String, FlowStats> stats = new LinkedHashMap<>();
+            workloads.keySet().forEach(name ->
+                    stats.put(name, new FlowStats(name, properties.getRates().getOrDefault(name, 0))));
+            var generator = new LoadGenerator(workloads, stats);
+            Duration drainTimeout = Duration.ofSeconds(properties.getTimeoutSeconds());
+
+            log.info("warming up for {}s", properties.getWarmupSeconds());
+            generator.run(Duration.ofSeconds(properties.getWarmupSeconds()), drainTimeout);
+            stats.values().forEach(FlowStats::reset);
+
+            log.info("measuring for {}s", properties.getDurationSeconds());
+            Instant startedAt = Instant.now();
+            generator.run(Duration.ofSeconds(properties.getDurationSeconds()), drainTimeout);
+
+            writeReport(objectMapper, properties, stats, startedAt);
+        } finally {
+            context.close();
+        }
+    }
+
+    @Bean
+    public LoadTestSeeder loadTestSeeder(UserRepository userRepository,
+                                         RoleRepository roleRepository,
+                                         ClientService clientService,
+                                         PasswordEncoder passwordEncoder,
+                                         LoadTestProperties properties) {
+        return new LoadTestSeeder(userRepository, roleRepository, clientService, passwordEncoder, properties);
+    }
+
+    private static void writeReport(ObjectMapper objectMapper, LoadTestProperties properties,
+                                    Map<String, FlowStats> stats, Instant startedAt) throws Exception {
+        Map<String, Object> flows = new LinkedHashMap<>();
+        stats.forEach((name, flowStats) -> {
+            if (flowStats.getTargetRate() > 0)
+                flows.put(name, flowStats.toReport(properties.getDurationSeconds()));
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("durationSeconds", properties.getDurationSeconds());
+        report.put("users", properties.getUsers());
+        report.put("clients", properties.getClients());
+        report.put("sessions", properties.getSessions());
+        report.put("flows", flows);
+
+        File file = new File(properties.getReport());
+        if (file.getParentFile() != null) file.getParentFile().mkdirs();
+        objectMapper.writeValue(file, report);
+        log.info("load test report written to {}\n{}", file.getAbsolutePath(), objectMapper.writeValueAsString(flows));
+    }
+}
@@ -0,0 +1,88 @@
+package dev.rexijie.auth.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Non blocking http client for the server under test. Redirects are not followed.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class LoadTestClient {
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+
+    public LoadTestClient(String baseUrl, Duration timeout, ObjectMapper objectMapper) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(timeout)
+                .build();
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+    }
+
+    public HttpRequest.Builder request(String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery)).timeout(timeout);
+    }
+
+    public HttpRequest.Builder formPost(String path, Map<String, String> form) {
+        return request(path)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(encode(form)));
+    }
+
+    /**
+     * @param expectedStatus the response status the flow expects, anything else fails the future
+     */
+    public CompletableFuture<HttpResponse<String>> send(HttpRequest request, int expectedStatus) {
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() != expectedStatus)
+                        throw new CompletionException(new IllegalStateException(
+                                request.method() + " " + request.uri().getPath() + " returned " + response.statusCode()));
+                    return response;
+                });
+    }
+
+    public JsonNode json(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static String basic(String clientId, String secret) {
+        String credentials = clientId + ":" + secret;
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(Map<String, String> parameters) {
+        return parameters.entrySet().stream()
+                .map(entry -> encode(entry.getKey()) + "=" + encode(entry.getValue()))
+                .collect(Collectors.joining("&"));
+    }
+
+    public static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
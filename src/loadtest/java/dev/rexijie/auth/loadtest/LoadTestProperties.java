@@ -0,0 +1,103 @@
+package dev.rexijie.auth.loadtest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Scale and workload of a load test run.
+ * Every value can be overridden with program arguments, e.g. {@code --loadtest.users=10000}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+    private int users = 1000;
+    private int clients = 10;
+    private int sessions = 50; // logged in browser sessions used by the authorization code flow
+    private String password = "load@test";
+    private int warmupSeconds = 10;
+    private int durationSeconds = 60;
+    private int timeoutSeconds = 10;
+    private String report = "target/loadtest/report.json";
+    // requests started per second for each flow, a rate of 0 disables the flow
+    private Map<String, Integer> rates = new LinkedHashMap<>(Map.of(
+            Flow.PASSWORD, 20,
+            Flow.CLIENT_CREDENTIALS, 100,
+            Flow.AUTHORIZATION_CODE, 20,
+            Flow.USERINFO, 100,
+            Flow.JWKS, 100));
+
+    public int getUsers() {
+        return users;
+    }
+
+    public void setUsers(int users) {
+        this.users = users;
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public void setClients(int clients) {
+        this.clients = clients;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(int sessions) {
+        this.sessions = sessions;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public void setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public void setTimeoutSeconds(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+    public void setReport(String report) {
+        this.report = report;
+    }
+
+    public Map<String, Integer> getRates() {
+        return rates;
+    }
+
+    public void setRates(Map<String, Integer> rates) {
+        this.rates = rates;
+    }
+}
@@ -0,0 +1,121 @@
+package dev.rexijie.auth.loadtest;
+
+import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.UserInfo;
+import dev.rexijie.auth.model.authority.Role;
+import dev.rexijie.auth.model.authority.RoleEnum;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.model.client.ClientProfiles;
+import dev.rexijie.auth.model.client.ClientTypes;
+import dev.rexijie.auth.repository.RoleRepository;
+import dev.rexijie.auth.repository.UserRepository;
+import dev.rexijie.auth.service.ClientService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Seeds users and clients the way {@code Seeder} does, at the scale of the load test.
+ * All users share one password and all clients one secret, so it is only hashed once.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+public class LoadTestSeeder {
+    public static final String REDIRECT_URI = "http://localhost:3000/callback";
+    private static final int BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final ClientService clientService;
+    private final PasswordEncoder encoder;
+    private final LoadTestProperties properties;
+
+    public LoadTestSeeder(UserRepository userRepository,
+                          RoleRepository roleRepository,
+                          ClientService clientService,
+                          PasswordEncoder encoder,
+                          LoadTestProperties properties) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.clientService = clientService;
+        this.encoder = encoder;
+        this.properties = properties;
+    }
+
+    public static String username(int i) {
+        return "loadtest-user-" + i + "@rexijie.dev";
+    }
+
+    public static String clientId(int i) {
+        return "loadtest-client-" + i;
+    }
+
+    public void seed() {
+        long start = System.currentTimeMillis();
+        seedClients();
+        seedUsers();
+        log.info("seeded {} users and {} clients in {}ms",
+                properties.getUsers(), properties.getClients(), System.currentTimeMillis() - start);
+    }
+
+    private void seedClients() {
+        String secret = encoder.encode(properties.getPassword());
+        for (int i = 0; i < properties.getClients(); i++) {
+            var client = new Client("Load test client " + i, ClientTypes.CONFIDENTIAL, ClientProfiles.WEB);
+            client.setClientId(clientId(i));
+            client.setClientSecret(secret);
+            client.setAccessTokenValiditySeconds(10 * 60);
+            client.setRefreshTokenValiditySeconds(15 * 60);
+            client.setResourceIds(List.of("stock-api"));
+            client.setScope(List.of("read", "write", "profile", "openid", "email"));
+            client.setRegisteredRedirectUri(Set.of(REDIRECT_URI));
+            client.setAutoApproveScopes(Set.of("true")); // no consent page in the authorization code flow
+            client.setAuthorizedGrantTypes(List.of(GrantTypes.REFRESH_TOKEN, GrantTypes.PASSWORD,
+                    GrantTypes.AUTHORIZATION_CODE, GrantTypes.CLIENT_CREDENTIALS));
+            clientService.addClient(client);
+        }
+    }
+
+    private void seedUsers() {
+        var role = roleRepository.findByName(RoleEnum.USER.getName());
+        if (role == null) role = new Role(RoleEnum.USER);
+        String password = encoder.encode(properties.getPassword());
+
+        List<User> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < properties.getUsers(); i++) {
+            batch.add(createUser(username(i), password, role));
+            if (batch.size() == BATCH_SIZE) {
+                userRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        userRepository.saveAll(batch);
+    }
+
+    private User createUser(String username, String password, Role role) {
+        var user = new User(username, password, role);
+        var profile = UserInfo.builder()
+                .firstName("Load")
+                .lastName("Test")
+                .username(username)
+                .email(username)
+                .dateOfBirth(LocalDate.of(2000, 1, 30))
+                .build();
+        user.setId(UUID.randomUUID().toString());
+        user.setEnabled(true);
+        user.setUserInfo(profile);
+        user.setAccountNonExpired(true);
+        user.setAccountNonLocked(true);
+        user.setCredentialsNonExpired(true);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+}
@@ -0,0 +1,148 @@
+package dev.rexijie.auth.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rexijie.auth.config.AuditProperties;
+import dev.rexijie.auth.model.AuditEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The audit trail.
+ * Request threads only put events into an {@link AuditRingBuffer}, a background writer drains it
+ * and hands the events to the {@link AuditSink} in batches. When the buffer is full events are
+ * dropped and counted in {@code oauth2.audit.events{outcome=dropped}}, request threads never wait for audit I/O.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Service
+public class AuditLog {
+    private static final AuditLog DISABLED = new AuditLog();
+
+    private final boolean enabled;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final AuditSink sink;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AuditLog(AuditProperties properties,
+                    MongoTemplate mongoTemplate,
+                    ObjectMapper objectMapper,
+                    MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.buffer = new AuditRingBuffer<>(properties.getBufferSize());
+        this.sink = properties.getSink() == AuditProperties.Sink.FILE
+                ? new FileAuditSink(Path.of(properties.getFile()), properties.getMaxFileSizeMegabytes() * 1024L * 1024L,
+                properties.getMaxFiles(), objectMapper)
+                : new MongoAuditSink(mongoTemplate, properties.getCollection(),
+                properties.getCappedSizeMegabytes() * 1024L * 1024L);
+        this.batchSize = properties.getBatchSize();
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMillis());
+        this.published = counter(meterRegistry, "published");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.written = counter(meterRegistry, "written");
+        this.failed = counter(meterRegistry, "failed");
+
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        if (enabled) this.writer.start();
+    }
+
+    private AuditLog() {
+        this.enabled = false;
+        this.buffer = null;
+        this.sink = null;
+        this.batchSize = 0;
+        this.flushIntervalNanos = 0;
+        this.published = null;
+        this.dropped = null;
+        this.written = null;
+        this.failed = null;
+        this.writer = null;
+    }
+
+    /**
+     * audit log that records nothing, for components created outside the context
+     */
+    public static AuditLog disabled() {
+        return DISABLED;
+    }
+
+    public void record(AuditEvent.Type type, String principal, String clientId, String grantType, String detail) {
+        if (!enabled) return;
+        AuditEvent event = new AuditEvent(type, principal, clientId, grantType, detail);
+        event.setTimestamp(Instant.now());
+        event.setRemoteAddress(remoteAddress());
+
+        if (buffer.offer(event)) published.increment();
+        else dropped.increment();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!enabled) return;
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (buffer.drain(batch::add, batchSize) == 0)
+                LockSupport.parkNanos(flushIntervalNanos);
+            else
+                write(batch);
+        }
+        // flush what is left on shutdown
+        while (buffer.drain(batch::add, batchSize) > 0)
+            write(batch);
+        sink.close();
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            sink.write(batch);
+            written.increment(batch.size());
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.warn("could not write {} audit events: {}", batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+
+    // the proxy's address unless server.forward-headers-strategy is set, see application.yml
+    private static String remoteAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes)
+            return ((ServletRequestAttributes) attributes).getRequest().getRemoteAddr();
+        return null;
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("oauth2.audit.events")
+                .description("audit events by what happened to them")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
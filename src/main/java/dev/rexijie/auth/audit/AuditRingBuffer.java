@@ -0,0 +1,78 @@
+package dev.rexijie.auth.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * Each slot carries a sequence number that tells producers whether it is free and
+ * the consumer whether it is filled, so neither side ever waits on the other.
+ * Offers fail instead of blocking when the buffer is full.
+ *
+ * @author Rex Ijiekhuamen
+ */
+class AuditRingBuffer<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(); // next position producers claim
+    private long tail; // next position the consumer reads, only touched by the consumer
+
+    AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1); // publishes the element to the consumer
+                    return true;
+                }
+                position = head.get();
+            } else if (available < 0) {
+                return false; // the slot still holds an element from the previous lap
+            } else {
+                position = head.get(); // another producer claimed the slot
+            }
+        }
+    }
+
+    /**
+     * Hands up to max elements to the consumer. Must only be called from one thread.
+     *
+     * @return the number of elements drained
+     */
+    int drain(Consumer<E> consumer, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) tail & mask;
+            if (sequences.get(index) != tail + 1) break; // not published yet
+            E element = elements.get(index);
+            elements.set(index, null);
+            sequences.set(index, tail + mask + 1); // free for the producers' next lap
+            tail++;
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+}
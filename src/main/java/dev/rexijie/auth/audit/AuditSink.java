@@ -0,0 +1,17 @@
+package dev.rexijie.auth.audit;
+
+import dev.rexijie.auth.model.AuditEvent;
+
+import java.util.List;
+
+/**
+ * Where audit events end up. Only called from the audit writer thread.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public interface AuditSink {
+    void write(List<AuditEvent> events) throws Exception;
+
+    default void close() {
+    }
+}
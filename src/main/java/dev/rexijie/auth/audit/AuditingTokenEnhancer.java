@@ -0,0 +1,30 @@
+package dev.rexijie.auth.audit;
+
+import dev.rexijie.auth.model.AuditEvent;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.TokenEnhancer;
+
+/**
+ * Last enhancer of the chain, records every token the token services issue.
+ * Only the scope of the token is recorded, never its value.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class AuditingTokenEnhancer implements TokenEnhancer {
+    private final AuditLog auditLog;
+
+    public AuditingTokenEnhancer(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        OAuth2Request request = authentication.getOAuth2Request();
+        String principal = authentication.isClientOnly() ? null : authentication.getName();
+        auditLog.record(AuditEvent.Type.TOKEN_ISSUED, principal, request.getClientId(), request.getGrantType(),
+                "scope=" + String.join(" ", accessToken.getScope()));
+        return accessToken;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.rexijie.auth.audit;
+
+import dev.rexijie.auth.model.AuditEvent;
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.throttle.LoginThrottle;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Audits user logins from the authentication events spring security publishes,
+ * for the login form and the password grant alike. Failed client authentications are recorded
+ * under their own type so they do not show up as failed user logins.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+public class AuthenticationAuditListener {
+    private final AuditLog auditLog;
+
+    public AuthenticationAuditListener(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        // interactive logins publish a second success event, and clients authenticate too
+        if (event.getClass() != AuthenticationSuccessEvent.class) return;
+        if (!(event.getAuthentication().getPrincipal() instanceof User)) return;
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, event.getAuthentication().getName(), null, null, null);
+    }
+
+    @EventListener
+    public void onFailure(AbstractAuthenticationFailureEvent event) {
+        String name = event.getAuthentication().getName();
+        String reason = event.getException().getClass().getSimpleName();
+        if (isClient(name))
+            auditLog.record(AuditEvent.Type.CLIENT_AUTHENTICATION_FAILURE, null, name, null, reason);
+        else
+            auditLog.record(AuditEvent.Type.LOGIN_FAILURE, name, null, null, reason);
+    }
+
+    // a login request names the user it is for, any other name that fails in a request is a client's
+    private static boolean isClient(String name) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return false;
+        Object username = attributes.getAttribute(LoginThrottle.ATTEMPTED_USERNAME, RequestAttributes.SCOPE_REQUEST);
+        return !name.equals(username);
+    }
+}
@@ -0,0 +1,82 @@
+package dev.rexijie.auth.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rexijie.auth.model.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends audit events as json lines to a file. When the file grows past its maximum size it is
+ * rolled to {@code <file>.1}, older files shift up and the oldest beyond {@code maxFiles} is removed.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+public class FileAuditSink implements AuditSink {
+    private final Path file;
+    private final long maxFileSizeBytes;
+    private final int maxFiles;
+    private final ObjectMapper objectMapper;
+    private BufferedWriter writer;
+    private long size;
+
+    public FileAuditSink(Path file, long maxFileSizeBytes, int maxFiles, ObjectMapper objectMapper) {
+        this.file = file;
+        this.maxFileSizeBytes = maxFileSizeBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void write(List<AuditEvent> events) throws IOException {
+        if (writer == null) open();
+        for (AuditEvent event : events) {
+            String line = objectMapper.writeValueAsString(event);
+            writer.write(line);
+            writer.newLine();
+            size += line.length() + 1;
+        }
+        writer.flush();
+        if (size >= maxFileSizeBytes) roll();
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("could not close audit file {}", file);
+        }
+        writer = null;
+    }
+
+    private void open() throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(file);
+    }
+
+    private void roll() throws IOException {
+        close();
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rolled(i)))
+                Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
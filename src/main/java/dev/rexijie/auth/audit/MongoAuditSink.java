@@ -0,0 +1,36 @@
+package dev.rexijie.auth.audit;
+
+import dev.rexijie.auth.model.AuditEvent;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * Inserts audit events into a capped collection, which mongo keeps at a fixed size
+ * by dropping the oldest events. The collection is created on first use.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class MongoAuditSink implements AuditSink {
+    private final MongoTemplate mongoTemplate;
+    private final String collection;
+    private final long cappedSizeBytes;
+    private boolean collectionChecked;
+
+    public MongoAuditSink(MongoTemplate mongoTemplate, String collection, long cappedSizeBytes) {
+        this.mongoTemplate = mongoTemplate;
+        this.collection = collection;
+        this.cappedSizeBytes = cappedSizeBytes;
+    }
+
+    @Override
+    public void write(List<AuditEvent> events) {
+        if (!collectionChecked) {
+            if (!mongoTemplate.collectionExists(collection))
+                mongoTemplate.createCollection(collection, CollectionOptions.empty().capped().size(cappedSizeBytes));
+            collectionChecked = true;
+        }
+        mongoTemplate.insert(events, collection);
+    }
+}
@@ -0,0 +1,158 @@
+package dev.rexijie.auth.cache;
+
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Authorization codes held in memory until they are redeemed or expire.
+ * <p>
+ * Codes are spread over lock striped maps so concurrent requests rarely contend.
+ * Expiry is a timing wheel with one slot per tick: every code is put into the slot of the tick it
+ * expires in and {@link #expire(long, Consumer)} empties the slots whose time has come, so expiry costs
+ * nothing per request and never scans the table. A code counts towards the capacity until its slot
+ * is emptied, redeemed or not, which bounds the memory of the maps and the wheel together.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class AuthorizationCodeTable {
+    private final Map<String, Entry>[] stripes;
+    private final int stripeMask;
+    private final Queue<String>[] wheel;
+    private final long tickNanos;
+    private final long ttlNanos;
+    private final int capacity;
+    private final AtomicInteger size = new AtomicInteger();
+    private long expiredTick; // last tick emptied, only touched by the thread calling expire
+
+    @SuppressWarnings("unchecked")
+    public AuthorizationCodeTable(long ttlNanos, long tickNanos, int capacity, int stripes, long now) {
+        this.ttlNanos = ttlNanos;
+        this.tickNanos = tickNanos;
+        this.capacity = capacity;
+
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Map[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+            this.stripes[i] = new HashMap<>();
+        this.stripeMask = stripeCount - 1;
+
+        // a code expires at most ttl from now, one extra slot keeps the current tick apart from the last
+        int slots = (int) ((ttlNanos + tickNanos - 1) / tickNanos) + 2;
+        this.wheel = new Queue[slots];
+        for (int i = 0; i < slots; i++)
+            this.wheel[i] = new ConcurrentLinkedQueue<>();
+        this.expiredTick = Math.floorDiv(now, tickNanos);
+    }
+
+    public long getTtlNanos() {
+        return ttlNanos;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return false if the table is full
+     */
+    public boolean put(String code, OAuth2Authentication authentication, long expiresAt) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        var stripe = stripeOf(code);
+        synchronized (stripe) {
+            stripe.put(code, new Entry(authentication, expiresAt));
+        }
+        wheel[slotOf(tickOf(expiresAt))].add(code);
+        return true;
+    }
+
+    /**
+     * @return the removed code, or null if it is unknown, already redeemed or expired
+     */
+    public Entry remove(String code, long now) {
+        var stripe = stripeOf(code);
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.remove(code);
+        }
+        if (entry == null || entry.expiresAt - now <= 0) return null;
+        return entry;
+    }
+
+    /**
+     * Empties the slots of every tick up to now. Must only be called from one thread.
+     *
+     * @param onExpired called with every code that expired without being redeemed
+     */
+    public void expire(long now, Consumer<String> onExpired) {
+        long currentTick = Math.floorDiv(now, tickNanos);
+        // after a long pause a full turn of the wheel covers every slot
+        long firstTick = Math.max(expiredTick + 1, currentTick - wheel.length + 1);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            var slot = wheel[slotOf(tick)];
+            int polled = slot.size();
+            for (int i = 0; i < polled; i++) {
+                String code = slot.poll();
+                if (code == null) break;
+                var stripe = stripeOf(code);
+                Entry expired = null;
+                boolean pending = false;
+                synchronized (stripe) {
+                    Entry entry = stripe.get(code);
+                    if (entry != null) {
+                        if (entry.expiresAt - now <= 0) expired = stripe.remove(code);
+                        else pending = true;
+                    }
+                }
+                if (pending) {
+                    // put into this slot for a later turn, e.g. a code restored with a longer ttl
+                    slot.add(code);
+                    continue;
+                }
+                size.decrementAndGet();
+                if (expired != null) onExpired.accept(code);
+            }
+        }
+        expiredTick = currentTick;
+    }
+
+    private Map<String, Entry> stripeOf(String code) {
+        int hash = code.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    private long tickOf(long expiresAt) {
+        // rounded up so a code is never dropped before it expires
+        return Math.floorDiv(expiresAt + tickNanos - 1, tickNanos);
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) wheel.length);
+    }
+
+    public static class Entry {
+        private final OAuth2Authentication authentication;
+        private final long expiresAt;
+
+        private Entry(OAuth2Authentication authentication, long expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+
+        public OAuth2Authentication getAuthentication() {
+            return authentication;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dev.rexijie.auth.cache;
+
+import dev.rexijie.auth.config.TokenReuseProperties;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-client cache of access tokens issued with the client_credentials grant.
+ * Tokens are keyed by (client_id, scope, resource_ids) and are only handed out again
+ * while they have more than {@link TokenReuseProperties#getMinRemainingLifetime()} of their lifetime left.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+public class ClientTokenCache {
+    private final ConcurrentMap<String, ConcurrentMap<String, CachedToken>> tokens = new ConcurrentHashMap<>();
+    private final TokenReuseProperties properties;
+
+    public ClientTokenCache(TokenReuseProperties properties) {
+        this.properties = properties;
+    }
+
+    public OAuth2AccessToken get(OAuth2Request request) {
+        var clientTokens = tokens.get(request.getClientId());
+        if (clientTokens == null) return null;
+
+        String key = keyFor(request);
+        CachedToken cached = clientTokens.get(key);
+        if (cached == null) return null;
+
+        if (!cached.isReusable(System.currentTimeMillis(), properties.getMinRemainingLifetime())) {
+            clientTokens.remove(key, cached);
+            return null;
+        }
+        return cached.token;
+    }
+
+    public void put(OAuth2Request request, OAuth2AccessToken token) {
+        if (token.getExpiration() == null) return;
+        var clientTokens = tokens.computeIfAbsent(request.getClientId(), clientId -> new ConcurrentHashMap<>());
+
+        String key = keyFor(request);
+        if (!clientTokens.containsKey(key) && clientTokens.size() >= properties.getMaxEntriesPerClient()) {
+            long now = System.currentTimeMillis();
+            clientTokens.values().removeIf(cached -> cached.expiresAt <= now);
+            if (clientTokens.size() >= properties.getMaxEntriesPerClient()) return;
+        }
+
+        // keep the original entry when the same token is stored again so its issue time is preserved
+        clientTokens.merge(key, new CachedToken(token, System.currentTimeMillis()),
+                (existing, fresh) -> existing.token.getValue().equals(fresh.token.getValue()) ? existing : fresh);
+    }
+
+    /**
+     * Drop every cached token of a client. Called when the client is updated or removed
+     */
+    public void evictClient(String clientId) {
+        if (clientId == null) return;
+        tokens.remove(clientId);
+    }
+
+    /**
+     * Drop a single token, for example when it is revoked
+     */
+    public void evictToken(String tokenValue) {
+        if (tokenValue == null) return;
+        for (var clientTokens : tokens.values())
+            clientTokens.values().removeIf(cached -> cached.token.getValue().equals(tokenValue));
+    }
+
+    private String keyFor(OAuth2Request request) {
+        return join(request.getScope()) + '|' + join(request.getResourceIds());
+    }
+
+    private String join(Collection<String> values) {
+        if (values == null || values.isEmpty()) return "";
+        return String.join(" ", new TreeSet<>(values));
+    }
+
+    private static class CachedToken {
+        private final OAuth2AccessToken token;
+        private final long issuedAt;
+        private final long expiresAt;
+
+        private CachedToken(OAuth2AccessToken token, long issuedAt) {
+            this.token = token;
+            this.issuedAt = issuedAt;
+            this.expiresAt = token.getExpiration().getTime();
+        }
+
+        private boolean isReusable(long now, double minRemainingLifetime) {
+            long lifetime = expiresAt - issuedAt;
+            if (lifetime <= 0) return false;
+            return (expiresAt - now) > lifetime * minRemainingLifetime;
+        }
+    }
+}
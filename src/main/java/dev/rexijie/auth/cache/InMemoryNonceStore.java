@@ -0,0 +1,63 @@
+package dev.rexijie.auth.cache;
+
+import dev.rexijie.auth.config.NonceProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link NonceStore} in the memory of this node, for single node deployments and tests.
+ * Expired keys are removed when the store fills up. If it is still full after that, new keys are not
+ * remembered and a reuse of them can not be confirmed until keys expire.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+@ConditionalOnProperty(prefix = "oauth2.nonce", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryNonceStore implements NonceStore {
+    private final ConcurrentMap<String, Long> nonces = new ConcurrentHashMap<>();
+    private final AtomicBoolean purging = new AtomicBoolean();
+    private final int maxEntries;
+
+    public InMemoryNonceStore(NonceProperties properties) {
+        this(properties.getMaxConfirmationEntries());
+    }
+
+    public InMemoryNonceStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public boolean add(String key, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        Long expiresAt = nonces.get(key);
+        if (expiresAt != null) {
+            if (expiresAt > now) return false;
+            // an expired key is free again, whoever replaces it first wins
+            return nonces.replace(key, expiresAt, expiresAtMillis);
+        }
+
+        if (nonces.size() >= maxEntries && !purge(now))
+            return true;
+        return nonces.putIfAbsent(key, expiresAtMillis) == null;
+    }
+
+    public int size() {
+        return nonces.size();
+    }
+
+    // removes expired keys, false if the store is still full
+    private boolean purge(long now) {
+        if (purging.compareAndSet(false, true)) {
+            try {
+                nonces.values().removeIf(expiresAt -> expiresAt <= now);
+            } finally {
+                purging.set(false);
+            }
+        }
+        return nonces.size() < maxEntries;
+    }
+}
@@ -0,0 +1,130 @@
+package dev.rexijie.auth.cache;
+
+import dev.rexijie.auth.model.UsedNonce;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NonceStore} in mongo, shared by every node.
+ * A key is added with a single upsert that only matches an expired entry, so a live entry makes
+ * the insert fail on the id and the key is reported as present. Mongo removes expired entries
+ * through the ttl index, the upsert covers the time until it does.
+ * <p>
+ * Keys recorded on first use are queued and upserted in batches by a background writer, so only
+ * the confirmation of a possible reuse waits for mongo. When the queue is full keys are upserted inline.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "oauth2.nonce", name = "store", havingValue = "mongo")
+public class MongoNonceStore implements NonceStore {
+    private static final int QUEUE_SIZE = 10000;
+    private static final int BATCH_SIZE = 500;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final BlockingQueue<PendingNonce> pending = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public MongoNonceStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.writer = new Thread(this::writeLoop, "nonce-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public boolean add(String key, long expiresAtMillis) {
+        try {
+            mongoTemplate.upsert(expired(key, new Date()), expiresAt(expiresAtMillis), UsedNonce.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void record(String key, long expiresAtMillis) {
+        if (!pending.offer(new PendingNonce(key, expiresAtMillis)))
+            add(key, expiresAtMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void writeLoop() {
+        List<PendingNonce> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            pending.drainTo(batch, BATCH_SIZE - 1);
+            write(batch);
+        }
+        // flush what is left on shutdown
+        while (pending.drainTo(batch, BATCH_SIZE) > 0)
+            write(batch);
+    }
+
+    private void write(List<PendingNonce> batch) {
+        Date now = new Date();
+        var operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UsedNonce.class);
+        for (PendingNonce nonce : batch)
+            operations.upsert(expired(nonce.key, now), expiresAt(nonce.expiresAtMillis));
+        try {
+            operations.execute();
+        } catch (BulkOperationException e) {
+            // a live entry fails its upsert on the id, the nonce was used on another node within the window
+            long reused = e.getErrors().stream().filter(error -> error.getCode() == DUPLICATE_KEY).count();
+            if (reused > 0)
+                log.warn("{} nonces were reused on another node and could not be refused", reused);
+            if (reused < e.getErrors().size())
+                log.warn("could not record {} nonces: {}", e.getErrors().size() - reused, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("could not record {} nonces: {}", batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+
+    private static Query expired(String key, Date now) {
+        return Query.query(Criteria.where("_id").is(key).and("expiresAt").lte(now));
+    }
+
+    private static Update expiresAt(long expiresAtMillis) {
+        return Update.update("expiresAt", new Date(expiresAtMillis));
+    }
+
+    private static class PendingNonce {
+        private final String key;
+        private final long expiresAtMillis;
+
+        private PendingNonce(String key, long expiresAtMillis) {
+            this.key = key;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
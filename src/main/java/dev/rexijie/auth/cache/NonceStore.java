@@ -0,0 +1,27 @@
+package dev.rexijie.auth.cache;
+
+/**
+ * Exact set of recently used nonces, confirming what the bloom filters of the replay detector report.
+ * Implementations shared between nodes let a nonce used on one node be detected on another.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public interface NonceStore {
+
+    /**
+     * Remembers the key until it expires, atomically with checking it was not already remembered.
+     *
+     * @param key           the client and nonce
+     * @param expiresAtMillis when the key may be forgotten
+     * @return true if the key was added, false if it is already present and not expired
+     */
+    boolean add(String key, long expiresAtMillis);
+
+    /**
+     * Remembers a key the filters have certainly not seen, so a later use of it can be confirmed.
+     * Implementations may do this off the request thread.
+     */
+    default void record(String key, long expiresAtMillis) {
+        add(key, expiresAtMillis);
+    }
+}
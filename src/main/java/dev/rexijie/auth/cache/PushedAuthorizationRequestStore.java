@@ -0,0 +1,110 @@
+package dev.rexijie.auth.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.rexijie.auth.config.PushedAuthorizationProperties;
+import org.springframework.security.oauth2.provider.AuthorizationRequest;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Short lived store of validated authorization requests pushed by clients.
+ * Each request_uri can be used once and only by the client that pushed it.
+ * <p>
+ * Requests expire after the request_uri ttl and the store holds at most {@code max-entries}.
+ * Each client may hold at most {@code max-entries-per-client} of them, so a client pushing without
+ * using its requests, public clients need no secret to push, can not fill the store for the others.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+public class PushedAuthorizationRequestStore {
+    public static final String REQUEST_URI_PREFIX = "urn:ietf:params:oauth:request_uri:";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Cache<String, PushedRequest> requests;
+    private final ConcurrentMap<String, AtomicInteger> requestsPerClient = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final PushedAuthorizationProperties properties;
+
+    public PushedAuthorizationRequestStore(PushedAuthorizationProperties properties) {
+        this.properties = properties;
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(properties.getRequestUriTtlSeconds()))
+                // counted down on the removing thread so the counts never lag behind the store
+                .executor(Runnable::run)
+                .<String, PushedRequest>removalListener((requestUri, pushed, cause) -> {
+                    if (pushed != null) release(pushed.authorizationRequest.getClientId());
+                })
+                .build();
+    }
+
+    /**
+     * @return the request_uri the client passes to the authorize endpoint,
+     * or null if the client already holds as many pushed requests as it may
+     */
+    public String push(AuthorizationRequest authorizationRequest) {
+        String clientId = authorizationRequest.getClientId();
+        if (!reserve(clientId)) {
+            // expired requests still count until the cache gets round to removing them
+            requests.cleanUp();
+            if (!reserve(clientId)) return null;
+        }
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String requestUri = REQUEST_URI_PREFIX + ENCODER.encodeToString(bytes);
+        requests.put(requestUri, new PushedRequest(authorizationRequest,
+                System.currentTimeMillis() + properties.getRequestUriTtlSeconds() * 1000L));
+        return requestUri;
+    }
+
+    /**
+     * Removes and returns the request pushed under {@code requestUri}.
+     *
+     * @return the pushed request, or null if it is unknown, expired or was pushed by another client
+     */
+    public AuthorizationRequest consume(String requestUri, String clientId) {
+        PushedRequest pushed = requests.asMap().remove(requestUri);
+        if (pushed == null || pushed.isExpired(System.currentTimeMillis())) return null;
+        if (!Objects.equals(pushed.authorizationRequest.getClientId(), clientId)) return null;
+        return pushed.authorizationRequest;
+    }
+
+    public int getRequestUriTtlSeconds() {
+        return properties.getRequestUriTtlSeconds();
+    }
+
+    private boolean reserve(String clientId) {
+        AtomicInteger count = requestsPerClient.computeIfAbsent(clientId, id -> new AtomicInteger());
+        if (count.incrementAndGet() <= properties.getMaxEntriesPerClient()) return true;
+        release(clientId);
+        return false;
+    }
+
+    private void release(String clientId) {
+        requestsPerClient.computeIfPresent(clientId, (id, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    private static class PushedRequest {
+        private final AuthorizationRequest authorizationRequest;
+        private final long expiresAt;
+
+        private PushedRequest(AuthorizationRequest authorizationRequest, long expiresAt) {
+            this.authorizationRequest = authorizationRequest;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
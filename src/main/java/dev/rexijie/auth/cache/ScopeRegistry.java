@@ -0,0 +1,92 @@
+package dev.rexijie.auth.cache;
+
+import dev.rexijie.auth.config.OIDCDiscovery;
+import dev.rexijie.auth.constants.Scopes;
+import dev.rexijie.auth.model.ScopeSet;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps scope names to bit positions so scope sets can be compared as {@link ScopeSet}s.
+ * The registry is seeded with the well known scopes, which have fixed bits, and the
+ * scopes from discovery. Client scopes are interned when a client is validated.
+ * Scopes from requests are only looked up, never interned.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+public class ScopeRegistry {
+    public static final int OPENID = 0;
+    public static final int PROFILE = 1;
+    public static final int EMAIL = 2;
+    public static final int ADDRESS = 3;
+    public static final int PHONE = 4;
+    public static final int READ = 5;
+    public static final int WRITE = 6;
+
+    private final ConcurrentMap<String, Integer> bits = new ConcurrentHashMap<>();
+    private final AtomicInteger nextBit = new AtomicInteger();
+
+    public ScopeRegistry(OIDCDiscovery oidcDiscovery) {
+        intern(Scopes.ID_SCOPE);
+        intern(Scopes.IDTokenScopes.PROFILE);
+        intern(Scopes.IDTokenScopes.EMAIL);
+        intern(Scopes.IDTokenScopes.ADDRESS);
+        intern(Scopes.IDTokenScopes.PHONE);
+        intern(Scopes.READ_SCOPE);
+        intern(Scopes.WRITE_SCOPE);
+
+        if (oidcDiscovery.getScopesSupported() != null)
+            oidcDiscovery.getScopesSupported().forEach(this::intern);
+    }
+
+    /**
+     * @return the bit of the scope, registering it if it is new
+     */
+    public int intern(String scope) {
+        Integer bit = bits.get(scope);
+        if (bit != null) return bit;
+        return bits.computeIfAbsent(scope, key -> nextBit.getAndIncrement());
+    }
+
+    /**
+     * Scope set of registered scopes, e.g. a client's, interning any new scope
+     */
+    public ScopeSet intern(Collection<String> scopes) {
+        long[] words = new long[wordCount()];
+        for (String scope : scopes)
+            words = set(words, intern(scope));
+        return new ScopeSet(words, false);
+    }
+
+    /**
+     * Scope set of requested scopes. Scopes the registry does not know are flagged, not interned
+     */
+    public ScopeSet lookup(Collection<String> scopes) {
+        if (scopes == null || scopes.isEmpty()) return ScopeSet.EMPTY;
+        long[] words = new long[wordCount()];
+        boolean unknown = false;
+        for (String scope : scopes) {
+            Integer bit = bits.get(scope);
+            if (bit == null) unknown = true;
+            else words = set(words, bit);
+        }
+        return new ScopeSet(words, unknown);
+    }
+
+    private int wordCount() {
+        return (nextBit.get() + 63) >>> 6;
+    }
+
+    private static long[] set(long[] words, int bit) {
+        int word = bit >>> 6;
+        if (word >= words.length) words = Arrays.copyOf(words, word + 1);
+        words[word] |= 1L << bit;
+        return words;
+    }
+}
@@ -0,0 +1,163 @@
+package dev.rexijie.auth.cache;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filters over rotating time buckets, remembering keys for at least a window.
+ * <p>
+ * Keys are added to the bucket of the current time and looked up in every live bucket. When time moves
+ * into a new bucket the oldest one is cleared and reused, so the memory is fixed when the filter is built:
+ * {@code buckets} bit sets, each sized for the keys expected in one bucket at the configured false positive rate.
+ * With {@code n} buckets each spans {@code window / (n - 1)}, so a key is remembered for at least the window.
+ * Bits are set with compare and swap, adding and looking up never lock.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class TimeBucketedBloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray[] buckets;
+    private final AtomicLongArray bucketEpochs; // the bucket number each slot currently holds
+    private final long bucketMillis;
+    private final long bits;
+    private final int hashes;
+    private final long seed = new SecureRandom().nextLong(); // keys come from clients, keep the hashes unpredictable
+
+    private TimeBucketedBloomFilter(int buckets, long bucketMillis, long bits, int hashes, long now) {
+        this.buckets = new AtomicLongArray[buckets];
+        for (int i = 0; i < buckets; i++)
+            this.buckets[i] = new AtomicLongArray((int) (bits >>> 6));
+        this.bucketEpochs = new AtomicLongArray(buckets);
+        this.bucketMillis = bucketMillis;
+        this.bits = bits;
+        this.hashes = hashes;
+
+        long current = Math.floorDiv(now, bucketMillis);
+        for (int i = 0; i < buckets; i++)
+            bucketEpochs.set(i, Long.MIN_VALUE);
+        bucketEpochs.set(slotOf(current), current);
+    }
+
+    /**
+     * @param expectedRatePerSecond keys expected to be added per second
+     * @param windowMillis          how long a key is remembered for at least
+     * @param buckets               number of buckets, at least 2. more buckets forget keys closer to the window
+     * @param falsePositiveRate     chance of a key that was never added being reported as seen
+     * @param maxBytes              upper bound of the bit sets, the false positive rate rises if it is reached
+     * @param now                   current time in millis
+     */
+    public static TimeBucketedBloomFilter sized(long expectedRatePerSecond, long windowMillis, int buckets,
+                                                double falsePositiveRate, long maxBytes, long now) {
+        if (buckets < 2)
+            throw new IllegalArgumentException("at least two buckets are needed");
+        long bucketMillis = Math.max(1, (windowMillis + buckets - 2) / (buckets - 1));
+        long keysPerBucket = Math.max(1, (long) Math.ceil(expectedRatePerSecond * bucketMillis / 1000.0));
+
+        // a key is looked up in every bucket, so each gets its share of the false positive rate
+        double bucketRate = falsePositiveRate / buckets;
+        long bits = (long) Math.ceil(-keysPerBucket * Math.log(bucketRate) / (LN2 * LN2));
+        long maxBits = Math.max(64, maxBytes * 8 / buckets);
+        bits = Math.min(Math.min(bits, maxBits), (long) Integer.MAX_VALUE << 6);
+        bits = (bits + 63) & ~63L;
+
+        int hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / keysPerBucket * LN2)));
+        return new TimeBucketedBloomFilter(buckets, bucketMillis, bits, hashes, now);
+    }
+
+    /**
+     * Adds the key to the current bucket.
+     *
+     * @return true if the key may have been added within the window before, false if it certainly was not
+     */
+    public boolean put(String key, long now) {
+        long hash = hash(key);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+
+        long current = Math.floorDiv(now, bucketMillis);
+        AtomicLongArray bucket = bucketFor(current);
+
+        boolean seen = false;
+        for (int i = 0; i < buckets.length && !seen; i++) {
+            long epoch = bucketEpochs.get(i);
+            if (epoch <= current && epoch > current - buckets.length)
+                seen = contains(buckets[i], h1, h2);
+        }
+
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long value;
+            do {
+                value = bucket.get(word);
+                if ((value & mask) != 0) break;
+            } while (!bucket.compareAndSet(word, value, value | mask));
+        }
+        return seen;
+    }
+
+    public long getBitsPerBucket() {
+        return bits;
+    }
+
+    public int getHashes() {
+        return hashes;
+    }
+
+    public int getBuckets() {
+        return buckets.length;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public long sizeInBytes() {
+        return bits / 8 * buckets.length;
+    }
+
+    private boolean contains(AtomicLongArray bucket, long h1, long h2) {
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((bucket.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // clears the slot of a bucket that has fallen out of the window before it is reused
+    private AtomicLongArray bucketFor(long current) {
+        int slot = slotOf(current);
+        if (bucketEpochs.get(slot) != current) {
+            synchronized (this) {
+                if (bucketEpochs.get(slot) != current) {
+                    AtomicLongArray bucket = buckets[slot];
+                    for (int i = 0; i < bucket.length(); i++)
+                        bucket.set(i, 0);
+                    bucketEpochs.set(slot, current);
+                }
+            }
+        }
+        return buckets[slot];
+    }
+
+    private int slotOf(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets.length);
+    }
+
+    private long hash(String key) {
+        long hash = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,93 @@
+package dev.rexijie.auth.cache;
+
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.tokenservices.openid.UserInfoRenderer;
+import dev.rexijie.auth.tokenservices.openid.UserInfoRenderer.RenderedUserInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Rendered userinfo responses by user and granted scopes.
+ * Entries belong to a version of the user, its {@code updatedAt}. They are dropped when the user is
+ * updated on this node, and after {@code ttl} the user is loaded again to check the version,
+ * other nodes may have changed it. Responses of an unchanged version are kept.
+ * The cache holds a bounded number of users and forgets those not read for {@code cache-idle-seconds}.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+public class UserInfoCache {
+    public static final String CACHE_NAME = "user-info";
+
+    private final Cache cache;
+    @Value("${oauth2.userinfo.cache-ttl-seconds:60}")
+    private long cacheTtlSeconds = 60;
+
+    public UserInfoCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * @param loader loads the current user, called when there is no fresh entry
+     * @param renderer renders the response when it is not cached for this version
+     */
+    public RenderedUserInfo get(String username, int scopeMask,
+                                Function<String, User> loader, UserInfoRenderer renderer) {
+        CachedUserInfo cached = cache.get(username, CachedUserInfo.class);
+        if (cached == null || cached.isStale(cacheTtlSeconds)) {
+            User user = loader.apply(username);
+            cached = cached != null && cached.isVersion(user.getUpdatedAt())
+                    ? cached.revalidated(user)
+                    : new CachedUserInfo(user);
+            cache.put(username, cached);
+        }
+
+        RenderedUserInfo rendered = cached.responses.get(scopeMask);
+        if (rendered == null) {
+            rendered = renderer.render(cached.user, scopeMask);
+            cached.responses.set(scopeMask, rendered);
+        }
+        return rendered;
+    }
+
+    public void evict(String username) {
+        cache.evict(username);
+    }
+
+    private static class CachedUserInfo {
+        private final User user;
+        private final LocalDateTime version;
+        private final AtomicReferenceArray<RenderedUserInfo> responses;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private CachedUserInfo(User user) {
+            this(user, new AtomicReferenceArray<>(UserInfoRenderer.SCOPE_COMBINATIONS));
+        }
+
+        private CachedUserInfo(User user, AtomicReferenceArray<RenderedUserInfo> responses) {
+            this.user = user;
+            this.version = user.getUpdatedAt();
+            this.responses = responses;
+        }
+
+        private boolean isVersion(LocalDateTime updatedAt) {
+            return Objects.equals(version, updatedAt);
+        }
+
+        // same version, the rendered responses stay valid
+        private CachedUserInfo revalidated(User user) {
+            return new CachedUserInfo(user, responses);
+        }
+
+        private boolean isStale(long ttlSeconds) {
+            return System.currentTimeMillis() - loadedAt > ttlSeconds * 1000;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the audit trail.
+ * Events are buffered in memory and written in batches by a background thread,
+ * to a mongo capped collection or to a rolling file.
+ */
+@ConfigurationProperties(prefix = "oauth2.audit")
+public class AuditProperties {
+    private boolean enabled = true;
+    private Sink sink = Sink.MONGO;
+    private int bufferSize = 8192; // rounded up to a power of two
+    private int batchSize = 256;
+    private long flushIntervalMillis = 200;
+    private String collection = "audit-events";
+    private int cappedSizeMegabytes = 256;
+    private String file = "logs/audit.log";
+    private int maxFileSizeMegabytes = 50;
+    private int maxFiles = 10;
+
+    public enum Sink {
+        MONGO, FILE
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public int getCappedSizeMegabytes() {
+        return cappedSizeMegabytes;
+    }
+
+    public void setCappedSizeMegabytes(int cappedSizeMegabytes) {
+        this.cappedSizeMegabytes = cappedSizeMegabytes;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public int getMaxFileSizeMegabytes() {
+        return maxFileSizeMegabytes;
+    }
+
+    public void setMaxFileSizeMegabytes(int maxFileSizeMegabytes) {
+        this.maxFileSizeMegabytes = maxFileSizeMegabytes;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    public void setMaxFiles(int maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+}
@@ -0,0 +1,88 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for where authorization codes are kept.
+ * {@code mongo} stores every code in mongo, {@code memory} keeps them in this node only,
+ * optionally copied to mongo in the background so they survive a restart.
+ */
+@ConfigurationProperties(prefix = "oauth2.authorization.codes")
+public class AuthorizationCodeProperties {
+    private Store store = Store.MONGO;
+    private long ttlSeconds = 180;
+    private int maxCodes = 100000;
+    private int stripes = 64;
+    private long tickMillis = 1000;
+    private boolean writeBehind = false;
+    private int writeBehindBufferSize = 8192;
+    private int writeBehindBatchSize = 256;
+
+    public enum Store {
+        MONGO, MEMORY
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public int getMaxCodes() {
+        return maxCodes;
+    }
+
+    public void setMaxCodes(int maxCodes) {
+        this.maxCodes = maxCodes;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public void setTickMillis(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public int getWriteBehindBufferSize() {
+        return writeBehindBufferSize;
+    }
+
+    public void setWriteBehindBufferSize(int writeBehindBufferSize) {
+        this.writeBehindBufferSize = writeBehindBufferSize;
+    }
+
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+        this.writeBehindBatchSize = writeBehindBatchSize;
+    }
+}
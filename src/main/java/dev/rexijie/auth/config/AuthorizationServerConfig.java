@@ -1,8 +1,17 @@
 package dev.rexijie.auth.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.rexijie.auth.config.interceptors.SessionInvalidatingHandlerInterceptor;
+import dev.rexijie.auth.filters.LoginThrottlingFilter;
+import dev.rexijie.auth.metrics.TimedPasswordEncoder;
+import dev.rexijie.auth.metrics.TimedTokenGranter;
+import dev.rexijie.auth.metrics.TokenMetrics;
 import dev.rexijie.auth.service.ClientService;
 import dev.rexijie.auth.service.UserService;
+import dev.rexijie.auth.throttle.LoginThrottle;
+import dev.rexijie.auth.tokenservices.MongoApprovalStore;
+import dev.rexijie.auth.tokenservices.PkceAuthorizationCodeTokenGranter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -16,10 +25,12 @@ import org.springframework.security.oauth2.config.annotation.web.configurers.Aut
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.CompositeTokenGranter;
 import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.OAuth2RequestValidator;
 import org.springframework.security.oauth2.provider.TokenGranter;
+import org.springframework.security.oauth2.provider.approval.ApprovalStoreUserApprovalHandler;
+import org.springframework.security.oauth2.provider.approval.UserApprovalHandler;
 import org.springframework.security.oauth2.provider.client.ClientCredentialsTokenGranter;
 import org.springframework.security.oauth2.provider.code.AuthorizationCodeServices;
-import org.springframework.security.oauth2.provider.code.AuthorizationCodeTokenGranter;
 import org.springframework.security.oauth2.provider.implicit.ImplicitTokenGranter;
 import org.springframework.security.oauth2.provider.password.ResourceOwnerPasswordTokenGranter;
 import org.springframework.security.oauth2.provider.refresh.RefreshTokenGranter;
@@ -43,6 +54,13 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
     private final AuthorizationServerTokenServices tokenServices;
     private final AuthorizationCodeServices authorizationCodeServices;
     private final AccessTokenConverter accessTokenConverter;
+    private final MongoApprovalStore approvalStore;
+    private final OAuth2RequestValidator requestValidator;
+    private final TokenMetrics tokenMetrics;
+    private final LoginThrottle loginThrottle;
+    private final ObjectMapper objectMapper;
+    @Value("${oauth2.consent.expiry-seconds:2592000}")
+    private int consentExpirySeconds;
 
     public AuthorizationServerConfig(UserService userService,
                                      ClientService clientService,
@@ -50,7 +68,12 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
                                      AuthenticationConfiguration authenticationConfiguration,
                                      AuthorizationServerTokenServices tokenServices,
                                      AuthorizationCodeServices authorizationCodeServices,
-                                     AccessTokenConverter accessTokenConverter) throws Exception {
+                                     AccessTokenConverter accessTokenConverter,
+                                     MongoApprovalStore approvalStore,
+                                     OAuth2RequestValidator requestValidator,
+                                     TokenMetrics tokenMetrics,
+                                     LoginThrottle loginThrottle,
+                                     ObjectMapper objectMapper) throws Exception {
         this.userService = userService;
         this.tokenServices = tokenServices;
         this.clientService = clientService;
@@ -58,13 +81,18 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
         this.authenticationManager = authenticationConfiguration.getAuthenticationManager();
         this.authorizationCodeServices = authorizationCodeServices;
         this.accessTokenConverter = accessTokenConverter;
+        this.approvalStore = approvalStore;
+        this.requestValidator = requestValidator;
+        this.tokenMetrics = tokenMetrics;
+        this.loginThrottle = loginThrottle;
+        this.objectMapper = objectMapper;
     }
 
     @Override
     public void configure(AuthorizationServerSecurityConfigurer security) {
         security.tokenKeyAccess("isAnonymous() || hasAuthority('ROLE_CLIENT')")
                 .checkTokenAccess("hasAuthority('ROLE_CLIENT')")
-                .passwordEncoder(passwordEncoder);
+                .passwordEncoder(new TimedPasswordEncoder(passwordEncoder, tokenMetrics, TokenMetrics.CLIENT_AUTHENTICATION));
 
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -76,6 +104,8 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
         CorsFilter filter = new CorsFilter(source);
 
         security.addTokenEndpointAuthenticationFilter(filter);
+        // password grants are throttled before the client secret or the password is checked
+        security.addTokenEndpointAuthenticationFilter(new LoginThrottlingFilter(loginThrottle, objectMapper));
 
     }
 
@@ -93,7 +123,9 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
                 .authorizationCodeServices(authorizationCodeServices)
                 .tokenServices(tokenServices)
                 .requestFactory(oAuth2RequestFactory())
+                .requestValidator(requestValidator)
                 .tokenGranter(tokenGranter())
+                .userApprovalHandler(userApprovalHandler())
                 .allowedTokenEndpointRequestMethods(HttpMethod.GET, HttpMethod.POST, HttpMethod.OPTIONS);
 
         endpoints.addInterceptor(new SessionInvalidatingHandlerInterceptor());
@@ -110,7 +142,20 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
     // configure endpoints
     @Bean
     public TokenGranter tokenGranter() {
-        return new CompositeTokenGranter(getDefaultTokenGranters(oAuth2RequestFactory()));
+        return new TimedTokenGranter(new CompositeTokenGranter(getDefaultTokenGranters(oAuth2RequestFactory())), tokenMetrics);
+    }
+
+    /**
+     * remembers the scopes a user approved for a client so later authorizations skip the approval page
+     */
+    @Bean
+    public UserApprovalHandler userApprovalHandler() {
+        ApprovalStoreUserApprovalHandler handler = new ApprovalStoreUserApprovalHandler();
+        handler.setApprovalStore(approvalStore);
+        handler.setClientDetailsService(clientService);
+        handler.setRequestFactory(oAuth2RequestFactory());
+        handler.setApprovalExpiryInSeconds(consentExpirySeconds);
+        return handler;
     }
 
     private OAuth2RequestFactory oAuth2RequestFactory() {
@@ -119,7 +164,7 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
 
     private List<TokenGranter> getDefaultTokenGranters(OAuth2RequestFactory oAuth2RequestFactory) {
         return List.of(
-          new AuthorizationCodeTokenGranter(tokenServices, authorizationCodeServices, clientService, oAuth2RequestFactory),
+          new PkceAuthorizationCodeTokenGranter(tokenServices, authorizationCodeServices, clientService, oAuth2RequestFactory),
           new RefreshTokenGranter(tokenServices, clientService, oAuth2RequestFactory),
           new ImplicitTokenGranter(tokenServices, clientService, oAuth2RequestFactory),
           new ClientCredentialsTokenGranter(tokenServices, clientService, oAuth2RequestFactory),
@@ -1,31 +1,58 @@
 package dev.rexijie.auth.config;
 
-import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.rexijie.auth.cache.UserInfoCache;
+import dev.rexijie.auth.tokenservices.MongoApprovalStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.List;
 
+/**
+ * Caches are bounded so entries keyed by users or clients can not grow without limit,
+ * cached approvals and clients are dropped once they are older than their ttl and userinfo responses
+ * once they have not been read for a while.
+ *
+ * @author Rex Ijiekhuamen
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
+    @Value("${oauth2.clients.cache-ttl-seconds:600}")
+    private long clientCacheTtlSeconds = 600;
+    @Value("${oauth2.clients.cache-max-entries:10000}")
+    private long clientCacheMaxEntries = 10000;
+    @Value("${oauth2.consent.cache-ttl-seconds:60}")
+    private long consentCacheTtlSeconds = 60;
+    @Value("${oauth2.consent.cache-max-entries:100000}")
+    private long consentCacheMaxEntries = 100000;
+    @Value("${oauth2.userinfo.cache-idle-seconds:600}")
+    private long userInfoCacheIdleSeconds = 600;
+    @Value("${oauth2.userinfo.cache-max-entries:100000}")
+    private long userInfoCacheMaxEntries = 100000;
 
     @Bean
-    public CacheManager concurrentMapCacheManager() {
-        return new ConcurrentMapCacheManager();
+    public CacheManager cacheManager() {
+        var cacheManager = new CaffeineCacheManager();
+        // evictions only reach this node, the ttl bounds how long other nodes serve a changed client
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(clientCacheMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(clientCacheTtlSeconds)));
+        cacheManager.setCacheNames(List.of("registered-clients"));
+        cacheManager.registerCustomCache(MongoApprovalStore.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(consentCacheMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(consentCacheTtlSeconds))
+                .build());
+        // entries are revalidated after their ttl but only dropped here, users that stopped calling are forgotten
+        cacheManager.registerCustomCache(UserInfoCache.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(userInfoCacheMaxEntries)
+                .expireAfterAccess(Duration.ofSeconds(userInfoCacheIdleSeconds))
+                .build());
+        return cacheManager;
     }
-
-    @Component
-    static
-    class CacheCustomizer implements CacheManagerCustomizer<ConcurrentMapCacheManager> {
-
-        @Override
-        public void customize(ConcurrentMapCacheManager cacheManager) {
-            cacheManager.setCacheNames(List.of("registered-clients"));
-        }
-    }
-}
\ No newline at end of file
+}
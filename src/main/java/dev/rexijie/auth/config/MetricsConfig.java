@@ -0,0 +1,22 @@
+package dev.rexijie.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes timings of every mongo command as {@code mongodb.driver.commands},
+ * tagged by command and collection
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoMetricsCustomizer(MeterRegistry meterRegistry) {
+        return builder -> builder.addCommandListener(new MongoMetricsCommandListener(meterRegistry));
+    }
+}
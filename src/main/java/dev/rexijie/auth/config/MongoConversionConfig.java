@@ -0,0 +1,20 @@
+package dev.rexijie.auth.config;
+
+import dev.rexijie.auth.repository.converter.EntityReadingConverters;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * Registers the hand written readers for users, roles, clients and authorization codes
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Configuration
+public class MongoConversionConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(EntityReadingConverters.getConvertersToRegister());
+    }
+}
@@ -0,0 +1,89 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for detecting reused nonces on the authorize endpoint.
+ * Nonces are remembered for {@code window-seconds} by bloom filters sized for {@code expected-rate-per-second},
+ * and exactly for the same window by the nonce store, {@code memory} for this node only
+ * or {@code mongo} to share them between nodes. The memory store keeps at most {@code max-confirmation-entries}.
+ */
+@ConfigurationProperties(prefix = "oauth2.nonce")
+public class NonceProperties {
+    private boolean enabled = true;
+    private Store store = Store.MEMORY;
+    private long windowSeconds = 3600;
+    private int buckets = 4;
+    private long expectedRatePerSecond = 50;
+    private double falsePositiveRate = 0.000001;
+    private long maxFilterBytes = 16 * 1024 * 1024;
+    private int maxConfirmationEntries = 200000;
+
+    public enum Store {
+        MEMORY, MONGO
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(long windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(int buckets) {
+        this.buckets = buckets;
+    }
+
+    public long getExpectedRatePerSecond() {
+        return expectedRatePerSecond;
+    }
+
+    public void setExpectedRatePerSecond(long expectedRatePerSecond) {
+        this.expectedRatePerSecond = expectedRatePerSecond;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public long getMaxFilterBytes() {
+        return maxFilterBytes;
+    }
+
+    public void setMaxFilterBytes(long maxFilterBytes) {
+        this.maxFilterBytes = maxFilterBytes;
+    }
+
+    public int getMaxConfirmationEntries() {
+        return maxConfirmationEntries;
+    }
+
+    public void setMaxConfirmationEntries(int maxConfirmationEntries) {
+        this.maxConfirmationEntries = maxConfirmationEntries;
+    }
+}
@@ -22,6 +22,7 @@ public class OIDCDiscovery {
     private String introspectionEndpoint;
     private String jwksUri;
     private String revocationEndpoint;
+    private String pushedAuthorizationRequestEndpoint;
 
     private Set<String> userinfoSigningAlgSupported;
     private Set<String> idTokenSigningAlgValuesSupported;
@@ -35,6 +36,7 @@ public class OIDCDiscovery {
     private Set<String> claimsSupported;
     private Set<String> grantTypesSupported;
     private Set<String> tokenEndpointAuthMethodsSupported;
+    private Set<String> codeChallengeMethodsSupported;
 
     public String getBaseUri() {
         return baseUri;
@@ -187,4 +189,20 @@ public class OIDCDiscovery {
     public void setTokenEndpointAuthMethodsSupported(Set<String> tokenEndpointAuthMethodsSupported) {
         this.tokenEndpointAuthMethodsSupported = tokenEndpointAuthMethodsSupported;
     }
+
+    public Set<String> getCodeChallengeMethodsSupported() {
+        return codeChallengeMethodsSupported;
+    }
+
+    public void setCodeChallengeMethodsSupported(Set<String> codeChallengeMethodsSupported) {
+        this.codeChallengeMethodsSupported = codeChallengeMethodsSupported;
+    }
+
+    public String getPushedAuthorizationRequestEndpoint() {
+        return pushedAuthorizationRequestEndpoint;
+    }
+
+    public void setPushedAuthorizationRequestEndpoint(String pushedAuthorizationRequestEndpoint) {
+        this.pushedAuthorizationRequestEndpoint = pushedAuthorizationRequestEndpoint;
+    }
 }
@@ -0,0 +1,39 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for pushed authorization requests.
+ * A pushed request is kept in memory until it is used or its request_uri expires,
+ * each client may have at most {@code max-entries-per-client} waiting.
+ */
+@ConfigurationProperties(prefix = "oauth2.par")
+public class PushedAuthorizationProperties {
+    private int requestUriTtlSeconds = 60;
+    private int maxEntries = 10000;
+    private int maxEntriesPerClient = 100;
+
+    public int getRequestUriTtlSeconds() {
+        return requestUriTtlSeconds;
+    }
+
+    public void setRequestUriTtlSeconds(int requestUriTtlSeconds) {
+        this.requestUriTtlSeconds = requestUriTtlSeconds;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxEntriesPerClient() {
+        return maxEntriesPerClient;
+    }
+
+    public void setMaxEntriesPerClient(int maxEntriesPerClient) {
+        this.maxEntriesPerClient = maxEntriesPerClient;
+    }
+}
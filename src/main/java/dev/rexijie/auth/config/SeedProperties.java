@@ -0,0 +1,48 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for seeding roles, clients and users from a seed file on startup
+ */
+@ConfigurationProperties(prefix = "oauth2.seed")
+public class SeedProperties {
+    private boolean enabled = true;
+    private String location = "classpath:seed.json";
+    // seed on a background thread so startup does not wait for it
+    private boolean async = true;
+    // keys the fingerprints of seeded records, which include their secrets. generated and kept in mongo when empty
+    private String fingerprintKey;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public String getFingerprintKey() {
+        return fingerprintKey;
+    }
+
+    public void setFingerprintKey(String fingerprintKey) {
+        this.fingerprintKey = fingerprintKey;
+    }
+}
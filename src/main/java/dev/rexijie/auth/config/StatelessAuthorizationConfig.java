@@ -0,0 +1,79 @@
+package dev.rexijie.auth.config;
+
+import dev.rexijie.auth.config.session.EncryptedCookieRequestCache;
+import dev.rexijie.auth.config.session.EncryptedCookieSecurityContextRepository;
+import dev.rexijie.auth.config.session.EncryptedCookieSessionAttributeStore;
+import dev.rexijie.auth.config.session.EncryptedCookies;
+import dev.rexijie.auth.controller.EnhancedAuthorizationEndpoint;
+import dev.rexijie.auth.service.UserService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.support.SessionAttributeStore;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.Map;
+
+/**
+ * Replaces the http session as the home of the login and the pending authorization request.
+ * The logged in user, the page to return to after login and the request carried between the authorize,
+ * approval and approve/deny steps are kept in encrypted cookies so no sticky sessions are needed.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "oauth2.authorization.stateless", name = "enabled", havingValue = "true")
+public class StatelessAuthorizationConfig {
+
+    @Bean
+    public BytesEncryptor statelessAuthorizationEncryptor(StatelessAuthorizationProperties properties) {
+        Assert.hasText(properties.getSecret(), "oauth2.authorization.stateless.secret must be set");
+        Assert.hasText(properties.getSalt(), "oauth2.authorization.stateless.salt must be set");
+        return Encryptors.stronger(properties.getSecret(), properties.getSalt());
+    }
+
+    @Bean
+    public SessionAttributeStore authorizationRequestAttributeStore(BytesEncryptor statelessAuthorizationEncryptor,
+                                                                    StatelessAuthorizationProperties properties) {
+        return new EncryptedCookieSessionAttributeStore(
+                statelessAuthorizationEncryptor,
+                Map.of(EnhancedAuthorizationEndpoint.AUTHORIZATION_REQUEST_ATTR_NAME, "OAUTH2_AUTHZ",
+                        EnhancedAuthorizationEndpoint.ORIGINAL_AUTHORIZATION_REQUEST_ATTR_NAME, "OAUTH2_AUTHZ_ORIG"),
+                properties.getMaxAgeSeconds());
+    }
+
+    @Bean
+    public EncryptedCookieSecurityContextRepository loginCookieRepository(BytesEncryptor statelessAuthorizationEncryptor,
+                                                                          StatelessAuthorizationProperties properties,
+                                                                          UserService userService) {
+        return new EncryptedCookieSecurityContextRepository(
+                new EncryptedCookies(statelessAuthorizationEncryptor, "OAUTH2_LOGIN", properties.getLoginMaxAgeSeconds()),
+                userService);
+    }
+
+    @Bean
+    public EncryptedCookieRequestCache loginRequestCache(BytesEncryptor statelessAuthorizationEncryptor,
+                                                         StatelessAuthorizationProperties properties) {
+        return new EncryptedCookieRequestCache(
+                new EncryptedCookies(statelessAuthorizationEncryptor, "OAUTH2_LOGIN_RETURN", properties.getMaxAgeSeconds()));
+    }
+
+    /**
+     * {@code @SessionAttributes} are resolved by the handler adapter, the endpoint only reads
+     * the store directly when rendering errors
+     */
+    @Bean
+    public SmartInitializingSingleton authorizationRequestAttributeStoreInitializer(
+            RequestMappingHandlerAdapter handlerAdapter,
+            EnhancedAuthorizationEndpoint authorizationEndpoint,
+            SessionAttributeStore authorizationRequestAttributeStore) {
+        return () -> {
+            handlerAdapter.setSessionAttributeStore(authorizationRequestAttributeStore);
+            authorizationEndpoint.setSessionAttributeStore(authorizationRequestAttributeStore);
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for carrying the login and the pending authorization request in encrypted cookies
+ * instead of the http session. Every replica must share the same secret and salt.
+ * {@code max-age-seconds} bounds an authorization flow, {@code login-max-age-seconds} a login.
+ */
+@ConfigurationProperties(prefix = "oauth2.authorization.stateless")
+public class StatelessAuthorizationProperties {
+    private boolean enabled = false;
+    private String secret;
+    private String salt; // hex encoded
+    private int maxAgeSeconds = 600;
+    private int loginMaxAgeSeconds = 3600;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public String getSalt() {
+        return salt;
+    }
+
+    public void setSalt(String salt) {
+        this.salt = salt;
+    }
+
+    public int getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    public void setMaxAgeSeconds(int maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public int getLoginMaxAgeSeconds() {
+        return loginMaxAgeSeconds;
+    }
+
+    public void setLoginMaxAgeSeconds(int loginMaxAgeSeconds) {
+        this.loginMaxAgeSeconds = loginMaxAgeSeconds;
+    }
+}
@@ -0,0 +1,76 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for throttling login and password grant attempts.
+ * Attempts are limited per username and per client address with token buckets,
+ * a bucket holds {@code capacity} attempts and regains {@code refillPerMinute} of them every minute.
+ */
+@ConfigurationProperties(prefix = "oauth2.throttling")
+public class ThrottlingProperties {
+    private boolean enabled = true;
+    private int usernameCapacity = 10;
+    private double usernameRefillPerMinute = 5;
+    private int addressCapacity = 50;
+    private double addressRefillPerMinute = 30;
+    // upper bound of remembered keys per table, idle keys are evicted first
+    private int maxKeys = 100_000;
+    private int stripes = 64; // rounded up to a power of two
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getUsernameCapacity() {
+        return usernameCapacity;
+    }
+
+    public void setUsernameCapacity(int usernameCapacity) {
+        this.usernameCapacity = usernameCapacity;
+    }
+
+    public double getUsernameRefillPerMinute() {
+        return usernameRefillPerMinute;
+    }
+
+    public void setUsernameRefillPerMinute(double usernameRefillPerMinute) {
+        this.usernameRefillPerMinute = usernameRefillPerMinute;
+    }
+
+    public int getAddressCapacity() {
+        return addressCapacity;
+    }
+
+    public void setAddressCapacity(int addressCapacity) {
+        this.addressCapacity = addressCapacity;
+    }
+
+    public double getAddressRefillPerMinute() {
+        return addressRefillPerMinute;
+    }
+
+    public void setAddressRefillPerMinute(double addressRefillPerMinute) {
+        this.addressRefillPerMinute = addressRefillPerMinute;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+}
@@ -0,0 +1,39 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for re-using client_credentials access tokens.
+ * Only clients that opt in with {@code reuseAccessTokens} are affected.
+ */
+@ConfigurationProperties(prefix = "oauth2.token.reuse")
+public class TokenReuseProperties {
+    private boolean enabled = false;
+    // share of the token lifetime that must remain for a cached token to be handed out again
+    private double minRemainingLifetime = 0.5;
+    private int maxEntriesPerClient = 64;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getMinRemainingLifetime() {
+        return minRemainingLifetime;
+    }
+
+    public void setMinRemainingLifetime(double minRemainingLifetime) {
+        this.minRemainingLifetime = minRemainingLifetime;
+    }
+
+    public int getMaxEntriesPerClient() {
+        return maxEntriesPerClient;
+    }
+
+    public void setMaxEntriesPerClient(int maxEntriesPerClient) {
+        this.maxEntriesPerClient = maxEntriesPerClient;
+    }
+}
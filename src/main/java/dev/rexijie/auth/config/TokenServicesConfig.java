@@ -1,9 +1,15 @@
 package dev.rexijie.auth.config;
 
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.audit.AuditingTokenEnhancer;
+import dev.rexijie.auth.cache.ClientTokenCache;
+import dev.rexijie.auth.cache.ScopeRegistry;
+import dev.rexijie.auth.metrics.TokenMetrics;
 import dev.rexijie.auth.model.token.KeyPairHolder;
 import dev.rexijie.auth.service.ClientService;
 import dev.rexijie.auth.service.SecretGenerator;
 import dev.rexijie.auth.service.UserService;
+import dev.rexijie.auth.tokenservices.ClientTokenReusingTokenStore;
 import dev.rexijie.auth.tokenservices.DefaultJwtClaimEnhancer;
 import dev.rexijie.auth.tokenservices.JwtClaimsEnhancer;
 import dev.rexijie.auth.tokenservices.JwtTokenConverter;
@@ -30,15 +36,30 @@ public class TokenServicesConfig {
     private final UserService userService;
     private final KeyPairHolder keyPairHolder;
     private final ClientService clientService;
+    private final ClientTokenCache clientTokenCache;
+    private final TokenReuseProperties tokenReuseProperties;
+    private final ScopeRegistry scopeRegistry;
+    private final TokenMetrics tokenMetrics;
+    private final AuditLog auditLog;
     private final String kid;
 
     public TokenServicesConfig(UserService userService,
                                KeyPairHolder keyPairHolder,
                                ClientService clientService,
-                               SecretGenerator secretGenerator) {
+                               SecretGenerator secretGenerator,
+                               ClientTokenCache clientTokenCache,
+                               TokenReuseProperties tokenReuseProperties,
+                               ScopeRegistry scopeRegistry,
+                               TokenMetrics tokenMetrics,
+                               AuditLog auditLog) {
         this.userService = userService;
         this.keyPairHolder = keyPairHolder;
         this.clientService = clientService;
+        this.clientTokenCache = clientTokenCache;
+        this.tokenReuseProperties = tokenReuseProperties;
+        this.scopeRegistry = scopeRegistry;
+        this.tokenMetrics = tokenMetrics;
+        this.auditLog = auditLog;
         this.kid = secretGenerator.generate(8);
     }
 
@@ -54,8 +75,14 @@ public class TokenServicesConfig {
         return tokenServices;
     }
 
+    /**
+     * Jwt tokens are not stored. When token reuse is enabled, client_credentials tokens
+     * of clients that opted in are kept in memory so they can be handed out again.
+     */
     @Bean
     public TokenStore tokenStore() {
+        if (tokenReuseProperties.isEnabled())
+            return new ClientTokenReusingTokenStore(tokenEnhancer(), clientTokenCache, clientService);
         return new JwtTokenStore(tokenEnhancer());
     }
 
@@ -63,7 +90,7 @@ public class TokenServicesConfig {
     public TokenEnhancer tokenEnhancerChain() {
         var tokenEnhancerChain = new TokenEnhancerChain();
         List<TokenEnhancer> tokenEnhancers =
-                List.of(tokenEnhancer(), idTokenEnhancer());
+                List.of(tokenEnhancer(), idTokenEnhancer(), new AuditingTokenEnhancer(auditLog));
         tokenEnhancerChain.setTokenEnhancers(tokenEnhancers);
         return tokenEnhancerChain;
     }
@@ -76,6 +103,7 @@ public class TokenServicesConfig {
     public JwtAccessTokenConverter tokenEnhancer() {
         var jwtTokenEnhancer = new JwtTokenEnhancer(keyPairHolder);
         jwtTokenEnhancer.setAccessTokenConverter(accessTokenConverter());
+        jwtTokenEnhancer.setTokenMetrics(tokenMetrics);
         return jwtTokenEnhancer;
     }
 
@@ -87,8 +115,9 @@ public class TokenServicesConfig {
     @Bean
     TokenEnhancer idTokenEnhancer() {
         var idTokenEnhancer = new IdTokenGeneratingTokenEnhancer(
-                userService, idTokenClaimsEnhancer(), keyPairHolder);
+                userService, idTokenClaimsEnhancer(), keyPairHolder, scopeRegistry);
         idTokenEnhancer.setAccessTokenConverter(accessTokenConverter());
+        idTokenEnhancer.setTokenMetrics(tokenMetrics);
         return idTokenEnhancer;
     }
 
@@ -100,7 +129,7 @@ public class TokenServicesConfig {
 
     @Bean
     public JwtClaimsEnhancer jwtClaimsEnhancer() {
-        return new DefaultJwtClaimEnhancer(userService);
+        return new DefaultJwtClaimEnhancer(userService, tokenMetrics);
     }
 
     @Bean
@@ -0,0 +1,57 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for bulk user imports.
+ * Users are hashed on a bounded pool and inserted in batches, at most two batches are held in memory.
+ */
+@ConfigurationProperties(prefix = "oauth2.import")
+public class UserImportProperties {
+    // ndjson file to import on startup, see UserImportRunner
+    private String file;
+    private boolean exitWhenDone = true;
+    private int batchSize = 1000;
+    private int hashThreads = 0; // 0 uses one thread per core
+    private int progressInterval = 10_000;
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public boolean isExitWhenDone() {
+        return exitWhenDone;
+    }
+
+    public void setExitWhenDone(boolean exitWhenDone) {
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getHashThreads() {
+        return hashThreads;
+    }
+
+    public void setHashThreads(int hashThreads) {
+        this.hashThreads = hashThreads;
+    }
+
+    public int getProgressInterval() {
+        return progressInterval;
+    }
+
+    public void setProgressInterval(int progressInterval) {
+        this.progressInterval = progressInterval;
+    }
+}
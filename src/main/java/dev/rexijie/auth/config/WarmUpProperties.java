@@ -0,0 +1,48 @@
+package dev.rexijie.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the warm-up that runs before the server reports itself ready
+ */
+@ConfigurationProperties(prefix = "oauth2.warm-up")
+public class WarmUpProperties {
+    private boolean enabled = true;
+    // readiness is reported after this long even if the warm-up has not finished
+    private long budgetSeconds = 30;
+    private int maxClients = 10000;
+    // synthetic tokens signed and verified to get the token code compiled
+    private int iterations = 2000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getBudgetSeconds() {
+        return budgetSeconds;
+    }
+
+    public void setBudgetSeconds(long budgetSeconds) {
+        this.budgetSeconds = budgetSeconds;
+    }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+}
@@ -2,11 +2,24 @@ package dev.rexijie.auth.config;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.config.session.EncryptedCookieRequestCache;
+import dev.rexijie.auth.config.session.EncryptedCookieSecurityContextRepository;
 import dev.rexijie.auth.filters.ApiEndpointAuthenticationFilter;
+import dev.rexijie.auth.filters.LoginThrottlingFilter;
+import dev.rexijie.auth.metrics.FlightRecordingEndpoint;
+import dev.rexijie.auth.metrics.TimedPasswordEncoder;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.authority.RoleEnum;
 import dev.rexijie.auth.service.UserService;
+import dev.rexijie.auth.throttle.LoginThrottle;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,6 +28,7 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -28,15 +42,33 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     private final PasswordEncoder passwordEncoder;
     private final ObjectMapper objectMapper;
     private final ResourceServerTokenServices resourceServerTokenServices;
+    private final StatelessAuthorizationProperties statelessAuthorizationProperties;
+    private final TokenMetrics tokenMetrics;
+    private final AuditLog auditLog;
+    private final LoginThrottle loginThrottle;
+    private final ObjectProvider<EncryptedCookieSecurityContextRepository> loginCookieRepository;
+    private final ObjectProvider<EncryptedCookieRequestCache> loginRequestCache;
 
     public WebSecurityConfig(UserService userService,
                              PasswordEncoder passwordEncoder,
                              ObjectMapper objectMapper,
-                             ResourceServerTokenServices tokenServices) {
+                             ResourceServerTokenServices tokenServices,
+                             StatelessAuthorizationProperties statelessAuthorizationProperties,
+                             TokenMetrics tokenMetrics,
+                             AuditLog auditLog,
+                             LoginThrottle loginThrottle,
+                             ObjectProvider<EncryptedCookieSecurityContextRepository> loginCookieRepository,
+                             ObjectProvider<EncryptedCookieRequestCache> loginRequestCache) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.objectMapper = objectMapper;
         this.resourceServerTokenServices = tokenServices;
+        this.statelessAuthorizationProperties = statelessAuthorizationProperties;
+        this.tokenMetrics = tokenMetrics;
+        this.auditLog = auditLog;
+        this.loginThrottle = loginThrottle;
+        this.loginCookieRepository = loginCookieRepository;
+        this.loginRequestCache = loginRequestCache;
     }
 
     /**
@@ -49,6 +81,17 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                 .authorizeRequests()
                 .antMatchers("/css/**", "/img/**", "/openid/**")
                 .permitAll()
+                // liveness and readiness probes do not log in, a redirect to the login page would count as up
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class))
+                .permitAll()
+                // recordings include the environment and system properties of the process
+                .requestMatchers(EndpointRequest.to(FlightRecordingEndpoint.class))
+                .hasRole(RoleEnum.ADMIN.getName())
+                // clients authenticate themselves to the pushed authorization request endpoint
+                .antMatchers(HttpMethod.POST, "/oauth2/par")
+                .permitAll()
+                .antMatchers("/api/users/import")
+                .hasRole(RoleEnum.ADMIN.getName())
                 .antMatchers("/api/**")
                 .authenticated()
                 .antMatchers("/oauth/authorize").denyAll()
@@ -67,7 +110,19 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                         .permitAll()
                 );
 
-        http.addFilterBefore(new ApiEndpointAuthenticationFilter(objectMapper, resourceServerTokenServices),
+        http.csrf().ignoringAntMatchers("/oauth2/par");
+
+        // the login, the approval form and the return to the authorization request must work on any replica
+        if (statelessAuthorizationProperties.isEnabled()) {
+            http.csrf().csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse());
+            http.securityContext().securityContextRepository(loginCookieRepository.getObject());
+            http.requestCache().requestCache(loginRequestCache.getObject());
+        }
+
+        http.addFilterBefore(new ApiEndpointAuthenticationFilter(objectMapper, resourceServerTokenServices, tokenMetrics, auditLog),
+                UsernamePasswordAuthenticationFilter.class);
+        // throttled logins are refused before the password is hashed
+        http.addFilterBefore(new LoginThrottlingFilter(loginThrottle, objectMapper),
                 UsernamePasswordAuthenticationFilter.class);
     }
 
@@ -91,7 +146,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     public void configure(AuthenticationManagerBuilder auth) throws Exception {
         auth
                 .userDetailsService(userService)
-                .passwordEncoder(passwordEncoder);
+                .passwordEncoder(new TimedPasswordEncoder(passwordEncoder, tokenMetrics, TokenMetrics.USER_AUTHENTICATION));
     }
 
     @Bean("authenticationManagerBean")
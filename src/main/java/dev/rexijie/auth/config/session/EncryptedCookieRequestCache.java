@@ -0,0 +1,105 @@
+package dev.rexijie.auth.config.session;
+
+import org.springframework.security.web.savedrequest.RequestCache;
+import org.springframework.security.web.savedrequest.SavedRequest;
+import org.springframework.security.web.util.UrlUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@link RequestCache} that remembers the page that sent the user to the login form in an encrypted cookie,
+ * so the login can be posted to any replica and still return to the authorization request.
+ * Only the url of GET requests is kept, the request is not replayed.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class EncryptedCookieRequestCache implements RequestCache {
+    private final EncryptedCookies cookies;
+
+    public EncryptedCookieRequestCache(EncryptedCookies cookies) {
+        this.cookies = cookies;
+    }
+
+    @Override
+    public void saveRequest(HttpServletRequest request, HttpServletResponse response) {
+        if (!"GET".equals(request.getMethod()) || "XMLHttpRequest".equals(request.getHeader("X-Requested-With")))
+            return;
+        cookies.write(request, response, UrlUtils.buildFullRequestUrl(request).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public SavedRequest getRequest(HttpServletRequest request, HttpServletResponse response) {
+        byte[] url = cookies.read(request);
+        return url == null ? null : new SavedUrl(new String(url, StandardCharsets.UTF_8));
+    }
+
+    // the saved request is forgotten once the user is back on it
+    @Override
+    public HttpServletRequest getMatchingRequest(HttpServletRequest request, HttpServletResponse response) {
+        if (!cookies.isPresent(request)) return null;
+        SavedRequest saved = getRequest(request, response);
+        if (saved == null || saved.getRedirectUrl().equals(UrlUtils.buildFullRequestUrl(request)))
+            removeRequest(request, response);
+        return null;
+    }
+
+    @Override
+    public void removeRequest(HttpServletRequest request, HttpServletResponse response) {
+        cookies.remove(request, response);
+    }
+
+    private static class SavedUrl implements SavedRequest {
+        private final String url;
+
+        private SavedUrl(String url) {
+            this.url = url;
+        }
+
+        @Override
+        public String getRedirectUrl() {
+            return url;
+        }
+
+        @Override
+        public List<Cookie> getCookies() {
+            return List.of();
+        }
+
+        @Override
+        public String getMethod() {
+            return "GET";
+        }
+
+        @Override
+        public List<String> getHeaderValues(String name) {
+            return List.of();
+        }
+
+        @Override
+        public Collection<String> getHeaderNames() {
+            return List.of();
+        }
+
+        @Override
+        public List<Locale> getLocales() {
+            return List.of();
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return null;
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return Map.of();
+        }
+    }
+}
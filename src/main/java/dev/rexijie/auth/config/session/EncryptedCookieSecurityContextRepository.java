@@ -0,0 +1,118 @@
+package dev.rexijie.auth.config.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SaveContextOnUpdateOrErrorResponseWrapper;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link SecurityContextRepository} that keeps the logged in user in an encrypted cookie instead of
+ * the http session, so a login on one replica is recognised by every other.
+ * <p>
+ * Only the username and login time are sealed. The user is loaded again on each request that carries
+ * the cookie, so disabled or locked accounts lose their login straight away. The cookie is written when
+ * the authentication changes, before the response is committed, and removed on logout.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+public class EncryptedCookieSecurityContextRepository implements SecurityContextRepository {
+    private static final String LOADED_AUTHENTICATION = EncryptedCookieSecurityContextRepository.class.getName() + ".LOADED";
+
+    private final EncryptedCookies cookies;
+    private final UserDetailsService userDetailsService;
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    public EncryptedCookieSecurityContextRepository(EncryptedCookies cookies,
+                                                    UserDetailsService userDetailsService) {
+        this.cookies = cookies;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        HttpServletRequest request = requestResponseHolder.getRequest();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+
+        Authentication authentication = readAuthentication(request);
+        if (authentication != null) {
+            context.setAuthentication(authentication);
+            request.setAttribute(LOADED_AUTHENTICATION, authentication);
+        }
+
+        // a login redirect commits the response before the filter chain returns
+        requestResponseHolder.setResponse(new SaveToCookieResponseWrapper(requestResponseHolder.getResponse(), request));
+        return context;
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        SaveToCookieResponseWrapper wrapper = WebUtils.getNativeResponse(response, SaveToCookieResponseWrapper.class);
+        if (wrapper == null) {
+            writeAuthentication(context, request, response);
+            return;
+        }
+        if (!wrapper.isContextSaved())
+            wrapper.saveContext(context);
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return cookies.isPresent(request);
+    }
+
+    private Authentication readAuthentication(HttpServletRequest request) {
+        byte[] username = cookies.read(request);
+        if (username == null) return null;
+
+        try {
+            UserDetails user = userDetailsService.loadUserByUsername(new String(username, StandardCharsets.UTF_8));
+            if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired())
+                return null;
+            return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        } catch (RuntimeException e) {
+            log.debug("discarding login cookie: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeAuthentication(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication == null || trustResolver.isAnonymous(authentication) || !authentication.isAuthenticated()) {
+            if (cookies.isPresent(request))
+                cookies.remove(request, response);
+            return;
+        }
+
+        // the cookie already carries an authentication that was loaded from it
+        if (authentication == request.getAttribute(LOADED_AUTHENTICATION)) return;
+        cookies.write(request, response, authentication.getName().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private class SaveToCookieResponseWrapper extends SaveContextOnUpdateOrErrorResponseWrapper {
+        private final HttpServletRequest request;
+
+        private SaveToCookieResponseWrapper(HttpServletResponse response, HttpServletRequest request) {
+            super(response, true);
+            this.request = request;
+        }
+
+        @Override
+        protected void saveContext(SecurityContext context) {
+            writeAuthentication(context, request, (HttpServletResponse) getResponse());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package dev.rexijie.auth.config.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.oauth2.common.util.SerializationUtils;
+import org.springframework.web.bind.support.DefaultSessionAttributeStore;
+import org.springframework.web.bind.support.SessionAttributeStore;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.Principal;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * {@link SessionAttributeStore} that keeps selected {@code @SessionAttributes} in an encrypted cookie
+ * instead of the http session, so any replica can complete an authorization flow.
+ * <p>
+ * Values are java serialized, compressed and encrypted with AES-GCM, which also authenticates them.
+ * Each value is bound to its cookie and the authenticated user and expires after {@code maxAgeSeconds}.
+ * The user is recognised on every replica through {@link EncryptedCookieSecurityContextRepository}.
+ * Attributes that are not mapped to a cookie are delegated to the http session.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+public class EncryptedCookieSessionAttributeStore implements SessionAttributeStore {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String REQUEST_ATTRIBUTE_PREFIX = EncryptedCookieSessionAttributeStore.class.getName() + ".";
+
+    private final SessionAttributeStore sessionStore = new DefaultSessionAttributeStore();
+    private final BytesEncryptor encryptor;
+    private final Map<String, String> attributeCookies;
+    private final int maxAgeSeconds;
+    private final Clock clock;
+
+    /**
+     * @param encryptor        authenticated encryptor shared by every replica
+     * @param attributeCookies session attribute names mapped to the cookie that carries them
+     * @param maxAgeSeconds    how long a stored attribute stays valid
+     */
+    public EncryptedCookieSessionAttributeStore(BytesEncryptor encryptor,
+                                                Map<String, String> attributeCookies,
+                                                int maxAgeSeconds) {
+        this(encryptor, attributeCookies, maxAgeSeconds, Clock.systemUTC());
+    }
+
+    EncryptedCookieSessionAttributeStore(BytesEncryptor encryptor,
+                                         Map<String, String> attributeCookies,
+                                         int maxAgeSeconds,
+                                         Clock clock) {
+        this.encryptor = encryptor;
+        this.attributeCookies = Map.copyOf(attributeCookies);
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.clock = clock;
+    }
+
+    @Override
+    public void storeAttribute(WebRequest request, String attributeName, Object attributeValue) {
+        String cookieName = attributeCookies.get(attributeName);
+        if (cookieName == null) {
+            sessionStore.storeAttribute(request, attributeName, attributeValue);
+            return;
+        }
+
+        // keep the value for the rest of this request, e.g. for a forward to the approval page
+        request.setAttribute(REQUEST_ATTRIBUTE_PREFIX + attributeName, attributeValue, RequestAttributes.SCOPE_REQUEST);
+        String value = encode(cookieName, attributeValue, principalName(request));
+        writeCookie(request, cookieName, value, maxAgeSeconds);
+    }
+
+    @Override
+    public Object retrieveAttribute(WebRequest request, String attributeName) {
+        String cookieName = attributeCookies.get(attributeName);
+        if (cookieName == null)
+            return sessionStore.retrieveAttribute(request, attributeName);
+
+        Object value = request.getAttribute(REQUEST_ATTRIBUTE_PREFIX + attributeName, RequestAttributes.SCOPE_REQUEST);
+        if (value != null) return value;
+
+        HttpServletRequest servletRequest = ((NativeWebRequest) request).getNativeRequest(HttpServletRequest.class);
+        if (servletRequest == null) return null;
+        Cookie cookie = WebUtils.getCookie(servletRequest, cookieName);
+        if (cookie == null) return null;
+
+        try {
+            return decode(cookieName, cookie.getValue(), principalName(request));
+        } catch (RuntimeException | DataFormatException ex) {
+            log.debug("discarding unreadable {} cookie: {}", cookieName, ex.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void cleanupAttribute(WebRequest request, String attributeName) {
+        String cookieName = attributeCookies.get(attributeName);
+        if (cookieName == null) {
+            sessionStore.cleanupAttribute(request, attributeName);
+            return;
+        }
+        request.removeAttribute(REQUEST_ATTRIBUTE_PREFIX + attributeName, RequestAttributes.SCOPE_REQUEST);
+        writeCookie(request, cookieName, "", 0);
+    }
+
+    private String encode(String cookieName, Object value, String principal) {
+        byte[] serialized = SerializationUtils.serialize(value);
+        byte[] purpose = cookieName.getBytes(StandardCharsets.UTF_8);
+        byte[] owner = principal.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = deflate(serialized);
+
+        ByteBuffer payload = ByteBuffer.allocate(Integer.BYTES + purpose.length + Long.BYTES
+                + Integer.BYTES + owner.length + compressed.length);
+        payload.putInt(purpose.length)
+                .put(purpose)
+                .putLong(clock.millis())
+                .putInt(owner.length)
+                .put(owner)
+                .put(compressed);
+
+        return ENCODER.encodeToString(encryptor.encrypt(payload.array()));
+    }
+
+    private Object decode(String cookieName, String value, String principal) throws DataFormatException {
+        ByteBuffer payload = ByteBuffer.wrap(encryptor.decrypt(DECODER.decode(value)));
+
+        byte[] purpose = new byte[payload.getInt()];
+        payload.get(purpose);
+        if (!MessageDigest.isEqual(cookieName.getBytes(StandardCharsets.UTF_8), purpose))
+            throw new IllegalStateException("stored attribute was sealed for another cookie");
+
+        long issuedAt = payload.getLong();
+        if (clock.millis() - issuedAt > maxAgeSeconds * 1000L)
+            throw new IllegalStateException("stored attribute has expired");
+
+        byte[] owner = new byte[payload.getInt()];
+        payload.get(owner);
+        if (!Objects.equals(principal, new String(owner, StandardCharsets.UTF_8)))
+            throw new IllegalStateException("stored attribute belongs to another user");
+
+        byte[] compressed = new byte[payload.remaining()];
+        payload.get(compressed);
+        return SerializationUtils.deserialize(inflate(compressed));
+    }
+
+    private void writeCookie(WebRequest request, String name, String value, int maxAge) {
+        NativeWebRequest nativeRequest = (NativeWebRequest) request;
+        HttpServletRequest servletRequest = nativeRequest.getNativeRequest(HttpServletRequest.class);
+        HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+        if (response == null || servletRequest == null) return;
+
+        Cookie cookie = new Cookie(name, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(servletRequest.isSecure());
+        cookie.setMaxAge(maxAge);
+        response.addCookie(cookie);
+    }
+
+    private String principalName(WebRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal == null ? "" : principal.getName();
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsInput())
+                    throw new DataFormatException("truncated attribute");
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
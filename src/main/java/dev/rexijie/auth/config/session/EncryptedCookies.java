@@ -0,0 +1,87 @@
+package dev.rexijie.auth.config.session;
+
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Seals values into cookies with an authenticated encryptor shared by every replica.
+ * Each value carries the name of its cookie and the time it was sealed. It is refused under any other name,
+ * so a cookie sealed for one purpose can not be replayed as another, and once it is older than the max age.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class EncryptedCookies {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final BytesEncryptor encryptor;
+    private final String cookieName;
+    private final byte[] purpose;
+    private final int maxAgeSeconds;
+
+    public EncryptedCookies(BytesEncryptor encryptor, String cookieName, int maxAgeSeconds) {
+        this.encryptor = encryptor;
+        this.cookieName = cookieName;
+        this.purpose = cookieName.getBytes(StandardCharsets.UTF_8);
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public void write(HttpServletRequest request, HttpServletResponse response, byte[] value) {
+        ByteBuffer payload = ByteBuffer.allocate(Integer.BYTES + purpose.length + Long.BYTES + value.length)
+                .putInt(purpose.length)
+                .put(purpose)
+                .putLong(System.currentTimeMillis())
+                .put(value);
+        addCookie(request, response, ENCODER.encodeToString(encryptor.encrypt(payload.array())), maxAgeSeconds);
+    }
+
+    /**
+     * @return the sealed value, or null if there is no cookie or it is expired or was not sealed with this key and name
+     */
+    public byte[] read(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, cookieName);
+        if (cookie == null || cookie.getValue().isEmpty()) return null;
+
+        try {
+            ByteBuffer payload = ByteBuffer.wrap(encryptor.decrypt(DECODER.decode(cookie.getValue())));
+            byte[] sealedFor = new byte[payload.getInt()];
+            payload.get(sealedFor);
+            if (!MessageDigest.isEqual(purpose, sealedFor)) return null;
+
+            long sealedAt = payload.getLong();
+            if (System.currentTimeMillis() - sealedAt > maxAgeSeconds * 1000L) return null;
+
+            byte[] value = new byte[payload.remaining()];
+            payload.get(value);
+            return value;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public boolean isPresent(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, cookieName);
+        return cookie != null && !cookie.getValue().isEmpty();
+    }
+
+    public void remove(HttpServletRequest request, HttpServletResponse response) {
+        addCookie(request, response, "", 0);
+    }
+
+    private void addCookie(HttpServletRequest request, HttpServletResponse response, String value, int maxAge) {
+        Cookie cookie = new Cookie(cookieName, value);
+        cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setMaxAge(maxAge);
+        response.addCookie(cookie);
+    }
+}
@@ -15,6 +15,7 @@ public class Claims {
         public static final String EMAIL_VERIFIED = "email_verified";
         public static final String PHONE_CLAIM = "phone";
         public static final String PHONE_VERIFIED = "phone_verified";
+        public static final String ADDRESS_CLAIM = "address";
         public static final String PICTURE_CLAIM = "picture";
         public static final String PROFILE_CLAIM = "profile";
         public static final String AUTHORIZED_PARTY = "azp";
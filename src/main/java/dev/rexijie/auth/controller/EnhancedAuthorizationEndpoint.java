@@ -4,7 +4,14 @@ package dev.rexijie.auth.controller;
  * https://openid.net/specs/openid-connect-core-1_0.html
  */
 
+import dev.rexijie.auth.cache.PushedAuthorizationRequestStore;
+import dev.rexijie.auth.cache.ScopeRegistry;
+import dev.rexijie.auth.model.ScopeSet;
+import dev.rexijie.auth.model.client.Client;
 import dev.rexijie.auth.service.ClientService;
+import dev.rexijie.auth.tokenservices.NonceReplayDetector;
+import dev.rexijie.auth.util.Pkce;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
@@ -56,9 +63,15 @@ import static dev.rexijie.auth.util.TokenRequestUtils.isImplicitRequest;
 @Controller
 @SessionAttributes({EnhancedAuthorizationEndpoint.AUTHORIZATION_REQUEST_ATTR_NAME, EnhancedAuthorizationEndpoint.ORIGINAL_AUTHORIZATION_REQUEST_ATTR_NAME})
 public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
-    static final String AUTHORIZATION_REQUEST_ATTR_NAME = "authorizationRequest";
+    public static final String AUTHORIZATION_REQUEST_ATTR_NAME = "authorizationRequest";
 
-    static final String ORIGINAL_AUTHORIZATION_REQUEST_ATTR_NAME = "org.springframework.security.oauth2.provider.endpoint.AuthorizationEndpoint.ORIGINAL_AUTHORIZATION_REQUEST";
+    public static final String ORIGINAL_AUTHORIZATION_REQUEST_ATTR_NAME = "org.springframework.security.oauth2.provider.endpoint.AuthorizationEndpoint.ORIGINAL_AUTHORIZATION_REQUEST";
+
+    public static final String REQUEST_URI = "request_uri";
+
+    private static final String SCOPE_SET = "scopeSet";
+
+    private static final Set<String> SUPPORTED_RESPONSE_TYPES = Set.of("code", "token", "id_token");
 
     private AuthorizationCodeServices authorizationCodeServices;
 
@@ -76,11 +89,32 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
 
     private final Object implicitLock = new Object();
 
+    private final PushedAuthorizationRequestStore pushedAuthorizationRequestStore;
+
+    private final ScopeRegistry scopeRegistry;
+
+    private final NonceReplayDetector nonceReplayDetector;
+
+    @Value("${oauth2.pkce.required-for-public-clients:false}")
+    private boolean pkceRequiredForPublicClients;
+
     public EnhancedAuthorizationEndpoint(AuthorizationCodeServices authorizationCodeServices,
-                                         ClientService clientService, TokenGranter tokenGranter) {
+                                         ClientService clientService, TokenGranter tokenGranter,
+                                         UserApprovalHandler userApprovalHandler,
+                                         PushedAuthorizationRequestStore pushedAuthorizationRequestStore,
+                                         RedirectResolver redirectResolver,
+                                         OAuth2RequestValidator requestValidator,
+                                         ScopeRegistry scopeRegistry,
+                                         NonceReplayDetector nonceReplayDetector) {
+        this.pushedAuthorizationRequestStore = pushedAuthorizationRequestStore;
+        this.scopeRegistry = scopeRegistry;
+        this.nonceReplayDetector = nonceReplayDetector;
+        setRedirectResolver(redirectResolver);
+        setOAuth2RequestValidator(requestValidator);
         setAuthorizationCodeServices(authorizationCodeServices);
         setClientDetailsService(clientService);
         setTokenGranter(tokenGranter);
+        setUserApprovalHandler(userApprovalHandler);
     }
 
     @RequestMapping("/oauth2/authorize")
@@ -88,12 +122,21 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
     public ModelAndView authorize(Map<String, Object> model,
                                   @RequestParam Map<String, String> parameters,
                                   SessionStatus sessionStatus, Principal principal) {
+        if (parameters.containsKey(REQUEST_URI))
+            return authorizePushedRequest(model, parameters, sessionStatus, principal);
+
         AuthorizationRequest authorizationRequest = getOAuth2RequestFactory().createAuthorizationRequest(parameters);
         Set<String> responseTypes = authorizationRequest.getResponseTypes();
 
         // xor to handle either it contains code or token but not both
-        if (containsOnly(responseTypes, "token") ^ containsOnly(responseTypes, "code"))
+        if (containsOnly(responseTypes, "token") ^ containsOnly(responseTypes, "code")) {
+            // the client is only needed to tell if it is public, otherwise super loads it
+            ClientDetails client = pkceRequiredForPublicClients && authorizationRequest.getClientId() != null
+                    ? getClientDetailsService().loadClientByClientId(authorizationRequest.getClientId())
+                    : null;
+            validateCodeChallenge(authorizationRequest, client);
             return super.authorize(model, parameters, sessionStatus, principal);
+        }
 
 
         if (authorizationRequest.getClientId() == null)
@@ -103,55 +146,139 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
             throw new InvalidRequestException("The nonce parameter is required for this flow");
 
         try {
-
-            if (!(principal instanceof Authentication) || !((Authentication) principal).isAuthenticated()) {
-                throw new InsufficientAuthenticationException(
-                        "User must be authenticated with Spring Security before authorization can be completed.");
-            }
+            ensureAuthenticated(principal);
 
             ClientDetails client = getClientDetailsService().loadClientByClientId(authorizationRequest.getClientId());
+            resolveRedirectAndValidateScope(authorizationRequest, client);
+            validateCodeChallenge(authorizationRequest, client);
 
-            // The resolved redirect URI is either the redirect_uri from the parameters or the one from
-            // clientDetails. Either way we need to store it on the AuthorizationRequest.
-            String redirectUriParameter = authorizationRequest.getRequestParameters().get(OAuth2Utils.REDIRECT_URI);
-            String resolvedRedirect = redirectResolver.resolveRedirect(redirectUriParameter, client);
-            if (!StringUtils.hasText(resolvedRedirect)) {
-                throw new RedirectMismatchException(
-                        "A redirectUri must be either supplied or preconfigured in the ClientDetails");
-            }
-            authorizationRequest.setRedirectUri(resolvedRedirect);
+            return completeAuthorization(model, authorizationRequest, (Authentication) principal);
+        } catch (RuntimeException ex) {
+            sessionStatus.setComplete();
+            throw ex;
+        }
+    }
 
-            // validate request params requested by the client
-            oauth2RequestValidator.validateScope(authorizationRequest, client);
+    /**
+     * Creates and validates an authorization request the same way {@link #authorize} does,
+     * without completing it. Used by the pushed authorization request endpoint.
+     *
+     * @param parameters the authorization request parameters
+     * @param client     the authenticated client that sent them
+     * @return an authorization request with its redirect uri resolved
+     */
+    public AuthorizationRequest createValidatedAuthorizationRequest(Map<String, String> parameters,
+                                                                    ClientDetails client) {
+        if (parameters.containsKey(REQUEST_URI))
+            throw new InvalidRequestException("request_uri can not be pushed");
 
-            // check for pre-approved requests
-            // personal note: Literally not needed
-            authorizationRequest = userApprovalHandler.checkForPreApproval(authorizationRequest, (Authentication) principal);
+        AuthorizationRequest authorizationRequest = getOAuth2RequestFactory().createAuthorizationRequest(parameters);
+        if (!client.getClientId().equals(authorizationRequest.getClientId()))
+            throw new InvalidClientException("client_id does not match the authenticated client");
 
-            // this is also useless. but it is useful if the userApproval handler is changed
-            boolean approved = userApprovalHandler.isApproved(authorizationRequest, (Authentication) principal);
-            authorizationRequest.setApproved(approved);
+        Set<String> responseTypes = authorizationRequest.getResponseTypes();
+        if (responseTypes.isEmpty() || !SUPPORTED_RESPONSE_TYPES.containsAll(responseTypes))
+            throw new UnsupportedResponseTypeException("Unsupported response types: " + responseTypes);
 
-            if (approved) {
-                if (responseTypes.contains("code") && responseTypes.contains("id_token")) {
-                    return new ModelAndView(getAuthorizationCodeResponse(authorizationRequest, (Authentication) principal));
-                }
+        boolean codeOrToken = containsOnly(responseTypes, "token") ^ containsOnly(responseTypes, "code");
+        if (!codeOrToken && authorizationRequest.getRequestParameters().get("nonce") == null)
+            throw new InvalidRequestException("The nonce parameter is required for this flow");
 
-                return getIdTokenGrantResponse(authorizationRequest);
-            }
+        resolveRedirectAndValidateScope(authorizationRequest, client);
+        validateCodeChallenge(authorizationRequest, client);
+        return authorizationRequest;
+    }
+
+    // the pushed request was validated when it was pushed, only the approval is left
+    private ModelAndView authorizePushedRequest(Map<String, Object> model, Map<String, String> parameters,
+                                                SessionStatus sessionStatus, Principal principal) {
+        String clientId = parameters.get(OAuth2Utils.CLIENT_ID);
+        if (clientId == null)
+            throw new InvalidClientException("A client id must be provided");
 
-            // Store authorizationRequest AND an immutable Map of authorizationRequest in session
-            // which will be used to validate against in approveOrDeny()
-            model.put(AUTHORIZATION_REQUEST_ATTR_NAME, authorizationRequest);
-            model.put(ORIGINAL_AUTHORIZATION_REQUEST_ATTR_NAME, unmodifiableMap(authorizationRequest));
+        try {
+            ensureAuthenticated(principal);
+
+            AuthorizationRequest authorizationRequest = pushedAuthorizationRequestStore.consume(
+                    parameters.get(REQUEST_URI), clientId);
+            if (authorizationRequest == null)
+                throw new InvalidRequestException("Invalid or expired request_uri");
 
-            return getUserApprovalPageResponse(model, authorizationRequest, (Authentication) principal);
+            return completeAuthorization(model, authorizationRequest, (Authentication) principal);
         } catch (RuntimeException ex) {
             sessionStatus.setComplete();
             throw ex;
         }
     }
 
+    private void ensureAuthenticated(Principal principal) {
+        if (!(principal instanceof Authentication) || !((Authentication) principal).isAuthenticated()) {
+            throw new InsufficientAuthenticationException(
+                    "User must be authenticated with Spring Security before authorization can be completed.");
+        }
+    }
+
+    private void resolveRedirectAndValidateScope(AuthorizationRequest authorizationRequest, ClientDetails client) {
+        // The resolved redirect URI is either the redirect_uri from the parameters or the one from
+        // clientDetails. Either way we need to store it on the AuthorizationRequest.
+        String redirectUriParameter = authorizationRequest.getRequestParameters().get(OAuth2Utils.REDIRECT_URI);
+        String resolvedRedirect = redirectResolver.resolveRedirect(redirectUriParameter, client);
+        if (!StringUtils.hasText(resolvedRedirect)) {
+            throw new RedirectMismatchException(
+                    "A redirectUri must be either supplied or preconfigured in the ClientDetails");
+        }
+        authorizationRequest.setRedirectUri(resolvedRedirect);
+
+        // validate request params requested by the client
+        oauth2RequestValidator.validateScope(authorizationRequest, client);
+    }
+
+    // the challenge is kept in the request parameters, which are stored with the authorization code
+    private void validateCodeChallenge(AuthorizationRequest authorizationRequest, ClientDetails client) {
+        Map<String, String> parameters = authorizationRequest.getRequestParameters();
+        String codeChallenge = parameters.get(Pkce.CODE_CHALLENGE);
+        String method = parameters.get(Pkce.CODE_CHALLENGE_METHOD);
+
+        if (codeChallenge == null) {
+            if (method != null)
+                throw new InvalidRequestException("code_challenge_method was sent without a code_challenge");
+            if (pkceRequiredForPublicClients && client instanceof Client && ((Client) client).isPublicClient()
+                    && authorizationRequest.getResponseTypes().contains("code"))
+                throw new InvalidRequestException("Public clients must send a code_challenge");
+            return;
+        }
+
+        if (!Pkce.isSupportedMethod(method))
+            throw new InvalidRequestException("Unsupported code_challenge_method: " + method);
+        if (!Pkce.isWellFormed(codeChallenge))
+            throw new InvalidRequestException("Invalid code_challenge");
+    }
+
+    // approve a validated request or send the user to the approval page
+    private ModelAndView completeAuthorization(Map<String, Object> model, AuthorizationRequest authorizationRequest,
+                                               Authentication principal) {
+        // check for pre-approved requests, remembered consent is answered from the approval store
+        authorizationRequest = userApprovalHandler.checkForPreApproval(authorizationRequest, principal);
+
+        boolean approved = userApprovalHandler.isApproved(authorizationRequest, principal);
+        authorizationRequest.setApproved(approved);
+
+        if (approved) {
+            if (authorizationRequest.getResponseTypes().contains("code")) {
+                return new ModelAndView(getAuthorizationCodeResponse(authorizationRequest, principal));
+            }
+
+            return getIdTokenGrantResponse(authorizationRequest);
+        }
+
+        // Store authorizationRequest AND an immutable Map of authorizationRequest in session
+        // which will be used to validate against in approveOrDeny()
+        model.put(AUTHORIZATION_REQUEST_ATTR_NAME, authorizationRequest);
+        model.put(ORIGINAL_AUTHORIZATION_REQUEST_ATTR_NAME, unmodifiableMap(authorizationRequest));
+
+        return getUserApprovalPageResponse(model, authorizationRequest, principal);
+    }
+
     // do super
     @RequestMapping(value = "/oauth2/authorize", method = RequestMethod.POST, params = OAuth2Utils.USER_OAUTH_APPROVAL)
     @Override
@@ -234,9 +361,7 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
                 originalAuthorizationRequest.get(OAuth2Utils.RESPONSE_TYPE))) {
             return true;
         }
-        if (!ObjectUtils.nullSafeEquals(
-                authorizationRequest.getScope(),
-                originalAuthorizationRequest.get(OAuth2Utils.SCOPE))) {
+        if (isScopeModified(authorizationRequest, originalAuthorizationRequest)) {
             return true;
         }
         if (!ObjectUtils.nullSafeEquals(
@@ -258,6 +383,19 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
         return false;
     }
 
+    // compares the scope bits when both sides only hold registered scopes
+    private boolean isScopeModified(AuthorizationRequest authorizationRequest,
+                                    Map<String, Object> originalAuthorizationRequest) {
+        Object originalScopeSet = originalAuthorizationRequest.get(SCOPE_SET);
+        if (originalScopeSet instanceof ScopeSet && !((ScopeSet) originalScopeSet).hasUnknown()) {
+            ScopeSet scopeSet = scopeRegistry.lookup(authorizationRequest.getScope());
+            if (!scopeSet.hasUnknown()) return !scopeSet.equals(originalScopeSet);
+        }
+        return !ObjectUtils.nullSafeEquals(
+                authorizationRequest.getScope(),
+                originalAuthorizationRequest.get(OAuth2Utils.SCOPE));
+    }
+
     /**
      * Gets a token using the implicit grant.
      *
@@ -280,6 +418,7 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
      */
     private ModelAndView getIdTokenGrantResponse(AuthorizationRequest authorizationRequest) {
         try {
+            checkNonce(authorizationRequest);
 
             OAuth2AccessToken token = getTokenFromImplicitGrant(authorizationRequest);
 
@@ -291,6 +430,13 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
         }
     }
 
+    // checked when the request is completed, not when it arrives, so the redirect through the login page is not a reuse
+    private void checkNonce(AuthorizationRequest authorizationRequest) {
+        String nonce = authorizationRequest.getRequestParameters().get("nonce");
+        if (nonce != null && nonceReplayDetector.isReplay(authorizationRequest.getClientId(), nonce))
+            throw new InvalidRequestException("The nonce has already been used");
+    }
+
     /**
      * Generates the implicit grant token using the token request and the initial OAUth2 request
      *
@@ -309,6 +455,7 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
     // generate the Authorization code response
     private View getAuthorizationCodeResponse(AuthorizationRequest authorizationRequest, Authentication authUser) {
         try {
+            checkNonce(authorizationRequest);
             if (isIdTokenRequest(authorizationRequest) | isImplicitRequest(authorizationRequest)) {
                 TokenRequest tokenRequest = getOAuth2RequestFactory().createTokenRequest(authorizationRequest, "implicit");
                 OAuth2Request storedOAuth2Request = getDefaultOAuth2RequestFactory().createOAuth2Request(authorizationRequest);
@@ -439,7 +586,8 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
         }
 
         // add the id token
-        vars.put("id_token", accessToken.getAdditionalInformation().get("id_token"));
+        if (accessToken.getAdditionalInformation().get("id_token") != null)
+            vars.put("id_token", accessToken.getAdditionalInformation().get("id_token"));
 
         Map<String, Object> additionalInformation = accessToken.getAdditionalInformation();
         for (String key : additionalInformation.keySet()) {
@@ -467,6 +615,7 @@ public class EnhancedAuthorizationEndpoint extends AuthorizationEndpoint {
         if (authorizationRequest.getScope() != null) {
             authorizationRequestMap.put(OAuth2Utils.SCOPE,
                     Set.copyOf(authorizationRequest.getScope()));
+            authorizationRequestMap.put(SCOPE_SET, scopeRegistry.lookup(authorizationRequest.getScope()));
         }
         authorizationRequestMap.put("approved", authorizationRequest.isApproved());
         if (authorizationRequest.getResourceIds() != null) {
@@ -34,7 +34,9 @@ public class OAuth2LoginController {
 
     @GetMapping("/oauth2/login")
     public String loginPage(Model model, @RequestParam(required = false) String error) {
-        if (error != null) {
+        if ("throttled".equals(error)) {
+            model.addAttribute("error", "TOO MANY ATTEMPTS, TRY AGAIN LATER");
+        } else if (error != null) {
             model.addAttribute("error", "BAD CREDENTIALS");
         }
         return "login";
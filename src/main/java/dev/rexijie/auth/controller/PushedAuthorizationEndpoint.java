@@ -0,0 +1,139 @@
+package dev.rexijie.auth.controller;
+
+import dev.rexijie.auth.cache.PushedAuthorizationRequestStore;
+import dev.rexijie.auth.metrics.TimedPasswordEncoder;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.service.ClientService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.common.exceptions.InvalidClientException;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.security.oauth2.provider.AuthorizationRequest;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.client.ClientDetailsUserDetailsService;
+import org.springframework.security.oauth2.provider.endpoint.FrameworkEndpoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationConverter;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pushed authorization request endpoint (RFC 9126).
+ * Clients post the authorization parameters once, they are validated here and the
+ * authorize endpoint is then called with only the client_id and the returned request_uri.
+ * Client secrets are checked the way the token endpoint checks them, through a {@link DaoAuthenticationProvider}
+ * over the {@link ClientDetailsUserDetailsService} with the same password encoder.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@FrameworkEndpoint
+public class PushedAuthorizationEndpoint {
+    private static final String CLIENT_SECRET = "client_secret";
+
+    private final EnhancedAuthorizationEndpoint authorizationEndpoint;
+    private final PushedAuthorizationRequestStore requestStore;
+    private final ClientService clientService;
+    private final AuthenticationManager clientAuthenticationManager;
+    private final BasicAuthenticationConverter basicAuthenticationConverter = new BasicAuthenticationConverter();
+
+    public PushedAuthorizationEndpoint(EnhancedAuthorizationEndpoint authorizationEndpoint,
+                                       PushedAuthorizationRequestStore requestStore,
+                                       ClientService clientService,
+                                       PasswordEncoder passwordEncoder,
+                                       TokenMetrics tokenMetrics) {
+        this.authorizationEndpoint = authorizationEndpoint;
+        this.requestStore = requestStore;
+        this.clientService = clientService;
+
+        var provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(new ClientDetailsUserDetailsService(clientService));
+        provider.setPasswordEncoder(new TimedPasswordEncoder(passwordEncoder, tokenMetrics, TokenMetrics.CLIENT_AUTHENTICATION));
+        this.clientAuthenticationManager = new ProviderManager(provider);
+    }
+
+    @PostMapping(value = "/oauth2/par", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Map<String, Object>> pushAuthorizationRequest(
+            @RequestParam Map<String, String> parameters,
+            HttpServletRequest request) {
+        ClientDetails client = authenticateClient(parameters, request);
+
+        Map<String, String> authorizationParameters = new HashMap<>(parameters);
+        authorizationParameters.remove(CLIENT_SECRET);
+        authorizationParameters.put(OAuth2Utils.CLIENT_ID, client.getClientId());
+
+        AuthorizationRequest authorizationRequest =
+                authorizationEndpoint.createValidatedAuthorizationRequest(authorizationParameters, client);
+
+        String requestUri = requestStore.push(authorizationRequest);
+        if (requestUri == null)
+            return new ResponseEntity<>(Map.of("error", "temporarily_unavailable"), HttpStatus.SERVICE_UNAVAILABLE);
+
+        return new ResponseEntity<>(Map.of(
+                EnhancedAuthorizationEndpoint.REQUEST_URI, requestUri,
+                "expires_in", requestStore.getRequestUriTtlSeconds()), HttpStatus.CREATED);
+    }
+
+    @ExceptionHandler(OAuth2Exception.class)
+    public ResponseEntity<OAuth2Exception> handleOAuth2Exception(OAuth2Exception e) {
+        log.debug("pushed authorization request rejected: {}", e.getMessage());
+        return new ResponseEntity<>(e, HttpStatus.valueOf(e.getHttpErrorCode()));
+    }
+
+    /**
+     * Authenticates the client with client_secret_basic or client_secret_post.
+     * Public clients only identify themselves with their client_id.
+     */
+    private ClientDetails authenticateClient(Map<String, String> parameters, HttpServletRequest request) {
+        String clientId = parameters.get(OAuth2Utils.CLIENT_ID);
+        UsernamePasswordAuthenticationToken credentials;
+        try {
+            credentials = basicAuthenticationConverter.convert(request);
+        } catch (AuthenticationException e) {
+            throw new InvalidClientException("Invalid basic authentication token");
+        }
+        if (credentials == null && parameters.get(CLIENT_SECRET) != null)
+            credentials = new UsernamePasswordAuthenticationToken(clientId, parameters.get(CLIENT_SECRET));
+
+        if (credentials != null) {
+            if (clientId != null && !clientId.equals(credentials.getName()))
+                throw new InvalidClientException("client_id does not match the authenticated client");
+            try {
+                clientAuthenticationManager.authenticate(credentials);
+            } catch (AuthenticationException e) {
+                throw new InvalidClientException("Bad client credentials");
+            }
+            return loadClient(credentials.getName());
+        }
+
+        if (clientId == null)
+            throw new InvalidClientException("A client id must be provided");
+        ClientDetails client = loadClient(clientId);
+        if (client instanceof Client && ((Client) client).isPublicClient())
+            return client;
+        throw new InvalidClientException("Bad client credentials");
+    }
+
+    private ClientDetails loadClient(String clientId) {
+        try {
+            return clientService.loadClientByClientId(clientId);
+        } catch (ClientRegistrationException e) {
+            throw new InvalidClientException("Bad client credentials");
+        }
+    }
+}
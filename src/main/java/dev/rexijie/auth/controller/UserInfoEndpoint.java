@@ -1,10 +1,16 @@
 package dev.rexijie.auth.controller;
 
-import dev.rexijie.auth.model.User;
-import dev.rexijie.auth.model.UserInfo;
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.cache.UserInfoCache;
+import dev.rexijie.auth.model.AuditEvent;
 import dev.rexijie.auth.service.UserService;
-import dev.rexijie.auth.util.ObjectUtils;
+import dev.rexijie.auth.tokenservices.openid.IDTokenClaimsEnhancer;
+import dev.rexijie.auth.tokenservices.openid.UserInfoRenderer;
+import dev.rexijie.auth.tokenservices.openid.UserInfoRenderer.RenderedUserInfo;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
@@ -13,35 +19,38 @@ import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.endpoint.FrameworkEndpoint;
 import org.springframework.security.oauth2.provider.error.DefaultWebResponseExceptionTranslator;
 import org.springframework.security.oauth2.provider.error.WebResponseExceptionTranslator;
-import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 
-import java.util.Map;
-
-import static io.jsonwebtoken.Claims.SUBJECT;
-
 /**
+ * OpenID userinfo endpoint. Responses hold only the claims of the token's scopes, they are rendered
+ * once per user version and scope set by the {@link UserInfoCache} and carry an ETag for revalidation.
+ *
  * @author Rex Ijiekhuamen
  */
 @FrameworkEndpoint
 public class UserInfoEndpoint {
 
     private final ResourceServerTokenServices resourceServerTokenServices;
-    private final AccessTokenConverter accessTokenConverter;
     private final UserService userService;
-
+    private final AuditLog auditLog;
+    private final UserInfoCache userInfoCache;
+    private final UserInfoRenderer userInfoRenderer;
 
     private WebResponseExceptionTranslator<OAuth2Exception> exceptionTranslator = new DefaultWebResponseExceptionTranslator();
 
     public UserInfoEndpoint(ResourceServerTokenServices resourceServerTokenServices,
-                            AccessTokenConverter accessTokenConverter,
-                            UserService userService) {
+                            UserService userService,
+                            AuditLog auditLog,
+                            UserInfoCache userInfoCache,
+                            IDTokenClaimsEnhancer claimsEnhancer) {
         this.resourceServerTokenServices = resourceServerTokenServices;
-        this.accessTokenConverter = accessTokenConverter;
         this.userService = userService;
+        this.auditLog = auditLog;
+        this.userInfoCache = userInfoCache;
+        this.userInfoRenderer = new UserInfoRenderer(claimsEnhancer);
     }
 
     /**
@@ -56,7 +65,8 @@ public class UserInfoEndpoint {
      * https://openid.net/specs/openid-connect-core-1_0.html#UserInfo
      */
     @RequestMapping("/openid/userinfo")
-    private ResponseEntity<Map<String, Object>> userInfo(@RequestHeader("Authorization") String authorization) {
+    private ResponseEntity<byte[]> userInfo(@RequestHeader("Authorization") String authorization,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         String tokenValue = authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
 
         OAuth2AccessToken token = resourceServerTokenServices.readAccessToken(tokenValue);
@@ -64,20 +74,26 @@ public class UserInfoEndpoint {
         if (token.isExpired()) throw new InvalidTokenException("Token has expired");
 
         OAuth2Authentication auth2Authentication = resourceServerTokenServices.loadAuthentication(token.getValue());
-        Map<String, ?> claims = accessTokenConverter.convertAccessToken(token, auth2Authentication);
+        if (auth2Authentication.isClientOnly()) throw new InvalidTokenException("Token was not issued to a user");
 
-        String subject = claims.get(SUBJECT).toString();
-        User user = userService.findUserByUsername(subject);
+        RenderedUserInfo userInfo = userInfoCache.get(auth2Authentication.getName(),
+                UserInfoRenderer.scopeMask(token.getScope()), userService::findUserByUsername, userInfoRenderer);
 
-        UserInfo userInfo = user.getUserInfo();
-        Map<String, Object> userInfoMap = ObjectUtils.toMap(userInfo);
-        userInfoMap.put(SUBJECT, subject);
+        // the response depends on the token, shared caches must not store it
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (userInfo.matches(ifNoneMatch))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(userInfo.getEtag()).cacheControl(cacheControl).build();
 
-        return new ResponseEntity<>(ObjectUtils.cleanMap(userInfoMap), HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(userInfo.getEtag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userInfo.getBody());
     }
 
     @ExceptionHandler(InvalidTokenException.class)
     public ResponseEntity<OAuth2Exception> handleException(Exception e) throws Exception {
+        auditLog.record(AuditEvent.Type.TOKEN_REJECTED, null, null, null, "/openid/userinfo");
         InvalidTokenException e400 = new InvalidTokenException(e.getMessage()) {
             @Override
             public int getHttpErrorCode() {
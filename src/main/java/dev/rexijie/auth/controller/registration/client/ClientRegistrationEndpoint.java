@@ -1,26 +1,33 @@
 package dev.rexijie.auth.controller.registration.client;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.rexijie.auth.controller.registration.dto.ClientDto;
 import dev.rexijie.auth.controller.registration.dto.mapper.ClientMapper;
 import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.repository.ClientFilter;
 import dev.rexijie.auth.service.ClientService;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 // TODO - Update Client Registration
 @RestController
 @RequestMapping("/api/clients")
 public class ClientRegistrationEndpoint {
 
     private final ClientService clientService;
+    private final ObjectMapper objectMapper;
 
-    public ClientRegistrationEndpoint(ClientService clientService) {
+    public ClientRegistrationEndpoint(ClientService clientService,
+                                      ObjectMapper objectMapper) {
         this.clientService = clientService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -32,13 +39,39 @@ public class ClientRegistrationEndpoint {
         return new ResponseEntity<>(clientDto, headers, HttpStatus.CREATED);
     }
 
+    /**
+     * Lists clients a page at a time in id order. Each client is written as it is read off the cursor,
+     * {@code next} is passed back as {@code after} for the following page and is null on the last one.
+     */
     @GetMapping
-    public ResponseEntity<List<ClientDto>> getAllClients() {
-        var clients = clientService
-                .listClientDetails()
-                .parallelStream()
-                .map(ClientMapper::toDto)
-                .collect(Collectors.toList());
-        return new ResponseEntity<>(clients, HttpStatus.OK);
+    public void getAllClients(@RequestParam(required = false) String after,
+                              @RequestParam(defaultValue = "" + ClientFilter.DEFAULT_LIMIT) int limit,
+                              @RequestParam(name = "client_type", required = false) String clientType,
+                              @RequestParam(name = "grant_type", required = false) String grantType,
+                              @RequestParam(name = "name", required = false) String namePrefix,
+                              HttpServletResponse response) throws IOException {
+        var filter = new ClientFilter();
+        filter.setAfter(after);
+        filter.setLimit(limit);
+        filter.setClientType(clientType);
+        filter.setGrantType(grantType);
+        filter.setNamePrefix(namePrefix);
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (var clients = clientService.streamClients(filter);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("clients");
+            int count = 0;
+            String lastId = null;
+            for (var iterator = clients.iterator(); iterator.hasNext(); count++) {
+                var client = iterator.next();
+                objectMapper.writeValue(generator, ClientMapper.toDto(client));
+                lastId = client.getId();
+            }
+            generator.writeEndArray();
+            generator.writeStringField("next", count == filter.getLimit() ? lastId : null);
+            generator.writeEndObject();
+        }
     }
 }
@@ -0,0 +1,27 @@
+package dev.rexijie.auth.controller.registration.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One line of a bulk user import.
+ * Either {@code password} is given and hashed on import, or {@code passwordHash} holds an existing bcrypt hash.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Data
+@NoArgsConstructor
+public class UserImportDto {
+    private String username;
+    private String password;
+    private String passwordHash;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phone;
+    private LocalDate dateOfBirth;
+    private String role;
+    private Boolean enabled;
+}
@@ -1,17 +1,34 @@
 package dev.rexijie.auth.controller.registration.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rexijie.auth.constants.Authorities;
 import dev.rexijie.auth.controller.registration.dto.UserDto;
 import dev.rexijie.auth.controller.registration.dto.mapper.UserMapper;
 import dev.rexijie.auth.model.OidcAddress;
 import dev.rexijie.auth.model.User;
 import dev.rexijie.auth.model.UserInfo;
+import dev.rexijie.auth.model.authority.RoleEnum;
 import dev.rexijie.auth.service.UserService;
+import dev.rexijie.auth.service.impl.UserImportService;
+import dev.rexijie.auth.tokenservices.MongoApprovalStore;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.approval.Approval;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * @author Rex Ijiekhuamen
  * 09 Sep 2020
@@ -19,10 +36,21 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/users")
 public class UserRegistrationEndpoint {
-    private final UserService userService;
+    public static final String NDJSON = "application/x-ndjson";
 
-    public UserRegistrationEndpoint(UserService userService) {
+    private final UserService userService;
+    private final MongoApprovalStore approvalStore;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+
+    public UserRegistrationEndpoint(UserService userService,
+                                    MongoApprovalStore approvalStore,
+                                    UserImportService userImportService,
+                                    ObjectMapper objectMapper) {
         this.userService = userService;
+        this.approvalStore = approvalStore;
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
     }
 
     // do i add userinfo request types?
@@ -45,6 +73,33 @@ public class UserRegistrationEndpoint {
         return new ResponseEntity<>(savedUser, HttpStatus.OK);
     }
 
+    /**
+     * Streams users in as ndjson and streams the outcome back as ndjson while the import runs:
+     * one line per failed record, a progress line every few thousand records and a final summary.
+     */
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public void importUsers(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        OutputStream output = response.getOutputStream();
+
+        var progress = userImportService.importUsers(body, new UserImportService.ImportListener() {
+            @Override
+            public void onError(long line, String username, String message) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("line", line);
+                error.put("username", username);
+                error.put("error", message);
+                writeLine(output, error);
+            }
+
+            @Override
+            public void onProgress(UserImportService.ImportProgress progress) {
+                writeLine(output, summary(progress, false));
+            }
+        });
+        writeLine(output, summary(progress, true));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<User> getUser(@PathVariable("id") String id) {
         User user = userService.getUserById(id);
@@ -74,6 +129,56 @@ public class UserRegistrationEndpoint {
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/consents")
+    public ResponseEntity<Collection<Approval>> getUserConsents(@PathVariable("id") String id,
+                                                                Authentication authentication) {
+        User user = userService.getUserById(id);
+        checkOwnerOrAdmin(user, authentication);
+        return new ResponseEntity<>(approvalStore.getApprovals(user.getUsername()), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{id}/consents/{clientId}")
+    public ResponseEntity<Void> revokeUserConsent(@PathVariable("id") String id,
+                                                  @PathVariable("clientId") String clientId,
+                                                  Authentication authentication) {
+        User user = userService.getUserById(id);
+        checkOwnerOrAdmin(user, authentication);
+        approvalStore.revokeApprovals(user.getUsername(), clientId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // consents are only listed and revoked by the user who gave them, or by an admin
+    private void checkOwnerOrAdmin(User user, Authentication authentication) {
+        String adminAuthority = Authorities.ROLE_PREFIX + RoleEnum.ADMIN.getName();
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> adminAuthority.equals(authority.getAuthority()));
+        // a client_credentials token is named after the client, never after a user
+        boolean clientOnly = authentication instanceof OAuth2Authentication
+                && ((OAuth2Authentication) authentication).isClientOnly();
+        if (!admin && (clientOnly || !user.getUsername().equals(authentication.getName())))
+            throw new AccessDeniedException("Consents can only be managed by the user who gave them");
+    }
+
+    private Map<String, Object> summary(UserImportService.ImportProgress progress, boolean done) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("done", done);
+        summary.put("processed", progress.getProcessed());
+        summary.put("imported", progress.getImported());
+        summary.put("failed", progress.getFailed());
+        summary.put("elapsed_ms", progress.getElapsedMillis());
+        return summary;
+    }
+
+    private void writeLine(OutputStream output, Map<String, Object> line) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(line));
+            output.write('\n');
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private void validateUser(UserDto userDto) {
 
     }
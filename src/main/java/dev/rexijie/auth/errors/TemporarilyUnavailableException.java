@@ -0,0 +1,30 @@
+package dev.rexijie.auth.errors;
+
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+
+/**
+ * The request was refused for now and may be repeated after {@link #getRetryAfterSeconds()}.
+ * Answered with a 429 and a {@code temporarily_unavailable} error.
+ */
+public class TemporarilyUnavailableException extends OAuth2Exception {
+    private final long retryAfterSeconds;
+
+    public TemporarilyUnavailableException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public String getOAuth2ErrorCode() {
+        return "temporarily_unavailable";
+    }
+
+    @Override
+    public int getHttpErrorCode() {
+        return 429;
+    }
+}
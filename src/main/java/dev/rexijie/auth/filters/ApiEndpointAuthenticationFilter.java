@@ -1,6 +1,9 @@
 package dev.rexijie.auth.filters;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.AuditEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
@@ -30,13 +33,19 @@ public class ApiEndpointAuthenticationFilter extends OncePerRequestFilter {
 
     private final ResourceServerTokenServices tokenServices;
     private final ObjectMapper objectMapper;
+    private final TokenMetrics metrics;
+    private final AuditLog auditLog;
     private final Set<String> ignoredPaths = new HashSet<>();
 
     public ApiEndpointAuthenticationFilter(
             ObjectMapper objectMapper,
-            ResourceServerTokenServices resourceServerTokenServices) {
+            ResourceServerTokenServices resourceServerTokenServices,
+            TokenMetrics metrics,
+            AuditLog auditLog) {
         this.objectMapper = objectMapper;
         this.tokenServices = resourceServerTokenServices;
+        this.metrics = metrics;
+        this.auditLog = auditLog;
         ignoredPaths.add("/oauth");
         ignoredPaths.add("/oauth2");
         ignoredPaths.add("/openid");
@@ -56,10 +65,8 @@ public class ApiEndpointAuthenticationFilter extends OncePerRequestFilter {
         if ((authorization != null && authorization.contains("Bearer")) && !pathShouldBeIgnored(path)) {
             try {
                 token = getTokenFromAuthorizationHeader(authorization);
-
-                OAuth2AccessToken oAuth2AccessToken = tokenServices.readAccessToken(token);
-                if (oAuth2AccessToken.isExpired()) throw new InvalidTokenException("Token has expired");
-                Authentication authentication = tokenServices.loadAuthentication(token);
+                Authentication authentication =
+                        metrics.record(TokenMetrics.BEARER_VALIDATION, null, null, () -> validate(token));
 
                 SecurityContext context = SecurityContextHolder.getContext();
                 context.setAuthentication(authentication);
@@ -72,6 +79,12 @@ public class ApiEndpointAuthenticationFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
+    private Authentication validate(String token) {
+        OAuth2AccessToken oAuth2AccessToken = tokenServices.readAccessToken(token);
+        if (oAuth2AccessToken.isExpired()) throw new InvalidTokenException("Token has expired");
+        return tokenServices.loadAuthentication(token);
+    }
+
     protected void writeErrorResponse(HttpServletRequest request,
                                       HttpServletResponse response,
                                       Exception exception) throws IOException{
@@ -84,6 +97,7 @@ public class ApiEndpointAuthenticationFilter extends OncePerRequestFilter {
         response.setStatus(HttpStatus.FORBIDDEN.value());
 
         log.warn("Token Expired: {}", exception.getMessage());
+        auditLog.record(AuditEvent.Type.TOKEN_REJECTED, null, null, null, request.getRequestURI());
         Map<String, String> errorResponse = new HashMap<>();
         errorResponse.put("error", "invalid_token");
         errorResponse.put("error_description", exception.getMessage());
@@ -0,0 +1,75 @@
+package dev.rexijie.auth.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.errors.TemporarilyUnavailableException;
+import dev.rexijie.auth.throttle.LoginThrottle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Refuses throttled login form posts and password grant requests before any credentials are checked,
+ * see {@link LoginThrottle}. It is added to the login chain and, ahead of client authentication,
+ * to the token endpoint chain.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class LoginThrottlingFilter extends OncePerRequestFilter {
+    public static final String LOGIN_PATH = "/oauth2/login";
+    public static final String TOKEN_PATH = "/oauth2/token";
+
+    private final LoginThrottle loginThrottle;
+    private final ObjectMapper objectMapper;
+
+    public LoginThrottlingFilter(LoginThrottle loginThrottle,
+                                 ObjectMapper objectMapper) {
+        this.loginThrottle = loginThrottle;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        boolean login = isLogin(request);
+        if (!login && !isPasswordGrant(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String username = request.getParameter("username");
+        try {
+            loginThrottle.checkAttempt(username, request.getRemoteAddr());
+        } catch (TemporarilyUnavailableException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            if (login) {
+                response.sendRedirect(request.getContextPath() + LOGIN_PATH + "?error=throttled");
+            } else {
+                response.setStatus(e.getHttpErrorCode());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                objectMapper.writeValue(response.getOutputStream(), e);
+            }
+            return;
+        }
+        if (username != null) request.setAttribute(LoginThrottle.ATTEMPTED_USERNAME, username);
+        chain.doFilter(request, response);
+    }
+
+    private boolean isLogin(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && LOGIN_PATH.equals(request.getServletPath());
+    }
+
+    private boolean isPasswordGrant(HttpServletRequest request) {
+        return TOKEN_PATH.equals(request.getServletPath())
+                && GrantTypes.PASSWORD.equals(request.getParameter(OAuth2Utils.GRANT_TYPE));
+    }
+}
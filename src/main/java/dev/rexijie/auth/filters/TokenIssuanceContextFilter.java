@@ -0,0 +1,42 @@
+package dev.rexijie.auth.filters;
+
+import dev.rexijie.auth.tokenservices.TokenIssuanceContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Binds a {@link TokenIssuanceContext} to requests that issue tokens.
+ * Runs first so client authentication in the security filters already uses it.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TokenIssuanceContextFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !(path.equals("/oauth2/token") || path.equals("/oauth2/authorize"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        TokenIssuanceContext.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TokenIssuanceContext.end();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dev.rexijie.auth.init;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The records of a seed file. Roles are keyed by name, clients by client id and users by username.
+ * Secrets and passwords may be given as bcrypt hashes, anything else is hashed when the record is written.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Data
+@NoArgsConstructor
+public class SeedFile {
+    private List<RoleSeed> roles = new ArrayList<>();
+    private List<ClientSeed> clients = new ArrayList<>();
+    private List<UserSeed> users = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    public static class RoleSeed {
+        private String name;
+        private String description;
+        private List<AuthoritySeed> authorities = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class AuthoritySeed {
+        private String name;
+        private String description;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class ClientSeed {
+        private String clientId;
+        private String clientName;
+        private String clientType;
+        private String clientProfile;
+        private String secret;
+        private Integer accessTokenValiditySeconds;
+        private Integer refreshTokenValiditySeconds;
+        private List<String> resourceIds = new ArrayList<>();
+        private List<String> scopes = new ArrayList<>();
+        private List<String> redirectUris = new ArrayList<>();
+        private List<String> grantTypes = new ArrayList<>();
+        private List<String> autoApproveScopes = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class UserSeed {
+        private String username;
+        private String password;
+        private String role;
+        private boolean enabled = true;
+    }
+}
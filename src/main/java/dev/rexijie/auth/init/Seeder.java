@@ -0,0 +1,356 @@
+package dev.rexijie.auth.init;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rexijie.auth.cache.UserInfoCache;
+import dev.rexijie.auth.config.SeedProperties;
+import dev.rexijie.auth.model.SeedFingerprint;
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.authority.Authority;
+import dev.rexijie.auth.model.authority.Role;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.util.Digests;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Seeds roles, clients and users from the seed file at {@code oauth2.seed.location}.
+ * <p>
+ * Records are upserted by their natural key and nothing else is touched, so seeding is safe to run on every
+ * start and on several replicas at once. New records get ids derived from their key so replicas seeding at
+ * the same time write the same documents. The fingerprint of every record written is kept, a record whose
+ * fingerprint has not changed is skipped without hashing its secret. A user is written again when its role changes.
+ * Fingerprints are an HMAC keyed by {@code oauth2.seed.fingerprint-key}, the records include plaintext secrets
+ * which must not be recoverable from the stored value. Without a configured key the first start generates one
+ * and keeps it with the fingerprints, so later starts on any replica reuse it.
+ * <p>
+ * Seeding runs on a background thread unless {@code oauth2.seed.async} is false, {@link #awaitSeeded()}
+ * waits for it to finish.
+ * The time taken is published as {@code oauth2.seed.duration}.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Component
+public class Seeder {
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final String CLIENT_CACHE = "registered-clients";
+    private static final String FINGERPRINT_ALGORITHM = "HmacSHA256";
+    private static final String FINGERPRINT_KEY_ID = "seed:fingerprint-key";
+
+    private final MongoTemplate mongoTemplate;
+    private final PasswordEncoder encoder;
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final Cache clientCache;
+    private final UserInfoCache userInfoCache;
+    private final SeedProperties properties;
+    private final MeterRegistry registry;
+    private final CountDownLatch seeded = new CountDownLatch(1);
+    private SecretKeySpec fingerprintKey;
+
+    public Seeder(MongoTemplate mongoTemplate,
+                  PasswordEncoder encoder,
+                  ObjectMapper objectMapper,
+                  ResourceLoader resourceLoader,
+                  CacheManager cacheManager,
+                  UserInfoCache userInfoCache,
+                  SeedProperties properties,
+                  MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.encoder = encoder;
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.clientCache = cacheManager.getCache(CLIENT_CACHE);
+        this.userInfoCache = userInfoCache;
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            seeded.countDown();
+            return;
+        }
+        if (!properties.isAsync()) {
+            seed();
+            return;
+        }
+        var thread = new Thread(this::seed, "seeder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void seed() {
+        long start = System.nanoTime();
+        String outcome = "completed";
+        try {
+            fingerprintKey = fingerprintKey();
+            var seedFile = read();
+            var fingerprints = loadFingerprints(seedFile);
+            var changes = new Changes();
+            var roles = seedRoles(seedFile.getRoles(), fingerprints, changes);
+            seedClients(seedFile.getClients(), fingerprints, changes);
+            seedUsers(seedFile.getUsers(), roles, fingerprints, changes);
+            log.info("seeded {} in {}ms: {} records written, {} unchanged", properties.getLocation(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), changes.written, changes.unchanged);
+        } catch (Exception e) {
+            outcome = "failed";
+            log.error("seeding from {} failed", properties.getLocation(), e);
+        } finally {
+            Timer.builder("oauth2.seed.duration")
+                    .description("time taken to apply the seed file")
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            seeded.countDown();
+        }
+    }
+
+    /**
+     * Waits until seeding has completed or failed, returns at once when seeding is disabled
+     */
+    public void awaitSeeded() throws InterruptedException {
+        seeded.await();
+    }
+
+    private SeedFile read() throws IOException {
+        try (InputStream input = resourceLoader.getResource(properties.getLocation()).getInputStream()) {
+            return objectMapper.readValue(input, SeedFile.class);
+        }
+    }
+
+    // one query for the fingerprints of every record in the file
+    private Map<String, String> loadFingerprints(SeedFile seedFile) {
+        var keys = new HashSet<String>();
+        seedFile.getRoles().forEach(role -> keys.add(roleKey(role.getName())));
+        seedFile.getClients().forEach(client -> keys.add(clientKey(client.getClientId())));
+        seedFile.getUsers().forEach(user -> keys.add(userKey(user.getUsername())));
+        return mongoTemplate.find(Query.query(where("_id").in(keys)), SeedFingerprint.class).stream()
+                .collect(Collectors.toMap(SeedFingerprint::getKey, SeedFingerprint::getFingerprint));
+    }
+
+    /**
+     * @return the fingerprint of every seeded role by name, users include it in their own fingerprint
+     */
+    private Map<String, SeededRole> seedRoles(List<SeedFile.RoleSeed> seeds, Map<String, String> fingerprints,
+                                              Changes changes) throws JsonProcessingException {
+        Map<String, Role> existing = findExisting(Role.class, "name", seeds, SeedFile.RoleSeed::getName, Role::getName);
+        Map<String, SeededRole> roles = new HashMap<>();
+        for (var seed : seeds) {
+            String key = roleKey(seed.getName());
+            String fingerprint = fingerprint(seed);
+            Role role = existing.get(seed.getName());
+            if (role == null || !fingerprint.equals(fingerprints.get(key))) {
+                role = toRole(seed, role == null ? idFor(key) : role.getId(), key);
+                mongoTemplate.save(role);
+                saveFingerprint(key, fingerprint);
+                changes.written++;
+            } else changes.unchanged++;
+            roles.put(seed.getName(), new SeededRole(role, fingerprint));
+        }
+        return roles;
+    }
+
+    private void seedClients(List<SeedFile.ClientSeed> seeds, Map<String, String> fingerprints,
+                             Changes changes) throws JsonProcessingException {
+        Map<String, Client> existing = findExisting(Client.class, "clientId", seeds,
+                SeedFile.ClientSeed::getClientId, Client::getClientId);
+        for (var seed : seeds) {
+            String key = clientKey(seed.getClientId());
+            String fingerprint = fingerprint(seed);
+            Client stored = existing.get(seed.getClientId());
+            if (stored != null && fingerprint.equals(fingerprints.get(key))) {
+                changes.unchanged++;
+                continue;
+            }
+            var client = toClient(seed);
+            client.setId(stored == null ? idFor(key) : stored.getId());
+            client.setCreatedAt(stored == null || stored.getCreatedAt() == null ? LocalDateTime.now() : stored.getCreatedAt());
+            client.setUpdatedAt(LocalDateTime.now());
+            mongoTemplate.save(client);
+            clientCache.evict(seed.getClientId());
+            saveFingerprint(key, fingerprint);
+            changes.written++;
+        }
+    }
+
+    private void seedUsers(List<SeedFile.UserSeed> seeds, Map<String, SeededRole> roles,
+                           Map<String, String> fingerprints, Changes changes) throws JsonProcessingException {
+        Map<String, User> existing = findExisting(User.class, "username", seeds,
+                SeedFile.UserSeed::getUsername, User::getUsername);
+        for (var seed : seeds) {
+            var role = roles.get(seed.getRole());
+            if (role == null)
+                throw new IllegalArgumentException("user " + seed.getUsername() + " has role " + seed.getRole()
+                        + " which is not in the seed file");
+
+            String key = userKey(seed.getUsername());
+            String fingerprint = fingerprint(seed) + role.fingerprint;
+            User stored = existing.get(seed.getUsername());
+            if (stored != null && fingerprint.equals(fingerprints.get(key))) {
+                changes.unchanged++;
+                continue;
+            }
+            var user = new User(seed.getUsername(), hashed(seed.getPassword()), role.role);
+            user.setId(stored == null ? idFor(key) : stored.getId());
+            user.setEnabled(seed.isEnabled());
+            user.setAccountNonExpired(true);
+            user.setAccountNonLocked(true);
+            user.setCredentialsNonExpired(true);
+            user.setCreatedAt(stored == null || stored.getCreatedAt() == null ? LocalDateTime.now() : stored.getCreatedAt());
+            user.setUpdatedAt(LocalDateTime.now());
+            mongoTemplate.save(user);
+            userInfoCache.evict(seed.getUsername());
+            saveFingerprint(key, fingerprint);
+            changes.written++;
+        }
+    }
+
+    // the stored records with the natural keys of the seeds
+    private <S, T> Map<String, T> findExisting(Class<T> type, String keyField, List<S> seeds,
+                                               Function<S, String> seedKey, Function<T, String> storedKey) {
+        var keys = seeds.stream().map(seedKey).collect(Collectors.toList());
+        var query = Query.query(where(keyField).in(keys));
+        // unchanged roles are embedded in users as they are stored, so they are read whole
+        if (type != Role.class) query.fields().include("_id").include(keyField).include("createdAt");
+        return mongoTemplate.find(query, type).stream()
+                .collect(Collectors.toMap(storedKey, Function.identity(), (first, second) -> first));
+    }
+
+    private Role toRole(SeedFile.RoleSeed seed, String id, String key) {
+        var role = new Role();
+        role.setId(id);
+        role.setName(seed.getName());
+        role.setDescription(seed.getDescription());
+        for (var authoritySeed : seed.getAuthorities()) {
+            var authority = new Authority(authoritySeed.getName(), authoritySeed.getDescription());
+            authority.setId(idFor(key + ":" + authoritySeed.getName()));
+            role.getAuthorities().add(authority);
+        }
+        return role;
+    }
+
+    private Client toClient(SeedFile.ClientSeed seed) {
+        var client = new Client();
+        client.setClientId(seed.getClientId());
+        client.setClientName(seed.getClientName());
+        if (seed.getClientType() != null) client.setClientType(seed.getClientType());
+        if (seed.getClientProfile() != null) client.setClientProfile(seed.getClientProfile());
+        if (seed.getSecret() != null) client.setClientSecret(hashed(seed.getSecret()));
+        client.setAccessTokenValiditySeconds(seed.getAccessTokenValiditySeconds());
+        client.setRefreshTokenValiditySeconds(seed.getRefreshTokenValiditySeconds());
+        client.setResourceIds(seed.getResourceIds());
+        client.setScope(seed.getScopes());
+        client.setAuthorizedGrantTypes(seed.getGrantTypes());
+        client.setAutoApproveScopes(seed.getAutoApproveScopes());
+        client.setRegisteredRedirectUri(new HashSet<>(seed.getRedirectUris()));
+        return client;
+    }
+
+    private String hashed(String secret) {
+        return BCRYPT_HASH.matcher(secret).matches() ? secret : encoder.encode(secret);
+    }
+
+    private String fingerprint(Object seed) throws JsonProcessingException {
+        byte[] json = objectMapper.writeValueAsBytes(seed);
+        try {
+            Mac mac = Mac.getInstance(FINGERPRINT_ALGORITHM);
+            mac.init(fingerprintKey);
+            return Digests.toHex(mac.doFinal(json));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(FINGERPRINT_ALGORITHM + " is not available", e);
+        }
+    }
+
+    // the configured key, or the one the first replica to seed generated and stored
+    private SecretKeySpec fingerprintKey() {
+        if (StringUtils.hasText(properties.getFingerprintKey()))
+            return new SecretKeySpec(properties.getFingerprintKey().getBytes(StandardCharsets.UTF_8), FINGERPRINT_ALGORITHM);
+
+        var stored = mongoTemplate.findById(FINGERPRINT_KEY_ID, SeedFingerprint.class);
+        if (stored == null) {
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            try {
+                mongoTemplate.insert(new SeedFingerprint(FINGERPRINT_KEY_ID,
+                        Base64.getEncoder().encodeToString(key), LocalDateTime.now()));
+                log.info("generated a seed fingerprint key, set oauth2.seed.fingerprint-key to keep it out of mongo");
+            } catch (DuplicateKeyException e) {
+                // another replica stored its key first, that one is used
+            }
+            stored = mongoTemplate.findById(FINGERPRINT_KEY_ID, SeedFingerprint.class);
+        }
+        return new SecretKeySpec(Base64.getDecoder().decode(stored.getFingerprint()), FINGERPRINT_ALGORITHM);
+    }
+
+    private void saveFingerprint(String key, String fingerprint) {
+        mongoTemplate.save(new SeedFingerprint(key, fingerprint, LocalDateTime.now()));
+    }
+
+    private static String idFor(String key) {
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static String roleKey(String name) {
+        return "role:" + name;
+    }
+
+    private static String clientKey(String clientId) {
+        return "client:" + clientId;
+    }
+
+    private static String userKey(String username) {
+        return "user:" + username;
+    }
+
+    private static class SeededRole {
+        private final Role role;
+        private final String fingerprint;
+
+        private SeededRole(Role role, String fingerprint) {
+            this.role = role;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static class Changes {
+        private int written;
+        private int unchanged;
+    }
+}
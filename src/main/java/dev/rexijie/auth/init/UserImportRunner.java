@@ -0,0 +1,69 @@
+package dev.rexijie.auth.init;
+
+import dev.rexijie.auth.config.UserImportProperties;
+import dev.rexijie.auth.service.impl.UserImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports users from an ndjson file on startup, e.g. {@code --oauth2.import.file=users.ndjson}.
+ * Unless {@code oauth2.import.exit-when-done} is false the application exits when the import is done,
+ * with status 1 if any record failed.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "oauth2.import", name = "file")
+public class UserImportRunner implements ApplicationRunner {
+    private final UserImportService userImportService;
+    private final UserImportProperties properties;
+    private final ApplicationContext applicationContext;
+
+    public UserImportRunner(UserImportService userImportService,
+                            UserImportProperties properties,
+                            ApplicationContext applicationContext) {
+        this.userImportService = userImportService;
+        this.properties = properties;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path file = Path.of(properties.getFile());
+        log.info("importing users from {}", file);
+
+        UserImportService.ImportProgress progress;
+        try (InputStream input = Files.newInputStream(file)) {
+            progress = userImportService.importUsers(input, new UserImportService.ImportListener() {
+                @Override
+                public void onError(long line, String username, String message) {
+                    log.warn("line {} ({}) not imported: {}", line, username, message);
+                }
+
+                @Override
+                public void onProgress(UserImportService.ImportProgress progress) {
+                    log.info("{} records processed, {} imported, {} failed, {}s",
+                            progress.getProcessed(), progress.getImported(), progress.getFailed(),
+                            progress.getElapsedMillis() / 1000);
+                }
+            });
+        }
+        log.info("import of {} done: {} imported, {} failed in {}s", file, progress.getImported(),
+                progress.getFailed(), progress.getElapsedMillis() / 1000);
+
+        if (properties.isExitWhenDone()) {
+            int status = progress.getFailed() == 0 ? 0 : 1;
+            System.exit(SpringApplication.exit(applicationContext, () -> status));
+        }
+    }
+}
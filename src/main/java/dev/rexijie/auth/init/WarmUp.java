@@ -0,0 +1,210 @@
+package dev.rexijie.auth.init;
+
+import dev.rexijie.auth.config.WarmUpProperties;
+import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.UserInfo;
+import dev.rexijie.auth.model.authority.Role;
+import dev.rexijie.auth.model.authority.RoleEnum;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.model.token.KeyPairHolder;
+import dev.rexijie.auth.repository.ClientFilter;
+import dev.rexijie.auth.service.ClientService;
+import dev.rexijie.auth.service.UserService;
+import dev.rexijie.auth.tokenservices.DefaultJwtClaimEnhancer;
+import dev.rexijie.auth.tokenservices.JwtTokenConverter;
+import dev.rexijie.auth.tokenservices.JwtTokenEnhancer;
+import dev.rexijie.auth.tokenservices.openid.IDTokenClaimsEnhancer;
+import dev.rexijie.auth.tokenservices.openid.UserInfoRenderer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static dev.rexijie.auth.util.TokenUtils.generateUUID;
+
+/**
+ * Warms the server up after startup so the first requests after a deploy are not the slow ones.
+ * Registered clients are loaded into the {@code registered-clients} cache, then synthetic tokens are
+ * signed, verified and decoded and userinfo claims are rendered until the code is compiled.
+ * Synthetic work goes through its own enhancer so it does not show up in the token metrics.
+ * <p>
+ * As a health indicator it is out of service until the {@link Seeder} has finished and the warm-up is done
+ * or its time budget runs out, include it in the readiness group to keep traffic away meanwhile.
+ * The time taken is published as {@code oauth2.warmup.duration}.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Component
+public class WarmUp implements HealthIndicator {
+    private static final String CLIENT_ID = "warm-up";
+    private static final Set<String> SCOPES = Set.of("openid", "profile", "email", "read");
+
+    private final ClientService clientService;
+    private final KeyPairHolder keyPairHolder;
+    private final UserService userService;
+    private final IDTokenClaimsEnhancer claimsEnhancer;
+    private final WarmUpProperties properties;
+    private final MeterRegistry registry;
+    private final Seeder seeder;
+    private volatile Health health = Health.outOfService().withDetail("phase", "starting").build();
+
+    public WarmUp(ClientService clientService,
+                  KeyPairHolder keyPairHolder,
+                  UserService userService,
+                  IDTokenClaimsEnhancer claimsEnhancer,
+                  WarmUpProperties properties,
+                  MeterRegistry registry,
+                  Seeder seeder) {
+        this.clientService = clientService;
+        this.keyPairHolder = keyPairHolder;
+        this.userService = userService;
+        this.claimsEnhancer = claimsEnhancer;
+        this.properties = properties;
+        this.registry = registry;
+        this.seeder = seeder;
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        var thread = new Thread(this::run, "warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        // the clients and users only exist once the seed file is applied
+        health = Health.outOfService().withDetail("phase", "seeding").build();
+        try {
+            seeder.awaitSeeded();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (!properties.isEnabled()) {
+            health = Health.up().withDetail("phase", "disabled").build();
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(properties.getBudgetSeconds());
+        int clients = 0;
+        int iterations = 0;
+        String outcome = "completed";
+        try {
+            health = Health.outOfService().withDetail("phase", "clients").build();
+            clients = preloadClients(deadline);
+            health = Health.outOfService().withDetail("phase", "tokens").withDetail("clients", clients).build();
+            iterations = exerciseTokens(deadline);
+            if (System.nanoTime() - deadline >= 0) outcome = "budget_exceeded";
+        } catch (Exception e) {
+            // a failed warm-up only means a slower start, it must not keep the server out of rotation
+            log.warn("warm-up failed, reporting ready anyway", e);
+            outcome = "failed";
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("oauth2.warmup.duration")
+                .description("time taken to warm up after startup")
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("warm-up {} in {}ms: {} clients cached, {} tokens signed",
+                outcome, TimeUnit.NANOSECONDS.toMillis(elapsed), clients, iterations);
+
+        health = Health.up()
+                .withDetail("outcome", outcome)
+                .withDetail("durationMs", TimeUnit.NANOSECONDS.toMillis(elapsed))
+                .withDetail("clients", clients)
+                .withDetail("iterations", iterations)
+                .build();
+    }
+
+    private int preloadClients(long deadline) {
+        var filter = new ClientFilter();
+        filter.setLimit(ClientFilter.MAX_LIMIT);
+        int loaded = 0;
+        while (loaded < properties.getMaxClients() && System.nanoTime() - deadline < 0) {
+            List<Client> page;
+            try (var clients = clientService.streamClients(filter)) {
+                page = clients.collect(Collectors.toList());
+            }
+            for (Client client : page) {
+                if (loaded == properties.getMaxClients() || System.nanoTime() - deadline >= 0) return loaded;
+                try {
+                    // the listing is a projection, loading by client id caches the whole client
+                    clientService.loadClientByClientId(client.getClientId());
+                    loaded++;
+                } catch (ClientRegistrationException ignored) {
+                    // removed since it was listed
+                }
+            }
+            if (page.size() < filter.getLimit()) break;
+            filter.setAfter(page.get(page.size() - 1).getId());
+        }
+        return loaded;
+    }
+
+    private int exerciseTokens(long deadline) throws Exception {
+        var enhancer = new JwtTokenEnhancer(keyPairHolder);
+        enhancer.setAccessTokenConverter(new JwtTokenConverter(new DefaultJwtClaimEnhancer(userService, TokenMetrics.noop())));
+        enhancer.afterPropertiesSet();
+        var renderer = new UserInfoRenderer(claimsEnhancer);
+        var user = syntheticUser();
+        int scopeMask = UserInfoRenderer.scopeMask(SCOPES);
+        var request = new OAuth2Request(Map.of(OAuth2Utils.GRANT_TYPE, GrantTypes.CLIENT_CREDENTIALS), CLIENT_ID,
+                List.of(), true, SCOPES, Set.of(), null, Set.of(), Map.of());
+        var authentication = new OAuth2Authentication(request, null);
+
+        int iterations = 0;
+        while (iterations < properties.getIterations() && System.nanoTime() - deadline < 0) {
+            var token = new DefaultOAuth2AccessToken(generateUUID());
+            token.setScope(SCOPES);
+            token.setExpiration(new Date(System.currentTimeMillis() + 60_000));
+            OAuth2AccessToken signed = enhancer.enhance(token, authentication);
+            enhancer.extractAuthentication(enhancer.decode(signed.getValue()));
+            renderer.render(user, scopeMask);
+            iterations++;
+        }
+        return iterations;
+    }
+
+    private User syntheticUser() {
+        var user = new User(CLIENT_ID, null, new Role(RoleEnum.USER, new ArrayList<>()));
+        user.setUserInfo(UserInfo.builder()
+                .firstName("Warm")
+                .lastName("Up")
+                .username(CLIENT_ID)
+                .email("warm-up@localhost")
+                .phoneNumber("+10000000000")
+                .dateOfBirth(LocalDate.of(2000, 1, 1))
+                .build());
+        return user;
+    }
+}
@@ -0,0 +1,138 @@
+package dev.rexijie.auth.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Starts a flight recording on demand and serves its contents.
+ * <ul>
+ *     <li>{@code POST /actuator/flightrecording} starts a recording, optionally with
+ *     {@code durationSeconds} and {@code maxSizeMegabytes}</li>
+ *     <li>{@code GET /actuator/flightrecording} shows the state of the recording</li>
+ *     <li>{@code GET /actuator/flightrecording/dump} downloads what has been recorded so far</li>
+ *     <li>{@code DELETE /actuator/flightrecording} stops and discards the recording</li>
+ * </ul>
+ * Recordings use the JDK profile settings with the {@link TokenEvents}, and are always bounded
+ * in duration and size so one that is never stopped can not fill the disk.
+ * <p>
+ * A recording holds the environment variables and system properties of the process, so the endpoint is
+ * not exposed by default and only admins may use it. Add {@code flightrecording} to
+ * {@code management.endpoints.web.exposure.include} to expose it.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Component
+@Endpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+    private static final String DUMP = "dump";
+    private static final int DEFAULT_DURATION_SECONDS = 600;
+    private static final int MAX_DURATION_SECONDS = 3600;
+    private static final int DEFAULT_MAX_SIZE_MEGABYTES = 64;
+    private static final int MAX_SIZE_MEGABYTES = 512;
+
+    private Recording recording;
+    private Path lastDump;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState());
+        status.put("startTime", recording.getStartTime());
+        status.put("durationSeconds", recording.getDuration() == null ? null : recording.getDuration().getSeconds());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Integer durationSeconds,
+                                                  @Nullable Integer maxSizeMegabytes) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING)
+            throw new IllegalStateException("a recording is already running");
+        close();
+
+        Recording started;
+        try {
+            started = new Recording(Configuration.getConfiguration("profile"));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("flight recorder settings could not be loaded", e);
+        }
+        started.setName("oauth2-on-demand");
+        started.setDuration(Duration.ofSeconds(bound(durationSeconds, DEFAULT_DURATION_SECONDS, MAX_DURATION_SECONDS)));
+        started.setMaxSize(bound(maxSizeMegabytes, DEFAULT_MAX_SIZE_MEGABYTES, MAX_SIZE_MEGABYTES) * 1024L * 1024L);
+        started.setToDisk(true);
+        started.start();
+        recording = started;
+        log.info("started flight recording for {}s", started.getDuration().getSeconds());
+        return status();
+    }
+
+    /**
+     * @return what has been recorded so far, the recording keeps running
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized Resource dump(@Selector String name) {
+        if (!DUMP.equals(name) || recording == null || recording.getState() == RecordingState.CLOSED)
+            return null;
+        try {
+            deleteLastDump();
+            lastDump = Files.createTempFile("oauth2-", ".jfr");
+            recording.dump(lastDump);
+            return new FileSystemResource(lastDump);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DeleteOperation
+    public synchronized void stop() {
+        close();
+        deleteLastDump();
+    }
+
+    private void close() {
+        if (recording == null) return;
+        recording.close();
+        recording = null;
+    }
+
+    private void deleteLastDump() {
+        if (lastDump == null) return;
+        try {
+            Files.deleteIfExists(lastDump);
+        } catch (IOException e) {
+            log.warn("could not delete flight recording dump {}", lastDump);
+        }
+        lastDump = null;
+    }
+
+    private static int bound(Integer value, int defaultValue, int max) {
+        if (value == null || value <= 0) return defaultValue;
+        return Math.min(value, max);
+    }
+}
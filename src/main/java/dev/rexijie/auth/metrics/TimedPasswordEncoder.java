@@ -0,0 +1,35 @@
+package dev.rexijie.auth.metrics;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Times secret verification, the expensive part of client authentication
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final TokenMetrics metrics;
+    private final String stage;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, TokenMetrics metrics, String stage) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.stage = stage;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return metrics.record(stage, null, null, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,26 @@
+package dev.rexijie.auth.metrics;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.TokenGranter;
+import org.springframework.security.oauth2.provider.TokenRequest;
+
+/**
+ * Times a {@link TokenGranter} per client and grant type
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class TimedTokenGranter implements TokenGranter {
+    private final TokenGranter delegate;
+    private final TokenMetrics metrics;
+
+    public TimedTokenGranter(TokenGranter delegate, TokenMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public OAuth2AccessToken grant(String grantType, TokenRequest tokenRequest) {
+        return metrics.record(TokenMetrics.GRANT, tokenRequest.getClientId(), grantType,
+                () -> delegate.grant(grantType, tokenRequest));
+    }
+}
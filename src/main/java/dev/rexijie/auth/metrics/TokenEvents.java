@@ -0,0 +1,109 @@
+package dev.rexijie.auth.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder events for the stages timed by {@link TokenMetrics}, so token endpoint latency
+ * can be lined up with GC, lock contention and mongo calls in the same recording.
+ * The duration of each event is the duration of its stage.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public final class TokenEvents {
+    private static final String CATEGORY = "OAuth2";
+
+    private TokenEvents() {
+    }
+
+    /**
+     * @return a new event for the stage, or null if the stage has no event type
+     */
+    static StageEvent create(String stage) {
+        switch (stage) {
+            case TokenMetrics.CLIENT_AUTHENTICATION:
+                return new ClientAuthentication();
+            case TokenMetrics.USER_AUTHENTICATION:
+                return new UserAuthentication();
+            case TokenMetrics.GRANT:
+                return new Grant();
+            case TokenMetrics.CLAIMS:
+                return new ClaimsEnhancement();
+            case TokenMetrics.SIGNING:
+            case TokenMetrics.ID_TOKEN:
+                return new Signing();
+            case TokenMetrics.CODE_CREATE:
+            case TokenMetrics.CODE_CONSUME:
+                return new AuthorizationCode();
+            case TokenMetrics.BEARER_VALIDATION:
+                return new BearerValidation();
+            default:
+                return null;
+        }
+    }
+
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public abstract static class StageEvent extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Client Id")
+        String clientId;
+
+        @Label("Grant Type")
+        String grantType;
+
+        @Label("Succeeded")
+        boolean succeeded;
+
+        @Label("Cache Hits")
+        @Description("Client and user lookups answered by the token issuance context")
+        int cacheHits;
+
+        @Label("Cache Misses")
+        @Description("Client and user lookups that went to the services")
+        int cacheMisses;
+    }
+
+    @Name("dev.rexijie.auth.ClientAuthentication")
+    @Label("Client Authentication")
+    public static class ClientAuthentication extends StageEvent {
+    }
+
+    @Name("dev.rexijie.auth.UserAuthentication")
+    @Label("User Authentication")
+    public static class UserAuthentication extends StageEvent {
+    }
+
+    @Name("dev.rexijie.auth.Grant")
+    @Label("Token Grant")
+    @Description("Everything the token granter does for one token request")
+    public static class Grant extends StageEvent {
+    }
+
+    @Name("dev.rexijie.auth.ClaimsEnhancement")
+    @Label("Claims Enhancement")
+    public static class ClaimsEnhancement extends StageEvent {
+    }
+
+    @Name("dev.rexijie.auth.Signing")
+    @Label("Token Signing")
+    @Description("Signing an access token, or generating and signing an id token")
+    public static class Signing extends StageEvent {
+    }
+
+    @Name("dev.rexijie.auth.AuthorizationCode")
+    @Label("Authorization Code Persistence")
+    public static class AuthorizationCode extends StageEvent {
+    }
+
+    @Name("dev.rexijie.auth.BearerValidation")
+    @Label("Bearer Token Validation")
+    public static class BearerValidation extends StageEvent {
+    }
+}
@@ -0,0 +1,132 @@
+package dev.rexijie.auth.metrics;
+
+import dev.rexijie.auth.tokenservices.TokenIssuanceContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for the stages of token issuance, published as {@code oauth2.token.stage}.
+ * Each timer is tagged by stage, client and grant type. Only about the first {@code maxClientTags}
+ * clients seen get their own tag, the rest are reported as {@code other}.
+ * Timers are created once per tag combination and reused, so recording is a map lookup and two clock reads.
+ * <p>
+ * Every recorded stage is also a flight recorder event, see {@link TokenEvents}.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+public class TokenMetrics {
+    public static final String METRIC_NAME = "oauth2.token.stage";
+
+    public static final String CLIENT_AUTHENTICATION = "client_authentication";
+    public static final String USER_AUTHENTICATION = "user_authentication";
+    public static final String GRANT = "grant";
+    public static final String CLAIMS = "claims";
+    public static final String SIGNING = "signing";
+    public static final String ID_TOKEN = "id_token";
+    public static final String CODE_CREATE = "code_create";
+    public static final String CODE_CONSUME = "code_consume";
+    public static final String BEARER_VALIDATION = "bearer_validation";
+
+    public static final String NONE = "none";
+    public static final String OTHER = "other";
+
+    private static final Duration[] SLOS = {
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500)};
+    private static final Set<String> GRANT_TYPES = Set.of(
+            "authorization_code", "implicit", "password", "client_credentials", "refresh_token");
+
+    private final MeterRegistry registry;
+    private final int maxClientTags;
+    private final Set<String> clientTags = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public TokenMetrics(MeterRegistry registry,
+                        @Value("${oauth2.metrics.max-client-tags:50}") int maxClientTags) {
+        this.registry = registry;
+        this.maxClientTags = maxClientTags;
+    }
+
+    /**
+     * metrics that are not published anywhere, for components created outside the context
+     */
+    public static TokenMetrics noop() {
+        return new TokenMetrics(new CompositeMeterRegistry(), 0);
+    }
+
+    public Timer timer(String stage, String clientId, String grantType) {
+        String client = clientTag(clientId);
+        String grant = grantTag(grantType);
+        String key = stage + '|' + client + '|' + grant;
+        Timer timer = timers.get(key);
+        if (timer != null) return timer;
+
+        return timers.computeIfAbsent(key, k -> Timer.builder(METRIC_NAME)
+                .description("time spent in a stage of token issuance")
+                .tag("stage", stage)
+                .tag("client", client)
+                .tag("grant_type", grant)
+                .serviceLevelObjectives(SLOS)
+                .register(registry));
+    }
+
+    public <T> T record(String stage, String clientId, String grantType, Supplier<T> supplier) {
+        Timer timer = timer(stage, clientId, grantType);
+        TokenEvents.StageEvent event = TokenEvents.create(stage);
+        boolean recordEvent = event != null && event.isEnabled();
+        TokenIssuanceContext context = recordEvent ? TokenIssuanceContext.current() : null;
+        int lookups = context == null ? 0 : context.getLookupCount();
+        int loads = context == null ? 0 : context.getTotalLoadCount();
+        boolean succeeded = false;
+
+        if (recordEvent) event.begin();
+        long start = System.nanoTime();
+        try {
+            T result = supplier.get();
+            succeeded = true;
+            return result;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (recordEvent) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.stage = stage;
+                    event.clientId = clientId;
+                    event.grantType = grantType;
+                    event.succeeded = succeeded;
+                    if (context != null) {
+                        int misses = context.getTotalLoadCount() - loads;
+                        event.cacheMisses = misses;
+                        event.cacheHits = context.getLookupCount() - lookups - misses;
+                    }
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    private String clientTag(String clientId) {
+        if (clientId == null) return NONE;
+        if (clientTags.contains(clientId)) return clientId;
+        if (clientTags.size() >= maxClientTags) return OTHER;
+        clientTags.add(clientId);
+        return clientId;
+    }
+
+    // grant types come from the request, unknown ones must not create new tags
+    private String grantTag(String grantType) {
+        if (grantType == null) return NONE;
+        return GRANT_TYPES.contains(grantType) ? grantType : OTHER;
+    }
+}
@@ -0,0 +1,45 @@
+package dev.rexijie.auth.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.time.Instant;
+
+/**
+ * Something security relevant that happened, kept in the audit trail.
+ * Events are written to a capped collection or a rolling file, see {@link dev.rexijie.auth.audit.AuditLog}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Data
+@NoArgsConstructor
+public class AuditEvent {
+    @Id
+    private String id;
+    private Type type;
+    private String principal;
+    private String clientId;
+    private String grantType;
+    private String detail;
+    private String remoteAddress;
+    private Instant timestamp;
+
+    public AuditEvent(Type type, String principal, String clientId, String grantType, String detail) {
+        this.type = type;
+        this.principal = principal;
+        this.clientId = clientId;
+        this.grantType = grantType;
+        this.detail = detail;
+    }
+
+    public enum Type {
+        TOKEN_ISSUED,
+        CODE_ISSUED,
+        CODE_REDEEMED,
+        LOGIN_SUCCESS,
+        LOGIN_FAILURE,
+        CLIENT_AUTHENTICATION_FAILURE,
+        TOKEN_REJECTED
+    }
+}
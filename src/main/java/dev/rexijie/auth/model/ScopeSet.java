@@ -0,0 +1,80 @@
+package dev.rexijie.auth.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Compact set of scopes where each registered scope is a bit.
+ * Scopes the registry does not know are not kept, only flagged,
+ * so a set with unknown scopes is never a subset of another set.
+ *
+ * @author Rex Ijiekhuamen
+ * @see dev.rexijie.auth.cache.ScopeRegistry
+ */
+public final class ScopeSet implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final ScopeSet EMPTY = new ScopeSet(new long[0], false);
+
+    private final long[] words;
+    private final boolean hasUnknown;
+
+    public ScopeSet(long[] words, boolean hasUnknown) {
+        this.words = words;
+        this.hasUnknown = hasUnknown;
+    }
+
+    public boolean contains(int bit) {
+        int word = bit >>> 6;
+        return word < words.length && (words[word] & (1L << bit)) != 0;
+    }
+
+    /**
+     * @return true if every scope of {@code other} is in this set
+     */
+    public boolean containsAll(ScopeSet other) {
+        if (other.hasUnknown) return false;
+        for (int i = 0; i < other.words.length; i++) {
+            long word = i < words.length ? words[i] : 0L;
+            if ((other.words[i] & ~word) != 0) return false;
+        }
+        return true;
+    }
+
+    public boolean hasUnknown() {
+        return hasUnknown;
+    }
+
+    public boolean isEmpty() {
+        if (hasUnknown) return false;
+        for (long word : words)
+            if (word != 0) return false;
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScopeSet)) return false;
+        ScopeSet other = (ScopeSet) o;
+        if (hasUnknown || other.hasUnknown) return false; // unknown scopes can not be compared
+        int length = Math.max(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            long word = i < words.length ? words[i] : 0L;
+            long otherWord = i < other.words.length ? other.words[i] : 0L;
+            if (word != otherWord) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int end = words.length;
+        while (end > 0 && words[end - 1] == 0) end--;
+        return Arrays.hashCode(Arrays.copyOf(words, end));
+    }
+
+    @Override
+    public String toString() {
+        return "ScopeSet{" + Arrays.toString(words) + (hasUnknown ? ", unknown" : "") + '}';
+    }
+}
@@ -0,0 +1,25 @@
+package dev.rexijie.auth.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fingerprint of the seed record last written for a natural key, e.g. {@code client:management-app}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document
+public class SeedFingerprint {
+    @Id
+    private String key;
+    private String fingerprint;
+    private LocalDateTime appliedAt;
+}
@@ -0,0 +1,27 @@
+package dev.rexijie.auth.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A nonce used by a client, keyed by the client id and nonce.
+ * Expired nonces are removed by mongo through the ttl index on {@code expiresAt}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "nonces")
+public class UsedNonce {
+    @Id
+    private String key;
+    @Indexed(expireAfterSeconds = 0)
+    private Date expiresAt;
+}
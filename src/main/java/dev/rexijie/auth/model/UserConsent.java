@@ -0,0 +1,37 @@
+package dev.rexijie.auth.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.security.oauth2.provider.approval.Approval.ApprovalStatus;
+
+import java.util.Date;
+
+/**
+ * A scope a user approved or denied for a client.
+ * Expired consents are removed by mongo through the ttl index on {@code expiresAt}
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "consents")
+@CompoundIndex(name = "user_client_idx", def = "{'userId': 1, 'clientId': 1}")
+public class UserConsent extends Entity {
+    private String userId;
+    private String clientId;
+    private String scope;
+    private ApprovalStatus status;
+    @Indexed(expireAfterSeconds = 0)
+    private Date expiresAt;
+
+    public static String idFor(String userId, String clientId, String scope) {
+        return userId + ":" + clientId + ":" + scope;
+    }
+}
@@ -1,12 +1,17 @@
 package dev.rexijie.auth.model.client;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import dev.rexijie.auth.model.authority.Authority;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.security.oauth2.provider.ClientRegistrationException;
 import org.springframework.security.oauth2.provider.client.BaseClientDetails;
@@ -16,6 +21,7 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 // TODO - Use some client object fields in token generation
 @Getter
@@ -23,8 +29,16 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document
+// the filters of ClientRepositoryImpl.streamClients, each followed by the _id the listing is paged by
+@CompoundIndexes({
+        @CompoundIndex(name = "client_type_idx", def = "{'clientType': 1, '_id': 1}"),
+        @CompoundIndex(name = "client_name_idx", def = "{'clientName': 1, '_id': 1}"),
+        @CompoundIndex(name = "grant_type_idx", def = "{'authorizedGrantTypes': 1, '_id': 1}")
+})
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Client extends BaseClientDetails {
+    private static final Pattern PUBLIC_REDIRECT_URI = Pattern.compile("^(https)://(\\w)*(.\\w*)+(/(\\w)*)*$");
+
     @Id
     private String id;
     private String clientName;
@@ -40,10 +54,18 @@ public class Client extends BaseClientDetails {
     private String tokenEndpointAuthMethod;
     private int defaultMaxAge; // default value for max_age claim
     private boolean requireAuthTime; // is auth time claim required?
+    // hand out cached client_credentials tokens while they are still fresh, null in an update leaves it unchanged
+    private Boolean reuseAccessTokens;
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // compiled from the registered redirect uris on first use
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient RedirectUriPolicy redirectUriPolicy;
+
     public Client(String clientName, ClientTypes clientType,
                   ClientProfiles clientProfile) {
         this.id = UUID.randomUUID().toString();
@@ -61,6 +83,10 @@ public class Client extends BaseClientDetails {
         this.id = id;
     }
 
+    public boolean isReuseAccessTokens() {
+        return Boolean.TRUE.equals(reuseAccessTokens);
+    }
+
     public void addAuthority(Authority authority) {
         if (this.getAuthorities().contains(authority)) return;
         this.getAuthorities().add(authority);
@@ -72,20 +98,49 @@ public class Client extends BaseClientDetails {
             throw new IllegalStateException("can not add redirect uri before specifying client type");
         if (isPublicClient()) {
             // public clients must be served via https
-            if (!uri.matches("^(https)://(\\w)*(.\\w*)+(/(\\w)*)*$"))
+            if (!PUBLIC_REDIRECT_URI.matcher(uri).matches())
                 throw new ClientRegistrationException("Invalid redirect Uri for public client. public clients must use the https scheme");
         }
+        try {
+            RedirectUriPolicy.validate(uri);
+        } catch (IllegalArgumentException e) {
+            throw new ClientRegistrationException("Invalid redirect Uri pattern: " + e.getMessage());
+        }
         this.getRegisteredRedirectUri().add(uri);
+        this.redirectUriPolicy = null;
     }
 
     @Override
     public void setRegisteredRedirectUri(Set<String> registeredRedirectUris) {
         super.setRegisteredRedirectUri(new HashSet<>());
+        this.redirectUriPolicy = null;
         for (String uri : registeredRedirectUris) {
             addRedirectUri(uri);
         }
     }
 
+    /**
+     * sets the redirect uris of a stored client, they were validated when they were registered
+     */
+    public void restoreRegisteredRedirectUris(Set<String> registeredRedirectUris) {
+        super.setRegisteredRedirectUri(registeredRedirectUris);
+        this.redirectUriPolicy = null;
+    }
+
+    /**
+     * @return the registered redirect uris compiled for matching
+     */
+    @JsonIgnore
+    public RedirectUriPolicy getRedirectUriPolicy() {
+        RedirectUriPolicy policy = redirectUriPolicy;
+        if (policy == null) {
+            Set<String> registeredUris = getRegisteredRedirectUri();
+            policy = new RedirectUriPolicy(registeredUris == null ? Set.of() : registeredUris);
+            redirectUriPolicy = policy;
+        }
+        return policy;
+    }
+
     public boolean isPublicClient() {
         return getClientType().equals(ClientTypes.PUBLIC.getName());
     }
@@ -0,0 +1,171 @@
+package dev.rexijie.auth.model.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The registered redirect uris of a client compiled for matching.
+ * <ul>
+ *     <li>plain uris are matched exactly, ignoring the case of the scheme and host.
+ *     A registered query must also be present on the requested uri</li>
+ *     <li>uris ending in {@code *} allow any uri that starts with the rest of it,
+ *     the prefix must include at least the path separator after the host</li>
+ * </ul>
+ * Regular expressions are not accepted, {@code regex:} uris registered before they were removed never match.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class RedirectUriPolicy {
+    private static final String REGEX_PREFIX = "regex:";
+    private static final char WILDCARD = '*';
+
+    private final Map<String, List<String>> exactUris = new HashMap<>(); // uri without query -> registered queries
+    private final PrefixNode prefixes = new PrefixNode();
+    private final String singleUri;
+
+    /**
+     * @param registeredUris the uris registered by the client. invalid patterns are skipped,
+     *                       they are rejected on registration by {@link #validate(String)}
+     */
+    public RedirectUriPolicy(Collection<String> registeredUris) {
+        for (String uri : registeredUris) {
+            if (uri.startsWith(REGEX_PREFIX)) continue;
+            if (isWildcard(uri)) {
+                String prefix = normalize(uri.substring(0, uri.length() - 1));
+                if (hasPathAfterAuthority(prefix)) prefixes.insert(prefix);
+            } else {
+                int query = uri.indexOf('?');
+                String base = normalize(query == -1 ? uri : uri.substring(0, query));
+                exactUris.computeIfAbsent(base, key -> new ArrayList<>(1))
+                        .add(query == -1 ? null : uri.substring(query + 1));
+            }
+        }
+        // a single plain uri is used when the request does not name one
+        singleUri = registeredUris.size() == 1 && exactUris.size() == 1 ? registeredUris.iterator().next() : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the uri is a regular expression or a prefix without a path
+     */
+    public static void validate(String uri) {
+        if (uri.startsWith(REGEX_PREFIX))
+            throw new IllegalArgumentException("regular expression redirect uris are not supported: " + uri);
+        if (isWildcard(uri) && !hasPathAfterAuthority(uri.substring(0, uri.length() - 1)))
+            throw new IllegalArgumentException("redirect uri pattern must include a path: " + uri);
+    }
+
+    public boolean isEmpty() {
+        return exactUris.isEmpty() && prefixes.isEmpty();
+    }
+
+    /**
+     * @return the only registered uri, or null if there are several or it is a pattern
+     */
+    public String getSingleUri() {
+        return singleUri;
+    }
+
+    public boolean matches(String requestedUri) {
+        if (requestedUri.indexOf('#') != -1) return false; // fragments are not allowed in redirect uris
+
+        int query = requestedUri.indexOf('?');
+        int baseEnd = query == -1 ? requestedUri.length() : query;
+        String base = normalize(query == -1 ? requestedUri : requestedUri.substring(0, query));
+
+        List<String> registeredQueries = exactUris.get(base);
+        if (registeredQueries != null) {
+            String requestedQuery = query == -1 ? null : requestedUri.substring(query + 1);
+            for (String registeredQuery : registeredQueries)
+                if (queryMatches(registeredQuery, requestedQuery)) return true;
+        }
+
+        return !prefixes.isEmpty() && !hasDotSegments(requestedUri, baseEnd) && prefixes.matchesPrefixOf(base);
+    }
+
+    // every parameter of the registered query must be present on the requested one
+    private static boolean queryMatches(String registeredQuery, String requestedQuery) {
+        if (registeredQuery == null || registeredQuery.isEmpty()) return true;
+        if (requestedQuery == null) return false;
+        String requested = "&" + requestedQuery + "&";
+        for (String parameter : registeredQuery.split("&"))
+            if (!parameter.isEmpty() && !requested.contains("&" + parameter + "&")) return false;
+        return true;
+    }
+
+    // lower cases the scheme and host, most uris already are so this rarely allocates
+    private static String normalize(String uri) {
+        int schemeEnd = uri.indexOf("://");
+        if (schemeEnd == -1) return uri;
+        int authorityEnd = uri.indexOf('/', schemeEnd + 3);
+        if (authorityEnd == -1) authorityEnd = uri.length();
+
+        for (int i = 0; i < authorityEnd; i++) {
+            if (Character.isUpperCase(uri.charAt(i)))
+                return uri.substring(0, authorityEnd).toLowerCase(Locale.ROOT) + uri.substring(authorityEnd);
+        }
+        return uri;
+    }
+
+    private static boolean isWildcard(String uri) {
+        return uri.length() > 0 && uri.charAt(uri.length() - 1) == WILDCARD;
+    }
+
+    private static boolean hasPathAfterAuthority(String uri) {
+        int schemeEnd = uri.indexOf("://");
+        return schemeEnd != -1 && uri.indexOf('/', schemeEnd + 3) != -1;
+    }
+
+    // rejects "/./", "/../", backslashes and their percent encoded forms so a prefix can not be escaped.
+    // browsers decode %2e to a dot before they resolve dot segments, encoded slashes are refused outright
+    private static boolean hasDotSegments(String uri, int end) {
+        for (int i = 0; i < end; i++) {
+            char c = uri.charAt(i);
+            if (c == '\\') return true;
+            if (c == '%' && i + 2 < end) {
+                char high = uri.charAt(i + 1);
+                char low = Character.toLowerCase(uri.charAt(i + 2));
+                if (high == '2' && (low == 'e' || low == 'f')) return true;
+                if (high == '5' && low == 'c') return true;
+            }
+            if (c == '.' && i > 0 && uri.charAt(i - 1) == '/') {
+                int next = i + 1;
+                if (next < end && uri.charAt(next) == '.') next++;
+                if (next == end || uri.charAt(next) == '/') return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Character trie of the allowed prefixes
+     */
+    private static class PrefixNode {
+        private final Map<Character, PrefixNode> children = new HashMap<>(2);
+        private boolean terminal;
+
+        private void insert(String prefix) {
+            PrefixNode node = this;
+            for (int i = 0; i < prefix.length(); i++)
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new PrefixNode());
+            node.terminal = true;
+        }
+
+        private boolean isEmpty() {
+            return children.isEmpty() && !terminal;
+        }
+
+        private boolean matchesPrefixOf(String uri) {
+            PrefixNode node = this;
+            for (int i = 0; i < uri.length(); i++) {
+                if (node.terminal) return true;
+                node = node.children.get(uri.charAt(i));
+                if (node == null) return false;
+            }
+            return node.terminal;
+        }
+    }
+}
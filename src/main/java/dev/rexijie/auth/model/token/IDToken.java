@@ -1,8 +1,7 @@
 package dev.rexijie.auth.model.token;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import dev.rexijie.auth.util.ObjectUtils;
-import dev.rexijie.auth.util.TokenUtils;
+import dev.rexijie.auth.util.ClaimsJsonWriter;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -66,8 +65,17 @@ public class IDToken implements OAuth2AccessToken {
         return null;
     }
 
-    public synchronized Map<String, Object> getClaims() {
-        Map<String, Object> cleanedMapCopy = ObjectUtils.cleanMap(getToken().getClaims());
-        return TokenUtils.toOpenIdCompliantMap(cleanedMapCopy);
+    /**
+     * @return the OpenID compliant claims of this token
+     */
+    public Map<String, Object> getClaims() {
+        return ClaimsJsonWriter.normalize(getToken().getClaims());
+    }
+
+    /**
+     * @return the OpenID compliant claims of this token as json
+     */
+    public String getClaimsJson() {
+        return ClaimsJsonWriter.write(getToken().getClaims());
     }
 }
@@ -12,4 +12,9 @@ public interface KeyPairHolder {
     <K1 extends PublicKey> K1 getPublicKey();
 
     <K2 extends PrivateKey> K2 getPrivateKey();
+
+    /**
+     * @return the JWS algorithm tokens are signed with, e.g. RS256
+     */
+    String getAlgorithm();
 }
@@ -5,6 +5,8 @@ import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 
 public class RSAKeyPairHolder implements KeyPairHolder {
+    // tokens are signed with SHA256withRSA
+    private static final String ALGORITHM = "RS256";
 
     private final String id;
     private final KeyPair keyPair;
@@ -34,4 +36,9 @@ public class RSAKeyPairHolder implements KeyPairHolder {
     public RSAPrivateKey getPrivateKey() {
         return (RSAPrivateKey) keyPair.getPrivate();
     }
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
 }
@@ -0,0 +1,58 @@
+package dev.rexijie.auth.repository;
+
+/**
+ * Filters and keyset cursor for listing clients.
+ * Clients are listed in id order, {@link #getAfter()} is the id of the last client of the previous page.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class ClientFilter {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private String after;
+    private int limit = DEFAULT_LIMIT;
+    private String clientType;
+    private String grantType;
+    private String namePrefix;
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public String getClientType() {
+        return clientType;
+    }
+
+    public void setClientType(String clientType) {
+        this.clientType = clientType;
+    }
+
+    public String getGrantType() {
+        return grantType;
+    }
+
+    public void setGrantType(String grantType) {
+        this.grantType = grantType;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+}
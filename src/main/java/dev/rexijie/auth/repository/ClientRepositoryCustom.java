@@ -0,0 +1,13 @@
+package dev.rexijie.auth.repository;
+
+import dev.rexijie.auth.model.client.Client;
+import org.springframework.data.util.CloseableIterator;
+
+public interface ClientRepositoryCustom {
+    /**
+     * Streams one page of clients off a mongo cursor. Only the listed fields are read,
+     * secrets, scopes, redirect uris and additional information are left out.
+     * The iterator must be closed.
+     */
+    CloseableIterator<Client> streamClients(ClientFilter filter);
+}
@@ -0,0 +1,54 @@
+package dev.rexijie.auth.repository;
+
+import dev.rexijie.auth.model.client.Client;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.regex.Pattern;
+
+/**
+ * Keyset paginated client listing for {@link ClientRepository}
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class ClientRepositoryImpl implements ClientRepositoryCustom {
+    private static final int BATCH_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ClientRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public CloseableIterator<Client> streamClients(ClientFilter filter) {
+        var criteria = new Criteria();
+        if (filter.getAfter() != null)
+            criteria.and("_id").gt(filter.getAfter());
+        if (filter.getClientType() != null)
+            criteria.and("clientType").is(filter.getClientType());
+        if (filter.getGrantType() != null)
+            criteria.and("authorizedGrantTypes").is(filter.getGrantType());
+        if (filter.getNamePrefix() != null)
+            // anchored and case sensitive so it is a range on client_name_idx
+            criteria.and("clientName").regex("^" + Pattern.quote(filter.getNamePrefix()));
+
+        var query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(filter.getLimit())
+                .cursorBatchSize(Math.min(filter.getLimit(), BATCH_SIZE));
+        query.fields()
+                .include("_id")
+                .include("clientId")
+                .include("clientName")
+                .include("clientType")
+                .include("clientProfile")
+                .include("createdAt")
+                .include("updatedAt");
+
+        return mongoTemplate.stream(query, Client.class);
+    }
+}
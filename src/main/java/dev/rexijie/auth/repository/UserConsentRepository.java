@@ -0,0 +1,14 @@
+package dev.rexijie.auth.repository;
+
+import dev.rexijie.auth.model.UserConsent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface UserConsentRepository extends MongoRepository<UserConsent, String> {
+    List<UserConsent> findAllByUserId(String userId);
+
+    List<UserConsent> findAllByUserIdAndClientId(String userId, String clientId);
+
+    void deleteAllByUserIdAndClientId(String userId, String clientId);
+}
@@ -0,0 +1,212 @@
+package dev.rexijie.auth.repository.converter;
+
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.authority.Authority;
+import dev.rexijie.auth.model.authority.Role;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.model.token.AuthorizationToken;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Readers for the documents loaded on every token request, so they are not mapped by reflection.
+ * They read the documents written by the default mapping, fields missing from a document
+ * (e.g. because of a projection) keep the entity's defaults.
+ * Entities are still written by the default mapping, a custom writer would make spring data treat
+ * the entity as a simple type and repositories can not be created for it.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public final class EntityReadingConverters {
+    private static final String ID = "_id";
+    private static final String TYPE_KEY = "_class";
+
+    private EntityReadingConverters() {}
+
+    public static List<Converter<?, ?>> getConvertersToRegister() {
+        return List.of(UserReadingConverter.INSTANCE,
+                RoleReadingConverter.INSTANCE,
+                ClientReadingConverter.INSTANCE,
+                AuthorizationTokenReadingConverter.INSTANCE);
+    }
+
+    @ReadingConverter
+    public enum UserReadingConverter implements Converter<Document, User> {
+        INSTANCE;
+
+        @Override
+        public User convert(Document source) {
+            var user = new User();
+            user.setId(readId(source));
+            user.setCreatedAt(readDateTime(source, "createdAt"));
+            user.setUpdatedAt(readDateTime(source, "updatedAt"));
+            user.setUsername(source.getString("username"));
+            user.setPassword(source.getString("password"));
+            var role = source.get("role", Document.class);
+            if (role != null) user.setRole(RoleReadingConverter.INSTANCE.convert(role));
+            user.setEnabled(readBoolean(source, "isEnabled"));
+            user.setAccountNonExpired(readBoolean(source, "accountNonExpired"));
+            user.setAccountNonLocked(readBoolean(source, "accountNonLocked"));
+            user.setCredentialsNonExpired(readBoolean(source, "credentialsNonExpired"));
+            return user;
+        }
+    }
+
+    @ReadingConverter
+    public enum RoleReadingConverter implements Converter<Document, Role> {
+        INSTANCE;
+
+        @Override
+        public Role convert(Document source) {
+            var role = new Role();
+            role.setId(readId(source));
+            role.setName(source.getString("name"));
+            role.setDescription(source.getString("description"));
+            List<?> authorities = source.get("authorities", List.class);
+            if (authorities != null) {
+                Set<Authority> roleAuthorities = new LinkedHashSet<>();
+                for (Object authority : authorities)
+                    roleAuthorities.add(readAuthority((Document) authority));
+                role.setAuthorities(roleAuthorities);
+            }
+            return role;
+        }
+    }
+
+    @ReadingConverter
+    public enum ClientReadingConverter implements Converter<Document, Client> {
+        INSTANCE;
+
+        @Override
+        public Client convert(Document source) {
+            var client = new Client();
+            client.setId(readId(source));
+            client.setClientName(source.getString("clientName"));
+            String clientType = source.getString("clientType");
+            if (clientType != null) client.setClientType(clientType);
+            String clientProfile = source.getString("clientProfile");
+            if (clientProfile != null) client.setClientProfile(clientProfile);
+            client.setLogoUri(source.getString("logoUri"));
+            client.setClientUri(source.getString("clientUri"));
+            client.setPolicyUri(source.getString("policyUri"));
+            client.setSelectorIdentifierUri(source.getString("selectorIdentifierUri"));
+            client.setSubjectType(source.getString("subjectType"));
+            client.setTokenEndpointAuthMethod(source.getString("tokenEndpointAuthMethod"));
+            client.setDefaultMaxAge(readInt(source, "defaultMaxAge"));
+            client.setRequireAuthTime(readBoolean(source, "requireAuthTime"));
+            client.setReuseAccessTokens(readBoolean(source, "reuseAccessTokens"));
+            client.setCreatedAt(readDateTime(source, "createdAt"));
+            client.setUpdatedAt(readDateTime(source, "updatedAt"));
+
+            client.setClientId(source.getString("clientId"));
+            client.setClientSecret(source.getString("clientSecret"));
+            Set<String> values;
+            if ((values = readStrings(source, "scope")) != null) client.setScope(values);
+            if ((values = readStrings(source, "resourceIds")) != null) client.setResourceIds(values);
+            if ((values = readStrings(source, "authorizedGrantTypes")) != null) client.setAuthorizedGrantTypes(values);
+            if ((values = readStrings(source, "autoApproveScopes")) != null) client.setAutoApproveScopes(values);
+            if ((values = readStrings(source, "registeredRedirectUris")) != null) client.restoreRegisteredRedirectUris(values);
+
+            List<?> authorities = source.get("authorities", List.class);
+            if (authorities != null) {
+                List<GrantedAuthority> clientAuthorities = new ArrayList<>(authorities.size());
+                for (Object authority : authorities)
+                    clientAuthorities.add(readGrantedAuthority((Document) authority));
+                client.setAuthorities(clientAuthorities);
+            }
+            client.setAccessTokenValiditySeconds(readInteger(source, "accessTokenValiditySeconds"));
+            client.setRefreshTokenValiditySeconds(readInteger(source, "refreshTokenValiditySeconds"));
+            var additionalInformation = source.get("additionalInformation", Document.class);
+            // nested values stay documents like they do with the default mapping
+            if (additionalInformation != null) client.setAdditionalInformation(additionalInformation);
+            return client;
+        }
+    }
+
+    @ReadingConverter
+    public enum AuthorizationTokenReadingConverter implements Converter<Document, AuthorizationToken> {
+        INSTANCE;
+
+        @Override
+        public AuthorizationToken convert(Document source) {
+            var token = new AuthorizationToken();
+            token.setId(readId(source));
+            token.setCreatedAt(readDateTime(source, "createdAt"));
+            token.setUpdatedAt(readDateTime(source, "updatedAt"));
+            Object authentication = source.get("authentication");
+            token.setAuthentication(authentication instanceof Binary
+                    ? ((Binary) authentication).getData() : (byte[]) authentication);
+            token.setUsername(source.getString("username"));
+            token.setCode(source.getString("code"));
+            token.setUsed(readBoolean(source, "used"));
+            token.setExpiresAt(readDateTime(source, "expiresAt"));
+            return token;
+        }
+    }
+
+    private static Authority readAuthority(Document source) {
+        var authority = new Authority();
+        authority.setId(readId(source));
+        authority.setName(source.getString("name"));
+        authority.setDescription(source.getString("description"));
+        return authority;
+    }
+
+    // client authorities are declared as GrantedAuthority so the default mapping stored their type
+    private static GrantedAuthority readGrantedAuthority(Document source) {
+        if (SimpleGrantedAuthority.class.getName().equals(source.getString(TYPE_KEY)))
+            return new SimpleGrantedAuthority(source.getString("role"));
+        return readAuthority(source);
+    }
+
+    // string ids that are valid object ids are stored as object ids by the default mapping
+    private static String readId(Document source) {
+        Object id = source.get(ID);
+        if (id == null) return null;
+        return id instanceof ObjectId ? ((ObjectId) id).toHexString() : id.toString();
+    }
+
+    // the default mapping stores local date times as dates in the system time zone
+    private static LocalDateTime readDateTime(Document source, String key) {
+        Date date = source.getDate(key);
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private static boolean readBoolean(Document source, String key) {
+        Boolean value = source.getBoolean(key);
+        return value != null && value;
+    }
+
+    private static int readInt(Document source, String key) {
+        Integer value = readInteger(source, key);
+        return value == null ? 0 : value;
+    }
+
+    private static Integer readInteger(Document source, String key) {
+        Object value = source.get(key);
+        return value == null ? null : ((Number) value).intValue();
+    }
+
+    private static Set<String> readStrings(Document source, String key) {
+        Collection<?> values = source.get(key, List.class);
+        if (values == null) return null;
+        Set<String> strings = new LinkedHashSet<>(values.size() * 2);
+        for (Object value : values)
+            strings.add((String) value);
+        return strings;
+    }
+}
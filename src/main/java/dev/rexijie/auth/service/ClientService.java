@@ -1,10 +1,12 @@
 package dev.rexijie.auth.service;
 
 import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.repository.ClientFilter;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
 import org.springframework.security.oauth2.provider.NoSuchClientException;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ClientService extends ClientDetailsService {
     Client addClient(Client client);
@@ -12,4 +14,9 @@ public interface ClientService extends ClientDetailsService {
     Client updateClientSecret(String clientId, String secret);
     void removeClientDetails(String clientId) throws NoSuchClientException;
     List<Client> listClientDetails();
+
+    /**
+     * one page of clients without their secrets. the stream reads from an open cursor and must be closed
+     */
+    Stream<Client> streamClients(ClientFilter filter);
 }
@@ -0,0 +1,13 @@
+package dev.rexijie.auth.service;
+
+import dev.rexijie.auth.model.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * The read only part of {@link UserService} the token engine needs
+ *
+ * @author Rex Ijiekhuamen
+ */
+public interface UserLookup extends UserDetailsService {
+    User findUserByUsername(String username);
+}
@@ -1,11 +1,14 @@
 package dev.rexijie.auth.service.impl;
 
+import dev.rexijie.auth.cache.ClientTokenCache;
 import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.constants.Scopes;
 import dev.rexijie.auth.model.authority.Authority;
 import dev.rexijie.auth.model.authority.AuthorityEnum;
 import dev.rexijie.auth.model.client.Client;
 import dev.rexijie.auth.model.client.ClientProfiles;
 import dev.rexijie.auth.model.client.ClientTypes;
+import dev.rexijie.auth.repository.ClientFilter;
 import dev.rexijie.auth.repository.ClientRepository;
 import dev.rexijie.auth.service.ClientService;
 import dev.rexijie.auth.service.SecretGenerator;
@@ -13,6 +16,7 @@ import dev.rexijie.auth.util.ObjectUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.util.StreamUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.ClientDetails;
 import org.springframework.security.oauth2.provider.ClientRegistrationException;
@@ -21,22 +25,29 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static dev.rexijie.auth.util.TokenUtils.generateUUID;
 
 @Service
 @Slf4j
 public class ClientServiceImpl implements ClientService {
+    private static final List<String> DEFAULT_SCOPES = List.of(Scopes.READ_SCOPE, Scopes.WRITE_SCOPE,
+            Scopes.IDTokenScopes.PROFILE, Scopes.ID_SCOPE, Scopes.IDTokenScopes.EMAIL);
+
     private final ClientRepository clientRepository;
     private final PasswordEncoder encoder;
     private final SecretGenerator secretGenerator;
+    private final ClientTokenCache clientTokenCache;
 
     public ClientServiceImpl(ClientRepository clientRepository,
                              PasswordEncoder encoder,
-                             SecretGenerator secretGenerator) {
+                             SecretGenerator secretGenerator,
+                             ClientTokenCache clientTokenCache) {
         this.clientRepository = clientRepository;
         this.encoder = encoder;
         this.secretGenerator = secretGenerator;
+        this.clientTokenCache = clientTokenCache;
     }
 
     @Override
@@ -77,6 +88,7 @@ public class ClientServiceImpl implements ClientService {
     public Client updateClientSecret(String clientId, String secret) {
         var client = findByClientId(clientId);
         client.setClientSecret(encoder.encode(secret));
+        clientTokenCache.evictClient(clientId);
         return clientRepository.save(client);
     }
 
@@ -86,15 +98,18 @@ public class ClientServiceImpl implements ClientService {
         var client = findByClientId(clientId);
 
         assignNonEmptyFields(newClient, client);
+        clientTokenCache.evictClient(clientId);
 
         return clientRepository.save(newClient);
     }
 
     @Override
+    @CacheEvict(value = "registered-clients", key = "#root.args[0]")
     public void removeClientDetails(String clientId) throws NoSuchClientException {
         var client = findByClientId(clientId);
 
         clientRepository.deleteById(client.getId());
+        clientTokenCache.evictClient(clientId);
     }
 
     @Override
@@ -102,13 +117,18 @@ public class ClientServiceImpl implements ClientService {
         return clientRepository.findAll();
     }
 
+    @Override
+    public Stream<Client> streamClients(ClientFilter filter) {
+        return StreamUtils.createStreamFromIterator(clientRepository.streamClients(filter));
+    }
+
     private Client createDefaultClient() {
         var defaultClient = new Client(null, ClientTypes.CONFIDENTIAL, ClientProfiles.WEB);
         defaultClient.setId(generateUUID());
         defaultClient.setClientId(secretGenerator.generate(8));
         defaultClient.setAccessTokenValiditySeconds(10 * 60);
         defaultClient.setRefreshTokenValiditySeconds(15 * 60);
-        defaultClient.setScope(List.of("read", "write", "profile", "openid", "email"));
+        defaultClient.setScope(DEFAULT_SCOPES);
         defaultClient.setAuthorizedGrantTypes(List.of(GrantTypes.PASSWORD, GrantTypes.AUTHORIZATION_CODE, GrantTypes.REFRESH_TOKEN));
         defaultClient.setAuthorities(List.of(createClientAuthority()));
         defaultClient.setCreatedAt(LocalDateTime.now());
@@ -146,6 +166,7 @@ public class ClientServiceImpl implements ClientService {
         ObjectUtils.applyIfNonNull(from.getTokenEndpointAuthMethod(), to::setTokenEndpointAuthMethod);
         ObjectUtils.applyIfNonNull(from.getDefaultMaxAge(), to::setDefaultMaxAge);
         ObjectUtils.applyIfNonNull(from.isRequireAuthTime(), to::setRequireAuthTime);
+        ObjectUtils.applyIfNonNull(from.getReuseAccessTokens(), to::setReuseAccessTokens);
 
 
     }
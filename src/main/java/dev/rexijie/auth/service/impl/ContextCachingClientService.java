@@ -0,0 +1,75 @@
+package dev.rexijie.auth.service.impl;
+
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.repository.ClientFilter;
+import dev.rexijie.auth.service.ClientService;
+import dev.rexijie.auth.tokenservices.TokenIssuanceContext;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link ClientService} that resolves each client once per token issuance
+ * through the {@link TokenIssuanceContext} before falling back to {@link ClientServiceImpl}.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Service
+@Primary
+public class ContextCachingClientService implements ClientService {
+    private final ClientServiceImpl delegate;
+
+    public ContextCachingClientService(ClientServiceImpl delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ClientDetails loadClientByClientId(String clientId) throws ClientRegistrationException {
+        TokenIssuanceContext context = TokenIssuanceContext.current();
+        if (context == null) return delegate.loadClientByClientId(clientId);
+        return context.client(clientId, delegate::loadClientByClientId);
+    }
+
+    @Override
+    public Client addClient(Client client) {
+        return delegate.addClient(client);
+    }
+
+    @Override
+    public Client updateClient(String clientId, Client client) {
+        evict(clientId);
+        return delegate.updateClient(clientId, client);
+    }
+
+    @Override
+    public Client updateClientSecret(String clientId, String secret) {
+        evict(clientId);
+        return delegate.updateClientSecret(clientId, secret);
+    }
+
+    @Override
+    public void removeClientDetails(String clientId) throws NoSuchClientException {
+        evict(clientId);
+        delegate.removeClientDetails(clientId);
+    }
+
+    @Override
+    public List<Client> listClientDetails() {
+        return delegate.listClientDetails();
+    }
+
+    @Override
+    public Stream<Client> streamClients(ClientFilter filter) {
+        return delegate.streamClients(filter);
+    }
+
+    private void evict(String clientId) {
+        TokenIssuanceContext context = TokenIssuanceContext.current();
+        if (context != null) context.evictClient(clientId);
+    }
+}
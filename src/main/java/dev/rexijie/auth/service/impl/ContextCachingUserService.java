@@ -0,0 +1,64 @@
+package dev.rexijie.auth.service.impl;
+
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.UserInfo;
+import dev.rexijie.auth.service.UserService;
+import dev.rexijie.auth.tokenservices.TokenIssuanceContext;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link UserService} that resolves each user once per token issuance
+ * through the {@link TokenIssuanceContext} before falling back to {@link UserServiceImpl}.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Service
+@Primary
+public class ContextCachingUserService implements UserService {
+    private final UserServiceImpl delegate;
+
+    public ContextCachingUserService(UserServiceImpl delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        TokenIssuanceContext context = TokenIssuanceContext.current();
+        if (context == null) return delegate.loadUserByUsername(username);
+        return context.user(username, delegate::loadUserByUsername);
+    }
+
+    @Override
+    public User findUserByUsername(String username) {
+        return (User) loadUserByUsername(username);
+    }
+
+    @Override
+    public UserInfo findProfileByUserId(String id) {
+        return delegate.findProfileByUserId(id);
+    }
+
+    @Override
+    public UserInfo findProfileByUsername(String username) {
+        return findUserByUsername(username).getUserInfo();
+    }
+
+    @Override
+    public User addUser(User user) {
+        return delegate.addUser(user);
+    }
+
+    @Override
+    public User getUserById(String id) {
+        return delegate.getUserById(id);
+    }
+
+    @Override
+    public User updateUserInfo(User user) {
+        TokenIssuanceContext context = TokenIssuanceContext.current();
+        if (context != null) context.evictUser(user.getUsername());
+        return delegate.updateUserInfo(user);
+    }
+}
@@ -0,0 +1,327 @@
+package dev.rexijie.auth.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.rexijie.auth.config.UserImportProperties;
+import dev.rexijie.auth.controller.registration.dto.UserImportDto;
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.UserInfo;
+import dev.rexijie.auth.model.authority.Role;
+import dev.rexijie.auth.model.authority.RoleEnum;
+import dev.rexijie.auth.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static dev.rexijie.auth.util.TokenUtils.generateUUID;
+
+/**
+ * Imports users from newline delimited json, one {@link UserImportDto} per line.
+ * <p>
+ * Lines are read and validated in batches. Passwords of a batch are hashed on a bounded pool while the
+ * previous batch is inserted, so at most two batches are in memory whatever the size of the input.
+ * Batches are inserted with ordered bulk writes. A record that fails is reported with its line number
+ * and the rest of the batch is still inserted.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Service
+public class UserImportService {
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final MongoTemplate mongoTemplate;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectReader recordReader;
+    private final int batchSize;
+    private final int progressInterval;
+    private final ExecutorService hashPool;
+
+    public UserImportService(MongoTemplate mongoTemplate,
+                             RoleRepository roleRepository,
+                             PasswordEncoder passwordEncoder,
+                             ObjectMapper objectMapper,
+                             UserImportProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.recordReader = objectMapper.readerFor(UserImportDto.class);
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.progressInterval = Math.max(1, properties.getProgressInterval());
+
+        int threads = properties.getHashThreads() > 0
+                ? properties.getHashThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    /**
+     * Imports every line of the input, the input is not closed
+     */
+    public ImportProgress importUsers(InputStream input, ImportListener listener) throws IOException {
+        var progress = new ImportProgress(listener, progressInterval);
+        var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Role> roles = new HashMap<>();
+
+        List<PendingUser> records = new ArrayList<>(batchSize);
+        Batch hashing = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            try {
+                records.add(new PendingUser(lineNumber, recordReader.readValue(line)));
+            } catch (JsonProcessingException e) {
+                progress.failed(lineNumber, null, "malformed record: " + e.getOriginalMessage());
+                continue;
+            }
+
+            if (records.size() == batchSize) {
+                Batch next = prepare(records, hashing, roles, progress);
+                if (hashing != null) insert(hashing, progress);
+                hashing = next;
+                records = new ArrayList<>(batchSize);
+            }
+        }
+
+        if (!records.isEmpty()) {
+            Batch next = prepare(records, hashing, roles, progress);
+            if (hashing != null) insert(hashing, progress);
+            hashing = next;
+        }
+        if (hashing != null) insert(hashing, progress);
+        return progress;
+    }
+
+    /**
+     * Drops invalid and duplicate records and starts hashing the rest
+     *
+     * @param pending the batch that is hashed but not inserted yet, its users are not in the database
+     */
+    private Batch prepare(List<PendingUser> records, Batch pending, Map<String, Role> roles, ImportProgress progress) {
+        List<String> usernames = new ArrayList<>(records.size());
+        for (PendingUser record : records)
+            if (record.username != null) usernames.add(record.username);
+        Set<String> existing = existingUsernames(usernames);
+
+        var batch = new Batch(records.size());
+        for (PendingUser record : records) {
+            UserImportDto dto = record.dto;
+            if (record.username == null || record.username.isBlank()) {
+                progress.failed(record.line, null, "a username is required");
+                continue;
+            }
+            if (existing.contains(record.username) || batch.usernames.contains(record.username)
+                    || (pending != null && pending.usernames.contains(record.username))) {
+                progress.failed(record.line, record.username, "a user with the username exists");
+                continue;
+            }
+            if (dto.getPasswordHash() != null && !BCRYPT_HASH.matcher(dto.getPasswordHash()).matches()) {
+                progress.failed(record.line, record.username, "passwordHash is not a bcrypt hash");
+                continue;
+            }
+            if (dto.getPasswordHash() == null && (dto.getPassword() == null || dto.getPassword().isEmpty())) {
+                progress.failed(record.line, record.username, "a password or passwordHash is required");
+                continue;
+            }
+            String roleName = dto.getRole() == null ? RoleEnum.USER.getName() : dto.getRole();
+            Role role = roles.computeIfAbsent(roleName, roleRepository::findByName);
+            if (role == null) {
+                progress.failed(record.line, record.username, "unknown role " + roleName);
+                continue;
+            }
+
+            record.user = CompletableFuture.supplyAsync(() -> toUser(record, role), hashPool);
+            batch.add(record);
+        }
+        return batch;
+    }
+
+    private void insert(Batch batch, ImportProgress progress) {
+        List<PendingUser> hashed = new ArrayList<>(batch.records.size());
+        List<User> users = new ArrayList<>(batch.records.size());
+        for (PendingUser record : batch.records) {
+            try {
+                users.add(record.user.join());
+                hashed.add(record);
+            } catch (CompletionException e) {
+                progress.failed(record.line, record.username, e.getCause().getMessage());
+            }
+        }
+
+        // an ordered write stops at the first failure, the records after it are written again
+        int start = 0;
+        while (start < users.size()) {
+            List<User> remaining = users.subList(start, users.size());
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, User.class).insert(remaining).execute();
+                progress.imported(remaining.size());
+                break;
+            } catch (BulkOperationException e) {
+                var error = e.getErrors().get(0);
+                PendingUser failed = hashed.get(start + error.getIndex());
+                progress.imported(error.getIndex());
+                progress.failed(failed.line, failed.username, error.getMessage());
+                start += error.getIndex() + 1;
+            }
+        }
+    }
+
+    private Set<String> existingUsernames(List<String> usernames) {
+        if (usernames.isEmpty()) return Set.of();
+        var query = Query.query(Criteria.where("username").in(usernames));
+        query.fields().include("username");
+
+        Set<String> existing = new HashSet<>();
+        for (User user : mongoTemplate.find(query, User.class))
+            existing.add(user.getUsername());
+        return existing;
+    }
+
+    private User toUser(PendingUser record, Role role) {
+        UserImportDto dto = record.dto;
+        String password = dto.getPasswordHash() != null ? dto.getPasswordHash() : passwordEncoder.encode(dto.getPassword());
+
+        var user = new User(record.username, password, role);
+        user.setId(generateUUID());
+        user.setEnabled(dto.getEnabled() == null || dto.getEnabled());
+        user.setAccountNonExpired(true);
+        user.setAccountNonLocked(true);
+        user.setCredentialsNonExpired(true);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUserInfo(UserInfo.builder()
+                .username(record.username)
+                .firstName(dto.getFirstName())
+                .lastName(dto.getLastName())
+                .email(dto.getEmail())
+                .phoneNumber(dto.getPhone())
+                .dateOfBirth(dto.getDateOfBirth())
+                .build());
+        return user;
+    }
+
+    /**
+     * Receives the outcome of an import while it runs, on the importing thread
+     */
+    public interface ImportListener {
+        /**
+         * @param username null if the record could not be read
+         */
+        void onError(long line, String username, String message);
+
+        void onProgress(ImportProgress progress);
+    }
+
+    public static class ImportProgress {
+        private final ImportListener listener;
+        private final int reportInterval;
+        private final long startedAt = System.currentTimeMillis();
+        private long imported;
+        private long failed;
+        private long lastReported;
+
+        private ImportProgress(ImportListener listener, int reportInterval) {
+            this.listener = listener;
+            this.reportInterval = reportInterval;
+        }
+
+        public long getProcessed() {
+            return imported + failed;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getElapsedMillis() {
+            return System.currentTimeMillis() - startedAt;
+        }
+
+        private void imported(long count) {
+            imported += count;
+            report();
+        }
+
+        private void failed(long line, String username, String message) {
+            failed++;
+            listener.onError(line, username, message);
+            report();
+        }
+
+        private void report() {
+            if (getProcessed() - lastReported < reportInterval) return;
+            lastReported = getProcessed();
+            listener.onProgress(this);
+        }
+    }
+
+    private static class Batch {
+        private final List<PendingUser> records;
+        private final Set<String> usernames;
+
+        private Batch(int size) {
+            this.records = new ArrayList<>(size);
+            this.usernames = new HashSet<>((int) (size / 0.75f) + 1);
+        }
+
+        private void add(PendingUser record) {
+            records.add(record);
+            usernames.add(record.username);
+        }
+    }
+
+    private static class PendingUser {
+        private final long line;
+        private final UserImportDto dto;
+        private final String username;
+        private CompletableFuture<User> user;
+
+        private PendingUser(long line, UserImportDto dto) {
+            this.line = line;
+            this.dto = dto;
+            // same fallback as UserMapper, the email is the username when none is given
+            this.username = dto.getUsername() != null ? dto.getUsername() : dto.getEmail();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dev.rexijie.auth.service.impl;
 
+import dev.rexijie.auth.cache.UserInfoCache;
 import dev.rexijie.auth.errors.UserExistsException;
 import dev.rexijie.auth.model.User;
 import dev.rexijie.auth.model.UserInfo;
@@ -22,11 +23,14 @@ import java.util.UUID;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder encoder;
+    private final UserInfoCache userInfoCache;
 
     public UserServiceImpl(UserRepository userRepository,
-                           PasswordEncoder encoder) {
+                           PasswordEncoder encoder,
+                           UserInfoCache userInfoCache) {
         this.userRepository = userRepository;
         this.encoder = encoder;
+        this.userInfoCache = userInfoCache;
     }
 
     @Override
@@ -110,7 +114,9 @@ public class UserServiceImpl implements UserService {
 
     protected User update(User user) {
         user.setUpdatedAt(LocalDateTime.now());
-        return userRepository.save(user);
+        User updated = userRepository.save(user);
+        userInfoCache.evict(user.getUsername());
+        return updated;
     }
 
     protected User save(User user) {
@@ -0,0 +1,107 @@
+package dev.rexijie.auth.throttle;
+
+import dev.rexijie.auth.config.ThrottlingProperties;
+import dev.rexijie.auth.errors.TemporarilyUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits password attempts per client address and per username, for the login form and the password grant.
+ * It is checked before the password is hashed, so refused attempts cost no bcrypt work.
+ * Every attempt takes a token from its address, but only failed attempts are charged to the username,
+ * so a user who keeps signing in successfully is never locked out by it.
+ * <p>
+ * The address is the servlet remote address. Behind a load balancer that is the proxy, unless
+ * {@code server.forward-headers-strategy} is set and the proxy is trusted to set {@code X-Forwarded-For};
+ * a client reaching the server directly can then choose its own address, so it must only be reachable through the proxy.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+    /**
+     * request attribute holding the username a login or password grant request is made for,
+     * set by {@link dev.rexijie.auth.filters.LoginThrottlingFilter}
+     */
+    public static final String ATTEMPTED_USERNAME = LoginThrottle.class.getName() + ".USERNAME";
+
+    private final boolean enabled;
+    private final TokenBucketTable addresses;
+    private final TokenBucketTable usernames;
+    private final Counter addressRejections;
+    private final Counter usernameRejections;
+
+    public LoginThrottle(ThrottlingProperties properties,
+                         MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.addresses = new TokenBucketTable(properties.getAddressCapacity(), properties.getAddressRefillPerMinute(),
+                properties.getMaxKeys(), properties.getStripes());
+        this.usernames = new TokenBucketTable(properties.getUsernameCapacity(), properties.getUsernameRefillPerMinute(),
+                properties.getMaxKeys(), properties.getStripes());
+        this.addressRejections = counter(meterRegistry, "address");
+        this.usernameRejections = counter(meterRegistry, "username");
+        meterRegistry.gauge("oauth2.throttle.keys", addresses, table -> table.size() + usernames.size());
+    }
+
+    /**
+     * Takes an attempt from the address and checks that the username has attempts left.
+     * The username is charged later by {@link #recordFailure(String)}.
+     *
+     * @param username may be null when the request does not name one
+     * @throws TemporarilyUnavailableException if either is throttled
+     */
+    public void checkAttempt(String username, String remoteAddress) {
+        if (!enabled) return;
+
+        long wait = remoteAddress == null ? 0 : addresses.tryAcquire(remoteAddress);
+        if (wait > 0) {
+            addressRejections.increment();
+            throw throttled(wait);
+        }
+
+        wait = username == null || username.isEmpty() ? 0 : usernames.waitTime(username, System.nanoTime());
+        if (wait > 0) {
+            usernameRejections.increment();
+            log.debug("throttled attempts for user {}", username);
+            throw throttled(wait);
+        }
+    }
+
+    /**
+     * Charges a failed attempt to the username.
+     */
+    public void recordFailure(String username) {
+        if (!enabled || username == null || username.isEmpty()) return;
+        usernames.tryAcquire(username);
+    }
+
+    @EventListener
+    public void onFailure(AbstractAuthenticationFailureEvent event) {
+        // client authentication fails with the client id, only charge the user the request was throttled for
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return;
+        Object username = attributes.getAttribute(ATTEMPTED_USERNAME, RequestAttributes.SCOPE_REQUEST);
+        if (username != null && username.equals(event.getAuthentication().getName()))
+            recordFailure((String) username);
+    }
+
+    private TemporarilyUnavailableException throttled(long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new TemporarilyUnavailableException("Too many attempts, try again later", seconds);
+    }
+
+    private static Counter counter(MeterRegistry registry, String key) {
+        return Counter.builder("oauth2.throttle.rejected")
+                .tag("key", key)
+                .register(registry);
+    }
+}
@@ -0,0 +1,112 @@
+package dev.rexijie.auth.throttle;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets by key, split over stripes that each hold a bounded number of keys.
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding the time at which it is full again.
+ * Taking a token moves that time one refill interval into the future, and is refused when it would
+ * move further ahead than the capacity allows. Acquiring is one compare and set, no bucket is ever locked.
+ * <p>
+ * A bucket whose full time has passed holds no state worth keeping. When a stripe reaches its bound
+ * such idle keys are evicted. If every key is still active the stripe drops some anyway, which can
+ * only make a bucket forget attempts and never refuse more than it should.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class TokenBucketTable {
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final int maxKeysPerStripe;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketTable(int capacity, double refillPerMinute, int maxKeys, int stripeCount) {
+        if (capacity < 1 || refillPerMinute <= 0)
+            throw new IllegalArgumentException("a bucket needs a positive capacity and refill rate");
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ConcurrentHashMap[size];
+        for (int i = 0; i < size; i++)
+            stripes[i] = new ConcurrentHashMap<>();
+        this.nanosPerToken = (long) (TimeUnit.MINUTES.toNanos(1) / refillPerMinute);
+        this.capacityNanos = nanosPerToken * capacity;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / size);
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    /**
+     * @param now current {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(String key, long now) {
+        AtomicLong bucket = bucketOf(key, now);
+        while (true) {
+            long fullAt = bucket.get();
+            long next = (fullAt - now > 0 ? fullAt : now) + nanosPerToken;
+            long ahead = next - now;
+            if (ahead > capacityNanos) return ahead - capacityNanos;
+            if (bucket.compareAndSet(fullAt, next)) return 0;
+        }
+    }
+
+    /**
+     * Looks at a bucket without taking a token or remembering the key.
+     *
+     * @param now current {@link System#nanoTime()}
+     * @return 0 if a token is available, otherwise the nanoseconds until one is
+     */
+    public long waitTime(String key, long now) {
+        AtomicLong bucket = stripeOf(key).get(key);
+        if (bucket == null) return 0;
+        long fullAt = bucket.get();
+        long ahead = (fullAt - now > 0 ? fullAt - now : 0) + nanosPerToken;
+        return ahead > capacityNanos ? ahead - capacityNanos : 0;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes)
+            size += stripe.size();
+        return size;
+    }
+
+    private AtomicLong bucketOf(String key, long now) {
+        ConcurrentHashMap<String, AtomicLong> stripe = stripeOf(key);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) return bucket;
+
+        if (stripe.size() >= maxKeysPerStripe) evict(stripe, now);
+        bucket = new AtomicLong(now);
+        AtomicLong existing = stripe.putIfAbsent(key, bucket);
+        return existing == null ? bucket : existing;
+    }
+
+    private void evict(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+        for (Map.Entry<String, AtomicLong> entry : stripe.entrySet()) {
+            if (entry.getValue().get() - now <= 0)
+                stripe.remove(entry.getKey(), entry.getValue());
+        }
+
+        Iterator<AtomicLong> overflow = stripe.values().iterator();
+        while (stripe.size() >= maxKeysPerStripe && overflow.hasNext()) {
+            overflow.next();
+            overflow.remove();
+        }
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
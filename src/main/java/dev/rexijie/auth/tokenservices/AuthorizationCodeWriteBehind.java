@@ -0,0 +1,206 @@
+package dev.rexijie.auth.tokenservices;
+
+import dev.rexijie.auth.model.token.AuthorizationToken;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.oauth2.common.util.SerializationUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static dev.rexijie.auth.util.TokenUtils.generateUUID;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Copies in memory authorization codes to mongo in the background so they can be restored after a restart.
+ * Codes are written when issued and deleted when they expire. When the buffer is full these changes are
+ * dropped, a code that was not written is only lost on a crash and a code that was not deleted expires.
+ * <p>
+ * Redemptions are never buffered. {@link #redeemed} marks the code as used before the redemption is answered,
+ * with a marker of its own if the issue is still buffered, and codes with a used marker are never restored,
+ * so a restart can not make a code redeemable twice.
+ * <p>
+ * The collection is shared with the mongo code store. Every document written here carries a {@value #OWNER}
+ * field and only those are ever read or deleted, so other nodes' codes are left alone.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+class AuthorizationCodeWriteBehind {
+    static final String OWNER = "writeBehind";
+
+    private final MongoTemplate mongoTemplate;
+    private final BlockingQueue<Change> changes;
+    private final int batchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    AuthorizationCodeWriteBehind(MongoTemplate mongoTemplate, int bufferSize, int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.changes = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.writer = new Thread(this::writeLoop, "authorization-code-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * @return false if the change was dropped
+     */
+    boolean issued(String code, OAuth2Authentication authentication, Instant expiresAt) {
+        return changes.offer(new Change(code, authentication, expiresAt));
+    }
+
+    boolean expired(String code) {
+        return changes.offer(new Change(code, null, null));
+    }
+
+    /**
+     * Marks the code as used, synchronously
+     *
+     * @param expiresAt when the marker may be removed, at least the expiry of the code
+     */
+    void redeemed(String code, Instant expiresAt) {
+        var update = new Update()
+                .set("used", true)
+                .set("authentication", null)
+                .setOnInsert("_id", generateUUID())
+                .setOnInsert("expiresAt", LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()));
+        mongoTemplate.upsert(owned().addCriteria(where("code").is(code)), update, AuthorizationToken.class);
+    }
+
+    /**
+     * Reads the codes that are still valid and were never redeemed, expired codes are deleted
+     */
+    void restore(BiConsumer<String, RestoredCode> consumer) {
+        var now = LocalDateTime.now();
+        mongoTemplate.remove(owned().addCriteria(where("expiresAt").lte(now)), AuthorizationToken.class);
+
+        var tokens = mongoTemplate.find(owned().addCriteria(where("used").is(false).and("expiresAt").gt(now)),
+                AuthorizationToken.class);
+        List<String> codes = new ArrayList<>(tokens.size());
+        tokens.forEach(token -> codes.add(token.getCode()));
+        Set<String> redeemed = new HashSet<>(mongoTemplate.findDistinct(
+                owned().addCriteria(where("used").is(true).and("code").in(codes)), "code",
+                AuthorizationToken.class, String.class));
+
+        for (var token : tokens) {
+            if (redeemed.contains(token.getCode())) continue;
+            try {
+                OAuth2Authentication authentication = SerializationUtils.deserialize(token.getAuthentication());
+                consumer.accept(token.getCode(), new RestoredCode(authentication,
+                        token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant()));
+            } catch (RuntimeException e) {
+                log.warn("could not restore authorization code {}: {}", token.getId(), e.getMessage());
+            }
+        }
+    }
+
+    void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void writeLoop() {
+        List<Change> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Change first = changes.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                changes.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        // flush what is left on shutdown
+        while (changes.drainTo(batch, batchSize) > 0)
+            write(batch);
+    }
+
+    private void write(List<Change> batch) {
+        // the last change of a code wins, a code issued and removed in this batch needs no write at all
+        Map<String, Change> latest = new LinkedHashMap<>();
+        for (Change change : batch) {
+            Change previous = latest.get(change.code);
+            if (previous != null && previous.authentication != null && change.authentication == null)
+                latest.remove(change.code);
+            else
+                latest.put(change.code, change);
+        }
+        batch.clear();
+        if (latest.isEmpty()) return;
+
+        List<Document> issued = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (Change change : latest.values()) {
+            if (change.authentication == null) removed.add(change.code);
+            else issued.add(toToken(change));
+        }
+        try {
+            var operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuthorizationToken.class);
+            if (!issued.isEmpty()) operations.insert(issued);
+            if (!removed.isEmpty()) operations.remove(owned().addCriteria(where("code").in(removed)));
+            operations.execute();
+        } catch (RuntimeException e) {
+            log.warn("could not write {} authorization code changes: {}", latest.size(), e.getMessage());
+        }
+    }
+
+    private Document toToken(Change change) {
+        var now = LocalDateTime.now();
+        var token = new AuthorizationToken(SerializationUtils.serialize(change.authentication),
+                change.authentication.getName(), change.code, false,
+                LocalDateTime.ofInstant(change.expiresAt, ZoneId.systemDefault()));
+        token.setId(generateUUID());
+        token.setCreatedAt(now);
+
+        var document = new Document();
+        mongoTemplate.getConverter().write(token, document);
+        document.put(OWNER, true);
+        return document;
+    }
+
+    private static Query owned() {
+        return Query.query(where(OWNER).is(true));
+    }
+
+    static class RestoredCode {
+        final OAuth2Authentication authentication;
+        final Instant expiresAt;
+
+        private RestoredCode(OAuth2Authentication authentication, Instant expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class Change {
+        private final String code;
+        private final OAuth2Authentication authentication; // null when the code was removed
+        private final Instant expiresAt;
+
+        private Change(String code, OAuth2Authentication authentication, Instant expiresAt) {
+            this.code = code;
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dev.rexijie.auth.tokenservices;
+
+import dev.rexijie.auth.cache.ClientTokenCache;
+import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.model.client.Client;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+/**
+ * {@link JwtTokenStore} that remembers client_credentials tokens for clients that opted in
+ * so {@link DefaultTokenServices#createAccessToken(OAuth2Authentication)} can hand out a
+ * still valid token instead of signing a new one.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class ClientTokenReusingTokenStore extends JwtTokenStore {
+    private final ClientTokenCache clientTokenCache;
+    private final ClientDetailsService clientDetailsService;
+
+    public ClientTokenReusingTokenStore(JwtAccessTokenConverter jwtTokenEnhancer,
+                                        ClientTokenCache clientTokenCache,
+                                        ClientDetailsService clientDetailsService) {
+        super(jwtTokenEnhancer);
+        this.clientTokenCache = clientTokenCache;
+        this.clientDetailsService = clientDetailsService;
+    }
+
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        if (!isReusable(authentication)) return super.getAccessToken(authentication);
+        return clientTokenCache.get(authentication.getOAuth2Request());
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        super.storeAccessToken(token, authentication);
+        if (isReusable(authentication))
+            clientTokenCache.put(authentication.getOAuth2Request(), token);
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        super.removeAccessToken(token);
+        clientTokenCache.evictToken(token.getValue());
+    }
+
+    private boolean isReusable(OAuth2Authentication authentication) {
+        if (!authentication.isClientOnly()) return false;
+        OAuth2Request request = authentication.getOAuth2Request();
+        if (!GrantTypes.CLIENT_CREDENTIALS.equals(request.getGrantType())) return false;
+
+        ClientDetails client;
+        try {
+            client = clientDetailsService.loadClientByClientId(request.getClientId());
+        } catch (ClientRegistrationException e) {
+            return false;
+        }
+        return client instanceof Client && ((Client) client).isReuseAccessTokens();
+    }
+}
@@ -0,0 +1,54 @@
+package dev.rexijie.auth.tokenservices;
+
+import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.model.client.RedirectUriPolicy;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.common.exceptions.RedirectMismatchException;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.endpoint.DefaultRedirectResolver;
+import org.springframework.security.oauth2.provider.endpoint.RedirectResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * {@link RedirectResolver} that matches against the client's compiled {@link RedirectUriPolicy}
+ * instead of parsing every registered uri on each request like {@link DefaultRedirectResolver}.
+ * The policy is compiled once per loaded client, which is cached.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+public class CompiledRedirectResolver implements RedirectResolver {
+
+    @Override
+    public String resolveRedirect(String requestedRedirect, ClientDetails client) throws OAuth2Exception {
+        Set<String> grantTypes = client.getAuthorizedGrantTypes();
+        if (grantTypes == null || !(grantTypes.contains(GrantTypes.AUTHORIZATION_CODE) || grantTypes.contains(GrantTypes.IMPLICIT)))
+            throw new InvalidGrantException("A redirect_uri can only be used by implicit or authorization_code grant types.");
+
+        RedirectUriPolicy policy = policyOf(client);
+        if (policy.isEmpty())
+            throw new RedirectMismatchException("A redirect_uri must be configured.");
+
+        if (requestedRedirect == null) {
+            if (policy.getSingleUri() == null)
+                throw new RedirectMismatchException("A redirect_uri must be supplied.");
+            return policy.getSingleUri();
+        }
+
+        if (!policy.matches(requestedRedirect))
+            throw new RedirectMismatchException("Invalid redirect uri does not match one of the registered values.");
+        return requestedRedirect;
+    }
+
+    private RedirectUriPolicy policyOf(ClientDetails client) {
+        if (client instanceof Client)
+            return ((Client) client).getRedirectUriPolicy();
+
+        Set<String> registeredUris = client.getRegisteredRedirectUri();
+        return new RedirectUriPolicy(registeredUris == null ? Set.of() : registeredUris);
+    }
+}
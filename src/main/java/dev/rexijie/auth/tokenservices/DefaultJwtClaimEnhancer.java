@@ -1,6 +1,7 @@
 package dev.rexijie.auth.tokenservices;
 
-import dev.rexijie.auth.service.UserService;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.service.UserLookup;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.impl.DefaultClaims;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,29 +10,44 @@ import java.util.Date;
 import java.util.Map;
 
 import static io.jsonwebtoken.Claims.ISSUED_AT;
+import static org.springframework.security.oauth2.provider.token.AccessTokenConverter.CLIENT_ID;
+import static org.springframework.security.oauth2.provider.token.AccessTokenConverter.GRANT_TYPE;
 
 public class DefaultJwtClaimEnhancer implements JwtClaimsEnhancer {
     @Value("${oauth2.openid.discovery.issuer:https://rexijie.dev}")
     private String issuer;
 
-    private final UserService userService;
+    private final UserLookup userService;
+    private final TokenMetrics metrics;
 
-    public DefaultJwtClaimEnhancer(UserService userService) {
+    public DefaultJwtClaimEnhancer(UserLookup userService,
+                                   TokenMetrics metrics) {
         this.userService = userService;
+        this.metrics = metrics;
     }
 
     public Claims enhance(Map<String, Object> originalClaims) {
+        return metrics.record(TokenMetrics.CLAIMS, (String) originalClaims.get(CLIENT_ID),
+                (String) originalClaims.get(GRANT_TYPE), () -> enhanceClaims(originalClaims));
+    }
+
+    private Claims enhanceClaims(Map<String, Object> originalClaims) {
         Claims claims = new DefaultClaims(originalClaims);
         String userName = claims.get(dev.rexijie.auth.constants.Claims.JwtClaims.USERNAME_CLAIM, String.class);
         claims.remove(dev.rexijie.auth.constants.Claims.JwtClaims.USERNAME_CLAIM);
 
+        if (!claims.containsKey(ISSUED_AT))
+            claims.setIssuedAt(new Date());
+        claims.setIssuer(issuer);
+
+        // client only tokens (client_credentials) have no user to look up
+        if (userName == null)
+            return claims;
+
         var user = userService.findUserByUsername(userName);
         var role = user.getRole().getName();
 
-        if (!claims.containsKey(ISSUED_AT))
-            claims.setIssuedAt(new Date());
         claims.setSubject(userName);
-        claims.setIssuer(issuer);
         claims.put(dev.rexijie.auth.constants.Claims.JwtClaims.ROLE_CLAIM, role);
 
         return claims;
@@ -0,0 +1,164 @@
+package dev.rexijie.auth.tokenservices;
+
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.cache.AuthorizationCodeTable;
+import dev.rexijie.auth.config.AuthorizationCodeProperties;
+import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.errors.TemporarilyUnavailableException;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.AuditEvent;
+import dev.rexijie.auth.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.common.util.RandomValueStringGenerator;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.code.AuthorizationCodeServices;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization codes kept in memory on this node, for single node and edge deployments.
+ * Codes are only redeemable on the node that issued them. With {@code oauth2.authorization.codes.write-behind}
+ * they are also copied to mongo in the background and restored on startup, so a restart does not lose them.
+ * Redemptions are then recorded in mongo before they are answered, a redemption that can not be recorded is refused
+ * and the code stays redeemable until it expires.
+ * <p>
+ * Select it with {@code oauth2.authorization.codes.store=memory}.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "oauth2.authorization.codes", name = "store", havingValue = "memory")
+public class InMemoryAuthorizationCodeServices implements AuthorizationCodeServices {
+    private final RandomValueStringGenerator generator = new RandomValueStringGenerator(16);
+    private final AuthorizationCodeTable codes;
+    private final AuthorizationCodeWriteBehind writeBehind;
+    private final ScheduledExecutorService expiry;
+    private final long tickMillis;
+    private final TokenMetrics metrics;
+    private final AuditLog auditLog;
+    private final Counter rejected;
+
+    public InMemoryAuthorizationCodeServices(AuthorizationCodeProperties properties,
+                                             MongoTemplate mongoTemplate,
+                                             TokenMetrics metrics,
+                                             AuditLog auditLog,
+                                             MeterRegistry registry) {
+        this.codes = new AuthorizationCodeTable(TimeUnit.SECONDS.toNanos(properties.getTtlSeconds()),
+                TimeUnit.MILLISECONDS.toNanos(properties.getTickMillis()), properties.getMaxCodes(),
+                properties.getStripes(), System.nanoTime());
+        this.writeBehind = properties.isWriteBehind()
+                ? new AuthorizationCodeWriteBehind(mongoTemplate, properties.getWriteBehindBufferSize(),
+                properties.getWriteBehindBatchSize())
+                : null;
+        this.tickMillis = properties.getTickMillis();
+        this.metrics = metrics;
+        this.auditLog = auditLog;
+        this.rejected = Counter.builder("oauth2.authorization.codes.rejected")
+                .description("authorization codes refused because the store was full")
+                .register(registry);
+        Gauge.builder("oauth2.authorization.codes", codes, AuthorizationCodeTable::size)
+                .description("authorization codes held in memory, until their expiry")
+                .register(registry);
+        this.expiry = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "authorization-code-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (writeBehind != null) {
+            long now = System.nanoTime();
+            Instant wallClock = Instant.now();
+            writeBehind.restore((code, restored) -> codes.put(code, restored.authentication,
+                    now + Duration.between(wallClock, restored.expiresAt).toNanos()));
+            log.info("restored {} authorization codes", codes.size());
+        }
+        expiry.scheduleWithFixedDelay(this::expire, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        expiry.shutdownNow();
+        if (writeBehind != null) writeBehind.shutdown();
+    }
+
+    @Override
+    public String createAuthorizationCode(OAuth2Authentication authentication) {
+        return metrics.record(TokenMetrics.CODE_CREATE, authentication.getOAuth2Request().getClientId(),
+                GrantTypes.AUTHORIZATION_CODE, () -> storeAuthorizationCode(authentication));
+    }
+
+    @Override
+    public OAuth2Authentication consumeAuthorizationCode(String code) throws InvalidGrantException {
+        return metrics.record(TokenMetrics.CODE_CONSUME, null, GrantTypes.AUTHORIZATION_CODE,
+                () -> removeAuthorizationCode(code));
+    }
+
+    private String storeAuthorizationCode(OAuth2Authentication authentication) {
+        sanitizeAuthentication(authentication);
+        String code = generator.generate();
+        long now = System.nanoTime();
+        if (!codes.put(code, authentication, now + codes.getTtlNanos())) {
+            rejected.increment();
+            throw new TemporarilyUnavailableException("Too many pending authorization requests", 1);
+        }
+        if (writeBehind != null)
+            writeBehind.issued(code, authentication, Instant.now().plusNanos(codes.getTtlNanos()));
+        auditLog.record(AuditEvent.Type.CODE_ISSUED, authentication.getName(),
+                authentication.getOAuth2Request().getClientId(), GrantTypes.AUTHORIZATION_CODE, null);
+        return code;
+    }
+
+    private OAuth2Authentication removeAuthorizationCode(String code) {
+        var removed = codes.remove(code, System.nanoTime());
+        if (removed == null)
+            throw new InvalidGrantException("Invalid authorization code: " + code);
+        var authentication = removed.getAuthentication();
+        if (writeBehind != null) {
+            try {
+                writeBehind.redeemed(code, Instant.now().plusNanos(codes.getTtlNanos()));
+            } catch (RuntimeException e) {
+                // an unrecorded redemption could be restored and redeemed again after a restart,
+                // the code is put back so the client can retry it until it expires
+                log.warn("could not record the redemption of an authorization code: {}", e.getMessage());
+                if (!codes.put(code, authentication, removed.getExpiresAt()))
+                    throw new InvalidGrantException("Invalid authorization code: " + code);
+                throw new TemporarilyUnavailableException("Authorization codes can not be redeemed right now", 1);
+            }
+        }
+        auditLog.record(AuditEvent.Type.CODE_REDEEMED, authentication.getName(),
+                authentication.getOAuth2Request().getClientId(), GrantTypes.AUTHORIZATION_CODE, null);
+        return authentication;
+    }
+
+    private void expire() {
+        try {
+            codes.expire(System.nanoTime(), writeBehind == null ? code -> {} : writeBehind::expired);
+        } catch (RuntimeException e) {
+            log.warn("could not expire authorization codes", e);
+        }
+    }
+
+    /**
+     *  remove sensitive data from authentication token
+     */
+    private void sanitizeAuthentication(OAuth2Authentication authentication) {
+        ((User) authentication.getPrincipal()).setPassword(null);
+    }
+}
@@ -64,7 +64,8 @@ public class JwtTokenConverter extends DefaultAccessTokenConverter {
     public OAuth2Authentication extractAuthentication(Map<String, ?> map) {
         var response = new HashMap<String, Object>(map);
         Object username = response.remove(SUBJECT);
-        response.put(USERNAME, username);
+        if (username != null)
+            response.put(USERNAME, username);
         if (response.containsKey(AZP) && !response.containsKey(CLIENT_ID))
             response.put(CLIENT_ID, response.get(AZP));
         return super.extractAuthentication(response);
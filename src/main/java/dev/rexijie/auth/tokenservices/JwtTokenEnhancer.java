@@ -1,5 +1,7 @@
 package dev.rexijie.auth.tokenservices;
 
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.token.IDToken;
 import dev.rexijie.auth.model.token.KeyPairHolder;
 import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,6 +12,7 @@ import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.util.JsonParser;
 import org.springframework.security.oauth2.common.util.JsonParserFactory;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
 import org.springframework.security.oauth2.provider.token.store.IssuerClaimVerifier;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtClaimsSetVerifier;
@@ -27,6 +30,7 @@ public class JwtTokenEnhancer extends JwtAccessTokenConverter {
     private final JsonParser objectMapper = JsonParserFactory.create();
     private final Signer signer;
     private final KeyPairHolder keyPairHolder;
+    private TokenMetrics metrics = TokenMetrics.noop();
 
     public JwtTokenEnhancer(KeyPairHolder keyPairHolder) {
         super();
@@ -58,19 +62,32 @@ public class JwtTokenEnhancer extends JwtAccessTokenConverter {
     @Override
     protected String encode(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
         String content;
-        final Map<String, String> customHeaders;
         try {
-            content = objectMapper.formatMap(
-                    getAccessTokenConverter()
-                            .convertAccessToken(accessToken, authentication));
+            // id token claims are written straight to json
+            if (accessToken instanceof IDToken)
+                content = ((IDToken) accessToken).getClaimsJson();
+            else
+                content = objectMapper.formatMap(
+                        getAccessTokenConverter()
+                                .convertAccessToken(accessToken, authentication));
         } catch (Exception e) {
             throw new IllegalStateException("Cannot convert access token to JSON", e);
         }
-        return JwtHelper.encode(
-                content,
-                signer,
-                getCustomHeaders())
-                .getEncoded();
+        OAuth2Request request = authentication.getOAuth2Request();
+        return metrics.record(TokenMetrics.SIGNING, request.getClientId(), request.getGrantType(),
+                () -> JwtHelper.encode(
+                        content,
+                        signer,
+                        getCustomHeaders())
+                        .getEncoded());
+    }
+
+    public void setTokenMetrics(TokenMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    protected TokenMetrics getTokenMetrics() {
+        return metrics;
     }
 
     protected Map<String, String> getCustomHeaders() {
@@ -0,0 +1,129 @@
+package dev.rexijie.auth.tokenservices;
+
+import dev.rexijie.auth.model.UserConsent;
+import dev.rexijie.auth.repository.UserConsentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.oauth2.provider.approval.Approval;
+import org.springframework.security.oauth2.provider.approval.ApprovalStore;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ApprovalStore} that remembers user consent in mongo.
+ * Approvals of a (user, client) pair are cached on each node for a short time so
+ * pre-approval checks on the authorize endpoint are answered from memory.
+ * The cache is bounded and drops entries after the ttl, see {@link dev.rexijie.auth.config.CacheConfig}.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Service
+public class MongoApprovalStore implements ApprovalStore {
+    public static final String CACHE_NAME = "user-approvals";
+
+    private final UserConsentRepository consentRepository;
+    private final Cache cache;
+    @Value("${oauth2.consent.cache-ttl-seconds:60}")
+    private long cacheTtlSeconds = 60;
+
+    public MongoApprovalStore(UserConsentRepository consentRepository,
+                              CacheManager cacheManager) {
+        this.consentRepository = consentRepository;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    @Override
+    public boolean addApprovals(Collection<Approval> approvals) {
+        var consents = approvals.stream()
+                .map(this::toConsent)
+                .collect(Collectors.toList());
+        consentRepository.saveAll(consents);
+        evict(approvals);
+        return true;
+    }
+
+    @Override
+    public boolean revokeApprovals(Collection<Approval> approvals) {
+        var ids = approvals.stream()
+                .map(approval -> UserConsent.idFor(approval.getUserId(), approval.getClientId(), approval.getScope()))
+                .collect(Collectors.toList());
+        consentRepository.deleteAll(consentRepository.findAllById(ids));
+        evict(approvals);
+        return true;
+    }
+
+    @Override
+    public Collection<Approval> getApprovals(String userId, String clientId) {
+        String key = cacheKey(userId, clientId);
+        CachedApprovals cached = cache.get(key, CachedApprovals.class);
+        if (cached != null && !cached.isStale(cacheTtlSeconds))
+            return cached.approvals;
+
+        var approvals = toApprovals(consentRepository.findAllByUserIdAndClientId(userId, clientId));
+        cache.put(key, new CachedApprovals(approvals));
+        return approvals;
+    }
+
+    /**
+     * all consents a user has given, across clients
+     */
+    public Collection<Approval> getApprovals(String userId) {
+        return toApprovals(consentRepository.findAllByUserId(userId));
+    }
+
+    /**
+     * revoke every consent a user has given to a client
+     */
+    public void revokeApprovals(String userId, String clientId) {
+        consentRepository.deleteAllByUserIdAndClientId(userId, clientId);
+        cache.evict(cacheKey(userId, clientId));
+    }
+
+    private UserConsent toConsent(Approval approval) {
+        var consent = new UserConsent(approval.getUserId(), approval.getClientId(), approval.getScope(),
+                approval.getStatus(), approval.getExpiresAt());
+        consent.setId(UserConsent.idFor(approval.getUserId(), approval.getClientId(), approval.getScope()));
+        consent.setCreatedAt(LocalDateTime.now());
+        consent.setUpdatedAt(LocalDateTime.now());
+        return consent;
+    }
+
+    private List<Approval> toApprovals(List<UserConsent> consents) {
+        return consents.stream()
+                .map(consent -> new Approval(consent.getUserId(), consent.getClientId(), consent.getScope(),
+                        consent.getExpiresAt(), consent.getStatus()))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private void evict(Collection<Approval> approvals) {
+        Set<String> keys = new HashSet<>();
+        for (Approval approval : approvals)
+            keys.add(cacheKey(approval.getUserId(), approval.getClientId()));
+        keys.forEach(cache::evict);
+    }
+
+    private String cacheKey(String userId, String clientId) {
+        return userId + "\n" + clientId;
+    }
+
+    private static class CachedApprovals {
+        private final List<Approval> approvals;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private CachedApprovals(List<Approval> approvals) {
+            this.approvals = approvals;
+        }
+
+        // other nodes may revoke consent, so cached approvals are only trusted for a short time
+        private boolean isStale(long ttlSeconds) {
+            return System.currentTimeMillis() - loadedAt > ttlSeconds * 1000;
+        }
+    }
+}
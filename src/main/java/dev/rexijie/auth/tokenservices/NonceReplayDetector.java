@@ -0,0 +1,80 @@
+package dev.rexijie.auth.tokenservices;
+
+import dev.rexijie.auth.cache.NonceStore;
+import dev.rexijie.auth.cache.TimeBucketedBloomFilter;
+import dev.rexijie.auth.config.NonceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects nonces a client has already used in an authorization request.
+ * <p>
+ * Nonces are checked against {@link TimeBucketedBloomFilter}s covering the whole window first. A nonce the filters
+ * have certainly not seen is accepted and recorded in the {@link NonceStore}, which may do that off the request thread.
+ * Only a possible hit of the filters asks the store, and the request is refused only if the store confirms
+ * the nonce was used within the window. A false positive of the filters costs one store lookup, never a refusal.
+ * <p>
+ * The filters belong to this node. With a shared store a nonce reused on another node passes that node's filters,
+ * it is not refused and is only reported when the store records it.
+ * The in memory store forgets keys once it is full, a reuse it can no longer confirm is accepted.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@Component
+public class NonceReplayDetector {
+    private final NonceStore store;
+    private final TimeBucketedBloomFilter filter;
+    private final long windowMillis;
+    private final Counter replays;
+    private final Counter falsePositives;
+
+    public NonceReplayDetector(NonceProperties properties, NonceStore store, MeterRegistry registry) {
+        this.store = store;
+        this.windowMillis = TimeUnit.SECONDS.toMillis(properties.getWindowSeconds());
+        this.filter = properties.isEnabled()
+                ? TimeBucketedBloomFilter.sized(properties.getExpectedRatePerSecond(), windowMillis,
+                properties.getBuckets(), properties.getFalsePositiveRate(), properties.getMaxFilterBytes(),
+                System.currentTimeMillis())
+                : null;
+        this.replays = Counter.builder("oauth2.nonce.replays")
+                .description("authorization requests rejected for reusing a nonce")
+                .register(registry);
+        this.falsePositives = Counter.builder("oauth2.nonce.false-positives")
+                .description("nonces the filters reported as seen that the store did not confirm")
+                .register(registry);
+        if (filter != null)
+            log.info("nonce filters: {} buckets of {} bits, {} hashes, {} KiB", filter.getBuckets(),
+                    filter.getBitsPerBucket(), filter.getHashes(), filter.sizeInBytes() / 1024);
+    }
+
+    /**
+     * Records the nonce as used by the client.
+     *
+     * @return true if the client already used the nonce within the window
+     */
+    public boolean isReplay(String clientId, String nonce) {
+        if (filter == null) return false;
+
+        String key = clientId + "\n" + nonce;
+        long now = System.currentTimeMillis();
+        long expiresAt = now + windowMillis;
+        if (!filter.put(key, now)) {
+            store.record(key, expiresAt);
+            return false;
+        }
+
+        // the filters may be wrong, only the store can confirm the reuse
+        if (store.add(key, expiresAt)) {
+            falsePositives.increment();
+            return false;
+        }
+        replays.increment();
+        log.debug("nonce reused by client {}", clientId);
+        return true;
+    }
+}
@@ -1,8 +1,13 @@
 package dev.rexijie.auth.tokenservices;
 
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.AuditEvent;
 import dev.rexijie.auth.model.User;
 import dev.rexijie.auth.model.token.AuthorizationToken;
 import dev.rexijie.auth.repository.AuthorizationTokenRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
 import org.springframework.security.oauth2.common.util.RandomValueStringGenerator;
 import org.springframework.security.oauth2.common.util.SerializationUtils;
@@ -17,31 +22,51 @@ import static dev.rexijie.auth.util.TokenUtils.generateUUID;
 // TODO - create cron to delete all expired codes
 /**
  * Custom authorization code services to persist authorization codes.
+ * The default, see {@link InMemoryAuthorizationCodeServices} for the alternative.
  */
 @Service
+@ConditionalOnProperty(prefix = "oauth2.authorization.codes", name = "store", havingValue = "mongo", matchIfMissing = true)
 public class PersistentAuthorizationCodeServices implements AuthorizationCodeServices {
 
     private final RandomValueStringGenerator generator;
     private final AuthorizationTokenRepository authorizationTokenRepository;
+    private final TokenMetrics metrics;
+    private final AuditLog auditLog;
 
-    public PersistentAuthorizationCodeServices(AuthorizationTokenRepository authorizationTokenRepository) {
+    public PersistentAuthorizationCodeServices(AuthorizationTokenRepository authorizationTokenRepository,
+                                               TokenMetrics metrics,
+                                               AuditLog auditLog) {
         this.authorizationTokenRepository = authorizationTokenRepository;
+        this.metrics = metrics;
+        this.auditLog = auditLog;
         this.generator = new RandomValueStringGenerator(16);
     }
 
     @Override
     public String createAuthorizationCode(OAuth2Authentication authentication) {
+        return metrics.record(TokenMetrics.CODE_CREATE, authentication.getOAuth2Request().getClientId(),
+                GrantTypes.AUTHORIZATION_CODE, () -> storeAuthorizationCode(authentication));
+    }
+
+    @Override
+    public OAuth2Authentication consumeAuthorizationCode(String code) throws InvalidGrantException {
+        return metrics.record(TokenMetrics.CODE_CONSUME, null, GrantTypes.AUTHORIZATION_CODE,
+                () -> removeAuthorizationCode(code));
+    }
+
+    private String storeAuthorizationCode(OAuth2Authentication authentication) {
         sanitizeAuthentication(authentication);
         byte[] serializedAuthentication = SerializationUtils.serialize(authentication);
         var token = createAuthorizationToken();
         token.setAuthentication(serializedAuthentication);
         token.setUsername(authentication.getName());
         token = authorizationTokenRepository.save(token);
+        auditLog.record(AuditEvent.Type.CODE_ISSUED, authentication.getName(),
+                authentication.getOAuth2Request().getClientId(), GrantTypes.AUTHORIZATION_CODE, null);
         return token.getCode();
     }
 
-    @Override
-    public OAuth2Authentication consumeAuthorizationCode(String code) throws InvalidGrantException {
+    private OAuth2Authentication removeAuthorizationCode(String code) {
         var tokenOptional = authorizationTokenRepository.findByCode(code);
         if (tokenOptional.isEmpty()) throwAuthorizationCode(code);
 
@@ -57,6 +82,8 @@ public class PersistentAuthorizationCodeServices implements AuthorizationCodeSer
         token.setAuthentication(null);
         token.setUpdatedAt(LocalDateTime.now());
         authorizationTokenRepository.save(token);
+        auditLog.record(AuditEvent.Type.CODE_REDEEMED, authentication.getName(),
+                authentication.getOAuth2Request().getClientId(), GrantTypes.AUTHORIZATION_CODE, null);
 
         return authentication;
     }
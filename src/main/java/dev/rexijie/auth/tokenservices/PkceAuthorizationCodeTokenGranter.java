@@ -0,0 +1,77 @@
+package dev.rexijie.auth.tokenservices;
+
+import dev.rexijie.auth.util.Pkce;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.exceptions.InvalidClientException;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.common.exceptions.InvalidRequestException;
+import org.springframework.security.oauth2.common.exceptions.RedirectMismatchException;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.code.AuthorizationCodeServices;
+import org.springframework.security.oauth2.provider.code.AuthorizationCodeTokenGranter;
+import org.springframework.security.oauth2.provider.token.AuthorizationServerTokenServices;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link AuthorizationCodeTokenGranter} that verifies the code_verifier against the code_challenge
+ * stored with the authorization code. Codes issued without a challenge are redeemed as before.
+ * The checks of the parent are repeated here because it merges the token request parameters over the
+ * stored ones before they could be read, which would let a caller replace the challenge.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class PkceAuthorizationCodeTokenGranter extends AuthorizationCodeTokenGranter {
+    private final AuthorizationCodeServices authorizationCodeServices;
+
+    public PkceAuthorizationCodeTokenGranter(AuthorizationServerTokenServices tokenServices,
+                                             AuthorizationCodeServices authorizationCodeServices,
+                                             ClientDetailsService clientDetailsService,
+                                             OAuth2RequestFactory requestFactory) {
+        super(tokenServices, authorizationCodeServices, clientDetailsService, requestFactory);
+        this.authorizationCodeServices = authorizationCodeServices;
+    }
+
+    @Override
+    protected OAuth2Authentication getOAuth2Authentication(ClientDetails client, TokenRequest tokenRequest) {
+        Map<String, String> parameters = tokenRequest.getRequestParameters();
+        String authorizationCode = parameters.get("code");
+        String redirectUri = parameters.get(OAuth2Utils.REDIRECT_URI);
+
+        if (authorizationCode == null)
+            throw new InvalidRequestException("An authorization code must be supplied.");
+
+        OAuth2Authentication storedAuth = authorizationCodeServices.consumeAuthorizationCode(authorizationCode);
+        if (storedAuth == null)
+            throw new InvalidGrantException("Invalid authorization code: " + authorizationCode);
+
+        OAuth2Request pendingOAuth2Request = storedAuth.getOAuth2Request();
+        // the redirect uri is only required if it was part of the authorization request
+        String redirectUriApprovalParameter = pendingOAuth2Request.getRequestParameters().get(OAuth2Utils.REDIRECT_URI);
+        if ((redirectUri != null || redirectUriApprovalParameter != null)
+                && !pendingOAuth2Request.getRedirectUri().equals(redirectUri))
+            throw new RedirectMismatchException("Redirect URI mismatch.");
+
+        String clientId = tokenRequest.getClientId();
+        if (clientId != null && !clientId.equals(pendingOAuth2Request.getClientId()))
+            throw new InvalidClientException("Client ID mismatch");
+
+        Pkce.verifyCodeChallenge(pendingOAuth2Request.getRequestParameters(), parameters.get(Pkce.CODE_VERIFIER));
+
+        // the verifier is a secret, it is not kept with the tokens
+        Map<String, String> combinedParameters = new HashMap<>(pendingOAuth2Request.getRequestParameters());
+        combinedParameters.putAll(parameters);
+        combinedParameters.remove(Pkce.CODE_VERIFIER);
+        OAuth2Request finalStoredOAuth2Request = pendingOAuth2Request.createOAuth2Request(combinedParameters);
+
+        Authentication userAuth = storedAuth.getUserAuthentication();
+        return new OAuth2Authentication(finalStoredOAuth2Request, userAuth);
+    }
+}
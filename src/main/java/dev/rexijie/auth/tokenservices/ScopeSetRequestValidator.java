@@ -0,0 +1,80 @@
+package dev.rexijie.auth.tokenservices;
+
+import dev.rexijie.auth.cache.ScopeRegistry;
+import dev.rexijie.auth.model.ScopeSet;
+import org.springframework.security.oauth2.common.exceptions.InvalidScopeException;
+import org.springframework.security.oauth2.provider.AuthorizationRequest;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.OAuth2RequestValidator;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.request.DefaultOAuth2RequestValidator;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link OAuth2RequestValidator} with the same rules as {@link DefaultOAuth2RequestValidator}
+ * that checks requested scopes against the client's scopes as {@link ScopeSet}s.
+ * The client's scope set is built once per loaded client and reused while its scopes are unchanged.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Component
+public class ScopeSetRequestValidator implements OAuth2RequestValidator {
+    private final ScopeRegistry scopeRegistry;
+    private final ConcurrentMap<String, ClientScopes> clientScopes = new ConcurrentHashMap<>();
+
+    public ScopeSetRequestValidator(ScopeRegistry scopeRegistry) {
+        this.scopeRegistry = scopeRegistry;
+    }
+
+    @Override
+    public void validateScope(AuthorizationRequest authorizationRequest, ClientDetails client) throws InvalidScopeException {
+        validateScope(authorizationRequest.getScope(), client);
+    }
+
+    @Override
+    public void validateScope(TokenRequest tokenRequest, ClientDetails client) throws InvalidScopeException {
+        validateScope(tokenRequest.getScope(), client);
+    }
+
+    private void validateScope(Set<String> requestScopes, ClientDetails client) {
+        Set<String> registeredScopes = client.getScope();
+        if (registeredScopes != null && !registeredScopes.isEmpty() && requestScopes != null) {
+            ScopeSet allowed = scopesOf(client, registeredScopes);
+            if (!allowed.containsAll(scopeRegistry.lookup(requestScopes))) {
+                // slow path only to name the offending scope
+                for (String scope : requestScopes) {
+                    if (!registeredScopes.contains(scope))
+                        throw new InvalidScopeException("Invalid scope: " + scope, registeredScopes);
+                }
+            }
+        }
+
+        if (requestScopes == null || requestScopes.isEmpty())
+            throw new InvalidScopeException("Empty scope (either the client or the user is not allowed the requested scopes)");
+    }
+
+    private ScopeSet scopesOf(ClientDetails client, Set<String> registeredScopes) {
+        ClientScopes cached = clientScopes.get(client.getClientId());
+        // clients replace their scope set when it changes, so identity is enough
+        if (cached != null && cached.registeredScopes == registeredScopes)
+            return cached.scopeSet;
+
+        ScopeSet scopeSet = scopeRegistry.intern(registeredScopes);
+        clientScopes.put(client.getClientId(), new ClientScopes(registeredScopes, scopeSet));
+        return scopeSet;
+    }
+
+    private static class ClientScopes {
+        private final Set<String> registeredScopes;
+        private final ScopeSet scopeSet;
+
+        private ClientScopes(Set<String> registeredScopes, ScopeSet scopeSet) {
+            this.registeredScopes = registeredScopes;
+            this.scopeSet = scopeSet;
+        }
+    }
+}
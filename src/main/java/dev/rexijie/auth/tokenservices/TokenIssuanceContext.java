@@ -0,0 +1,137 @@
+package dev.rexijie.auth.tokenservices;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.provider.ClientDetails;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Clients and users resolved while a token is issued.
+ * Granters, token services and enhancers look up the same client and user several times
+ * for one request, the context keeps the first result so each entity is loaded once.
+ * <p>
+ * The context is bound to the request thread by {@link dev.rexijie.auth.filters.TokenIssuanceContextFilter}.
+ * Outside of a bound request lookups go straight to the services.
+ * Lookups that found nothing are remembered too. An entity loaded more than once is logged when the request ends.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+public final class TokenIssuanceContext {
+    private static final ThreadLocal<TokenIssuanceContext> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, ClientDetails> clients = new HashMap<>(2);
+    private final Map<String, UserDetails> users = new HashMap<>(2);
+    private final Map<String, Integer> loads = new HashMap<>(4);
+    private int lookupCount;
+    private int totalLoadCount;
+
+    private TokenIssuanceContext() {
+    }
+
+    public static TokenIssuanceContext begin() {
+        TokenIssuanceContext context = new TokenIssuanceContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * @return the context of the current request, or null if none is bound
+     */
+    public static TokenIssuanceContext current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        TokenIssuanceContext context = CURRENT.get();
+        CURRENT.remove();
+        if (context != null) context.checkLoads();
+    }
+
+    public ClientDetails client(String clientId, Function<String, ClientDetails> loader) {
+        lookupCount++;
+        if (clients.containsKey(clientId)) return clients.get(clientId);
+
+        ClientDetails client = loader.apply(clientId);
+        countLoad("client:" + clientId);
+        clients.put(clientId, client);
+        return client;
+    }
+
+    public UserDetails user(String username, Function<String, UserDetails> loader) {
+        lookupCount++;
+        if (users.containsKey(username)) return users.get(username);
+
+        UserDetails user = loader.apply(username);
+        countLoad("user:" + username);
+        users.put(username, user);
+        return user;
+    }
+
+    /**
+     * add a client that was resolved before the context was bound, e.g. reactively
+     */
+    public void putClient(ClientDetails client) {
+        clients.put(client.getClientId(), client);
+    }
+
+    /**
+     * add a user that was resolved before the context was bound, e.g. reactively
+     */
+    public void putUser(UserDetails user) {
+        users.put(user.getUsername(), user);
+    }
+
+    /**
+     * forget a client that was changed during the request
+     */
+    public void evictClient(String clientId) {
+        clients.remove(clientId);
+        loads.remove("client:" + clientId);
+    }
+
+    /**
+     * forget a user that was changed during the request
+     */
+    public void evictUser(String username) {
+        users.remove(username);
+        loads.remove("user:" + username);
+    }
+
+    /**
+     * @return how many times the entity was loaded from its service during this request
+     */
+    public int getLoadCount(String type, String id) {
+        return loads.getOrDefault(type + ":" + id, 0);
+    }
+
+    /**
+     * @return how many clients and users were asked for during this request, loaded or not
+     */
+    public int getLookupCount() {
+        return lookupCount;
+    }
+
+    /**
+     * @return how many lookups during this request had to load from the services
+     */
+    public int getTotalLoadCount() {
+        return totalLoadCount;
+    }
+
+    private void countLoad(String key) {
+        totalLoadCount++;
+        loads.merge(key, 1, Integer::sum);
+    }
+
+    // each entity should be loaded at most once per issuance, an evicted entity starts counting again
+    private void checkLoads() {
+        for (Map.Entry<String, Integer> load : loads.entrySet()) {
+            if (load.getValue() > 1)
+                log.warn("{} was loaded {} times while issuing a token", load.getKey(), load.getValue());
+        }
+    }
+}
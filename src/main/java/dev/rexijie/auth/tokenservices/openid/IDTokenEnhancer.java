@@ -3,8 +3,10 @@ package dev.rexijie.auth.tokenservices.openid;
 import dev.rexijie.auth.constants.Claims;
 import dev.rexijie.auth.model.User;
 import dev.rexijie.auth.model.token.IDToken;
+import dev.rexijie.auth.util.ObjectUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -53,10 +55,17 @@ public class IDTokenEnhancer implements IDTokenClaimsEnhancer {
 
     @Override
     public void addAddressClaims(Map<String, Object> originalClaims, UserDetails user) {
-        var profile = getUserFromUserDetails(user, User.class).getUserInfo();
-        // add email and emaill_verified
-//        OidcUserInfo.builder()
-//                .address(profile.getAddress().toString());
+        var address = getUserFromUserDetails(user, User.class).getUserInfo().getAddress();
+        if (address == null) return;
+
+        // the address claim is a json object with the OpenID member names
+        Map<String, Object> addressClaim = new LinkedHashMap<>(8);
+        ObjectUtils.applyIfNonNull(address.getStreetAddress(), value -> addressClaim.put("street_address", value));
+        ObjectUtils.applyIfNonNull(address.getLocality(), value -> addressClaim.put("locality", value));
+        ObjectUtils.applyIfNonNull(address.getRegion(), value -> addressClaim.put("region", value));
+        ObjectUtils.applyIfNonNull(address.getPostalCode(), value -> addressClaim.put("postal_code", value));
+        ObjectUtils.applyIfNonNull(address.getCountry(), value -> addressClaim.put("country", value));
+        originalClaims.put(Claims.OpenIdClaims.ADDRESS_CLAIM, addressClaim);
     }
 
     @Override
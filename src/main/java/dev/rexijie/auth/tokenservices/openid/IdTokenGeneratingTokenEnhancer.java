@@ -1,31 +1,30 @@
 package dev.rexijie.auth.tokenservices.openid;
 
-import dev.rexijie.auth.constants.Scopes;
+import dev.rexijie.auth.cache.ScopeRegistry;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.ScopeSet;
 import dev.rexijie.auth.model.User;
 import dev.rexijie.auth.model.token.IDToken;
 import dev.rexijie.auth.model.token.KeyPairHolder;
-import dev.rexijie.auth.service.UserService;
+import dev.rexijie.auth.service.UserLookup;
 import dev.rexijie.auth.tokenservices.JwtTokenEnhancer;
+import dev.rexijie.auth.util.Digests;
+import dev.rexijie.auth.util.HashAlgorithm;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.impl.DefaultClaims;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.jwt.JwtHelper;
 import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.oidc.OidcIdToken;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.OAuth2Request;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.*;
 
 import static dev.rexijie.auth.util.TokenRequestUtils.isAuthorizationCodeRequest;
 import static dev.rexijie.auth.util.TokenRequestUtils.isImplicitRequest;
-import static dev.rexijie.auth.util.TokenUtils.getMessageDigestInstance;
-import static dev.rexijie.auth.util.TokenUtils.hashString;
 import static io.jsonwebtoken.Claims.AUDIENCE;
 import static org.springframework.security.oauth2.core.oidc.IdTokenClaimNames.NONCE;
 
@@ -35,26 +34,33 @@ import static org.springframework.security.oauth2.core.oidc.IdTokenClaimNames.NO
 public class IdTokenGeneratingTokenEnhancer extends JwtTokenEnhancer {
 
     private final IDTokenClaimsEnhancer enhancer;
-    private final UserService userService;
+    private final UserLookup userService;
+    private final ScopeRegistry scopeRegistry;
+    private final HashAlgorithm hashAlgorithm;
     @Value("${oauth2.openid.implicit.enabled}")
     private final boolean implicitEnabled = false;
 
-    public IdTokenGeneratingTokenEnhancer(UserService userService,
+    public IdTokenGeneratingTokenEnhancer(UserLookup userService,
                                           IDTokenClaimsEnhancer enhancer,
-                                          KeyPairHolder keyPairHolder) {
+                                          KeyPairHolder keyPairHolder,
+                                          ScopeRegistry scopeRegistry) {
         super(keyPairHolder);
         this.userService = userService;
+        this.scopeRegistry = scopeRegistry;
+        this.hashAlgorithm = HashAlgorithm.forJwsAlgorithm(keyPairHolder.getAlgorithm());
         this.enhancer = enhancer;
     }
 
     @Override
     public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
         OAuth2Request request = authentication.getOAuth2Request();
-        if (!request.getScope().contains(Scopes.ID_SCOPE))
+        ScopeSet scopes = scopeRegistry.lookup(request.getScope());
+        if (!scopes.contains(ScopeRegistry.OPENID))
             return accessToken;
 
         if (isAuthorizationCodeRequest(request) || (implicitEnabled && isImplicitRequest(request)))
-            return appendIdToken(accessToken, authentication);
+            return getTokenMetrics().record(TokenMetrics.ID_TOKEN, request.getClientId(), request.getGrantType(),
+                    () -> appendIdToken(accessToken, authentication, scopes));
 
         return accessToken; // return normal token for other grant types
     }
@@ -68,9 +74,11 @@ public class IdTokenGeneratingTokenEnhancer extends JwtTokenEnhancer {
      *
      * @param accessToken    access token
      * @param authentication authentication context containing the authentication request
+     * @param scopes         the requested scopes
      * @return IDToken
      */
-    private OAuth2AccessToken appendIdToken(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+    private OAuth2AccessToken appendIdToken(OAuth2AccessToken accessToken, OAuth2Authentication authentication,
+                                            ScopeSet scopes) {
         OAuth2Request request = authentication.getOAuth2Request();
 
         String nonce = request.getRequestParameters().get(NONCE);
@@ -93,11 +101,11 @@ public class IdTokenGeneratingTokenEnhancer extends JwtTokenEnhancer {
         String username = accessTokenClaims.getSubject();
         User user = userService.findUserByUsername(username);
 
-        if (request.getScope().contains(Scopes.IDTokenScopes.PROFILE))
+        if (scopes.contains(ScopeRegistry.PROFILE))
             builder.claims(claimsMap -> enhancer.addProfileClaims(claimsMap, user));
 
 
-        if (request.getScope().contains(Scopes.IDTokenScopes.EMAIL))
+        if (scopes.contains(ScopeRegistry.EMAIL))
             builder.claims(claimsMap -> enhancer.addEmailClaims(claimsMap, user));
 
         OidcIdToken oidcIdToken = builder.build();
@@ -113,19 +121,8 @@ public class IdTokenGeneratingTokenEnhancer extends JwtTokenEnhancer {
 
     // generates the at_hash
     protected String generateAccessTokenHash(OAuth2AccessToken accessToken) {
-
-        String algorithm = getHashAlgorithmForToken(accessToken.getValue());
-        MessageDigest MD5 = getMessageDigestInstance(algorithm);
-        // - get ascii representation of the token
-        byte[] asciiValues = accessToken.getValue().getBytes(StandardCharsets.US_ASCII);
-
-        // - hash the ascii value using the jwt hashing algorithm
-        byte[] hashedToken = MD5.digest(asciiValues);
-
-        // get the first 128 bits (hash alg length / 2 === 256 / 2)
-        byte[] bytes = Arrays.copyOf(hashedToken, 16);
-
-        return Base64.getEncoder().encodeToString(bytes);
+        // base64url of the left-most half of the hash of the ascii token, using the signing hash algorithm
+        return Digests.leftHalfHash(getHashAlgorithm(), accessToken.getValue());
     }
 
     // generate the c_hash claim value
@@ -135,19 +132,12 @@ public class IdTokenGeneratingTokenEnhancer extends JwtTokenEnhancer {
         String authorizationCode = requestParameters.get("code");
         if (authorizationCode == null) return null;
 
-        String algorithm = getHashAlgorithmForToken(accessToken.getValue());
-        byte[] hashedCode = hashString(algorithm, authorizationCode);
-        byte[] bytes = Arrays.copyOf(hashedCode, 16);
-
-        return Base64.getEncoder().encodeToString(bytes);
+        return Digests.leftHalfHash(getHashAlgorithm(), authorizationCode);
     }
 
-    // you should override this
-    // RS256 is used to sign tokens so the algorithm returns SHA-256
-    protected String getHashAlgorithmForToken(String token) {
-        Map<String, String> headers = JwtHelper.headers(token);
-        String tokenAlg = headers.get("alg");
-        return "SHA-".concat(tokenAlg.substring(2));
+    // derived from the signing key, RS256 gives SHA-256
+    protected HashAlgorithm getHashAlgorithm() {
+        return hashAlgorithm;
     }
 
     protected List<String> getAuthenticationMethods(Authentication authentication) {
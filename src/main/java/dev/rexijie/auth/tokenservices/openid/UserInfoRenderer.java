@@ -0,0 +1,98 @@
+package dev.rexijie.auth.tokenservices.openid;
+
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.util.ClaimsJsonWriter;
+import dev.rexijie.auth.util.Digests;
+import dev.rexijie.auth.util.HashAlgorithm;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static dev.rexijie.auth.constants.Scopes.IDTokenScopes.ADDRESS;
+import static dev.rexijie.auth.constants.Scopes.IDTokenScopes.EMAIL;
+import static dev.rexijie.auth.constants.Scopes.IDTokenScopes.PHONE;
+import static dev.rexijie.auth.constants.Scopes.IDTokenScopes.PROFILE;
+import static io.jsonwebtoken.Claims.SUBJECT;
+
+/**
+ * Renders the userinfo response of a user as json, with only the claims of the granted scopes.
+ * The claims are the same the {@link IDTokenClaimsEnhancer} adds to id tokens.
+ * Only four scopes select claims, so a set of granted scopes is reduced to a 4 bit mask.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class UserInfoRenderer {
+    public static final int SCOPE_COMBINATIONS = 16;
+    private static final int PROFILE_BIT = 1;
+    private static final int EMAIL_BIT = 2;
+    private static final int PHONE_BIT = 4;
+    private static final int ADDRESS_BIT = 8;
+
+    private final IDTokenClaimsEnhancer claimsEnhancer;
+
+    public UserInfoRenderer(IDTokenClaimsEnhancer claimsEnhancer) {
+        this.claimsEnhancer = claimsEnhancer;
+    }
+
+    public static int scopeMask(Set<String> scopes) {
+        if (scopes == null) return 0;
+        int mask = 0;
+        if (scopes.contains(PROFILE)) mask |= PROFILE_BIT;
+        if (scopes.contains(EMAIL)) mask |= EMAIL_BIT;
+        if (scopes.contains(PHONE)) mask |= PHONE_BIT;
+        if (scopes.contains(ADDRESS)) mask |= ADDRESS_BIT;
+        return mask;
+    }
+
+    public RenderedUserInfo render(User user, int scopeMask) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(SUBJECT, user.getUsername());
+        if (user.getUserInfo() != null) {
+            if ((scopeMask & PROFILE_BIT) != 0) claimsEnhancer.addProfileClaims(claims, user);
+            if ((scopeMask & EMAIL_BIT) != 0) claimsEnhancer.addEmailClaims(claims, user);
+            if ((scopeMask & PHONE_BIT) != 0) claimsEnhancer.addPhoneClaims(claims, user);
+            if ((scopeMask & ADDRESS_BIT) != 0) claimsEnhancer.addAddressClaims(claims, user);
+        }
+
+        String json = ClaimsJsonWriter.write(claims);
+        byte[] hash = Digests.hashUtf8(HashAlgorithm.SHA_256, json);
+        String etag = '"' + Digests.toBase64Url(hash, 0, 16) + '"';
+        return new RenderedUserInfo(json.getBytes(StandardCharsets.UTF_8), etag);
+    }
+
+    /**
+     * A rendered response and its strong entity tag
+     */
+    public static final class RenderedUserInfo {
+        private final byte[] body;
+        private final String etag;
+
+        private RenderedUserInfo(byte[] body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * @param ifNoneMatch the If-None-Match header, may be null
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) return false;
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals(etag) || tag.equals("*")) return true;
+            }
+            return false;
+        }
+    }
+}
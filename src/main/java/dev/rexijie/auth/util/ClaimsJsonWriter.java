@@ -0,0 +1,71 @@
+package dev.rexijie.auth.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes token claims as OpenID compliant json in a single sequential pass.
+ * Null claims are dropped, {@link Instant}s become epoch seconds and {@link LocalDate}s become ISO-8601 strings.
+ * {@link Date}s are left to jackson and stay epoch milliseconds, as they always were. No intermediate map is created.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public final class ClaimsJsonWriter {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ClaimsJsonWriter() {
+    }
+
+    public static String write(Map<String, ?> claims) {
+        StringWriter writer = new StringWriter(512);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            generator.writeStartObject();
+            for (Map.Entry<String, ?> claim : claims.entrySet()) {
+                Object value = claim.getValue();
+                if (value == null) continue;
+                generator.writeFieldName(claim.getKey());
+                writeValue(generator, value);
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to write claims", e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Same normalization as {@link #write(Map)} into a new map, for callers that need the claims as a map
+     */
+    public static Map<String, Object> normalize(Map<String, ?> claims) {
+        Map<String, Object> normalized = new LinkedHashMap<>((int) (claims.size() / 0.75f) + 1);
+        for (Map.Entry<String, ?> claim : claims.entrySet()) {
+            Object value = normalizeValue(claim.getValue());
+            if (value != null) normalized.put(claim.getKey(), value);
+        }
+        return normalized;
+    }
+
+    static Object normalizeValue(Object value) {
+        if (value instanceof Instant) return ((Instant) value).getEpochSecond();
+        if (value instanceof LocalDate) return value.toString();
+        return value;
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value instanceof String) generator.writeString((String) value);
+        else if (value instanceof Instant) generator.writeNumber(((Instant) value).getEpochSecond());
+        else if (value instanceof LocalDate) generator.writeString(value.toString());
+        else if (value instanceof Boolean) generator.writeBoolean((Boolean) value);
+        else if (value instanceof Long || value instanceof Integer) generator.writeNumber(((Number) value).longValue());
+        else generator.writeObject(value);
+    }
+}
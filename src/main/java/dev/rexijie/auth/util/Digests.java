@@ -0,0 +1,132 @@
+package dev.rexijie.auth.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Hashing and encoding helpers built on the per-thread digests of {@link HashAlgorithm}.
+ * Input and output go through per-thread scratch buffers so only the resulting string is allocated.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public final class Digests {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final char[] BASE64_URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private Digests() {
+    }
+
+    /**
+     * @return the hash of the ascii value of {@code value}, non ascii characters are hashed as '?'
+     */
+    public static byte[] hashAscii(HashAlgorithm algorithm, String value) {
+        MessageDigest digest = algorithm.digest();
+        byte[] bytes = BUFFERS.get().bytes(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            bytes[i] = c < 0x80 ? (byte) c : (byte) '?';
+        }
+        digest.update(bytes, 0, value.length());
+        return digest.digest();
+    }
+
+    /**
+     * @return the hash of the utf-8 value of {@code value}
+     */
+    public static byte[] hashUtf8(HashAlgorithm algorithm, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80)
+                return algorithm.digest().digest(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return hashAscii(algorithm, value); // ascii is valid utf-8
+    }
+
+    /**
+     * @return lower case hex of the MD5 hash of the utf-8 value of {@code value}
+     */
+    public static String md5Hex(String value) {
+        return toHex(hashUtf8(HashAlgorithm.MD5, value));
+    }
+
+    /**
+     * The at_hash / c_hash value: base64url of the left half of the hash of the ascii value
+     */
+    public static String leftHalfHash(HashAlgorithm algorithm, String value) {
+        byte[] hash = hashAscii(algorithm, value);
+        return toBase64Url(hash, 0, hash.length / 2);
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = BUFFERS.get().chars(bytes.length * 2);
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars, 0, bytes.length * 2);
+    }
+
+    /**
+     * unpadded base64url of {@code length} bytes starting at {@code offset}
+     */
+    public static String toBase64Url(byte[] bytes, int offset, int length) {
+        char[] chars = BUFFERS.get().chars((length + 2) / 3 * 4);
+        return new String(chars, 0, encodeBase64Url(bytes, offset, length, chars));
+    }
+
+    /**
+     * Compares the unpadded base64url of {@code bytes} to {@code encoded} in time independent of where they differ,
+     * without allocating the encoded string
+     */
+    public static boolean base64UrlEquals(byte[] bytes, String encoded) {
+        char[] chars = BUFFERS.get().chars((bytes.length + 2) / 3 * 4);
+        int length = encodeBase64Url(bytes, 0, bytes.length, chars);
+        if (length != encoded.length()) return false;
+        int difference = 0;
+        for (int i = 0; i < length; i++)
+            difference |= chars[i] ^ encoded.charAt(i);
+        return difference == 0;
+    }
+
+    private static int encodeBase64Url(byte[] bytes, int offset, int length, char[] chars) {
+        int end = offset + length;
+        int position = 0;
+        int i = offset;
+        for (; i + 2 < end; i += 3) {
+            int block = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+            chars[position++] = BASE64_URL[block >>> 18];
+            chars[position++] = BASE64_URL[(block >>> 12) & 0x3f];
+            chars[position++] = BASE64_URL[(block >>> 6) & 0x3f];
+            chars[position++] = BASE64_URL[block & 0x3f];
+        }
+        int remaining = end - i;
+        if (remaining == 1) {
+            int block = (bytes[i] & 0xff) << 16;
+            chars[position++] = BASE64_URL[block >>> 18];
+            chars[position++] = BASE64_URL[(block >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int block = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8;
+            chars[position++] = BASE64_URL[block >>> 18];
+            chars[position++] = BASE64_URL[(block >>> 12) & 0x3f];
+            chars[position++] = BASE64_URL[(block >>> 6) & 0x3f];
+        }
+        return position;
+    }
+
+    private static class Buffers {
+        private byte[] bytes = new byte[1024];
+        private char[] chars = new char[128];
+
+        private byte[] bytes(int length) {
+            if (bytes.length < length) bytes = new byte[Math.max(length, bytes.length * 2)];
+            return bytes;
+        }
+
+        private char[] chars(int length) {
+            if (chars.length < length) chars = new char[Math.max(length, chars.length * 2)];
+            return chars;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package dev.rexijie.auth.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash algorithms used for token hashes, each with a reusable {@link MessageDigest} per thread
+ * so digests are not looked up through the provider framework on every call.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public enum HashAlgorithm {
+    MD5("MD5"),
+    SHA_256("SHA-256"),
+    SHA_384("SHA-384"),
+    SHA_512("SHA-512");
+
+    private final String name;
+    private final ThreadLocal<MessageDigest> digests;
+
+    HashAlgorithm(String name) {
+        this.name = name;
+        this.digests = ThreadLocal.withInitial(() -> newDigest(name));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return this thread's digest, reset and ready for use. It must not escape the calling method,
+     * the next use on this thread resets it
+     */
+    MessageDigest digest() {
+        MessageDigest digest = digests.get();
+        digest.reset();
+        return digest;
+    }
+
+    /**
+     * The hash algorithm of a JWS algorithm, e.g. SHA-256 for RS256, ES256 and HS256.
+     * This is the algorithm used for the at_hash and c_hash claims.
+     */
+    public static HashAlgorithm forJwsAlgorithm(String jwsAlgorithm) {
+        if (jwsAlgorithm == null || jwsAlgorithm.length() < 5)
+            throw new IllegalArgumentException("unsupported jws algorithm: " + jwsAlgorithm);
+        switch (jwsAlgorithm.substring(2)) {
+            case "256":
+                return SHA_256;
+            case "384":
+                return SHA_384;
+            case "512":
+                return SHA_512;
+            default:
+                throw new IllegalArgumentException("unsupported jws algorithm: " + jwsAlgorithm);
+        }
+    }
+
+    /**
+     * @param name a {@link MessageDigest} algorithm name such as {@code SHA-256}
+     */
+    public static HashAlgorithm forName(String name) {
+        for (HashAlgorithm algorithm : values())
+            if (algorithm.name.equalsIgnoreCase(name)) return algorithm;
+        throw new IllegalArgumentException("unsupported hash algorithm: " + name);
+    }
+
+    private static MessageDigest newDigest(String name) {
+        try {
+            return MessageDigest.getInstance(name);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(name + " algorithm not available", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.rexijie.auth.util;
+
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+
+import java.util.Map;
+
+/**
+ * Proof key for code exchange (RFC 7636) checks.
+ * S256 challenges are verified with the per-thread SHA-256 digest and scratch buffers of {@link Digests},
+ * the verifier is hashed and compared to the challenge without a digest lookup or an encoded string.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public final class Pkce {
+    public static final String CODE_CHALLENGE = "code_challenge";
+    public static final String CODE_CHALLENGE_METHOD = "code_challenge_method";
+    public static final String CODE_VERIFIER = "code_verifier";
+    public static final String S256 = "S256";
+    public static final String PLAIN = "plain";
+
+    private static final int MIN_LENGTH = 43;
+    private static final int MAX_LENGTH = 128;
+
+    private Pkce() {
+    }
+
+    /**
+     * @return true if the method is supported, a missing method means plain
+     */
+    public static boolean isSupportedMethod(String method) {
+        return method == null || S256.equals(method) || PLAIN.equals(method);
+    }
+
+    /**
+     * @return true if the value is 43 to 128 unreserved characters, the form of both challenges and verifiers
+     */
+    public static boolean isWellFormed(String value) {
+        if (value == null || value.length() < MIN_LENGTH || value.length() > MAX_LENGTH) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean unreserved = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '.' || c == '_' || c == '~';
+            if (!unreserved) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param verifier  the code_verifier sent with the code exchange
+     * @param challenge the code_challenge sent with the authorization request
+     * @param method    the code_challenge_method sent with the authorization request
+     * @return true if the verifier is well formed and matches the challenge
+     */
+    public static boolean verify(String verifier, String challenge, String method) {
+        if (!isWellFormed(verifier)) return false;
+        if (method == null || PLAIN.equals(method)) return constantTimeEquals(verifier, challenge);
+        if (S256.equals(method)) return Digests.base64UrlEquals(Digests.hashAscii(HashAlgorithm.SHA_256, verifier), challenge);
+        return false;
+    }
+
+    /**
+     * Checks the code_verifier of a code exchange against the challenge of the authorization request.
+     * Codes issued without a challenge must be redeemed without a verifier.
+     *
+     * @param authorizationParameters the parameters stored with the code, before any token request parameters are merged in
+     * @param codeVerifier            the code_verifier sent with the code exchange
+     * @throws InvalidGrantException if the verifier is missing, unexpected or does not match
+     */
+    public static void verifyCodeChallenge(Map<String, String> authorizationParameters, String codeVerifier) {
+        String codeChallenge = authorizationParameters.get(CODE_CHALLENGE);
+        if (codeChallenge == null) {
+            if (codeVerifier != null)
+                throw new InvalidGrantException("code_verifier was sent but the authorization request had no code_challenge");
+            return;
+        }
+
+        if (codeVerifier == null)
+            throw new InvalidGrantException("A code_verifier must be supplied.");
+        if (!verify(codeVerifier, codeChallenge, authorizationParameters.get(CODE_CHALLENGE_METHOD)))
+            throw new InvalidGrantException("code_verifier does not match the code_challenge");
+    }
+
+    private static boolean constantTimeEquals(String a, String b) {
+        if (a.length() != b.length()) return false;
+        int difference = 0;
+        for (int i = 0; i < a.length(); i++)
+            difference |= a.charAt(i) ^ b.charAt(i);
+        return difference == 0;
+    }
+}
@@ -4,8 +4,6 @@ import lombok.NonNull;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.util.SerializationUtils;
 
-import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
@@ -32,17 +30,12 @@ public class TokenUtils {
 
     public static String generateHash(String value) {
         if (value == null) return null;
-        try {
-            var md5Digest = MessageDigest.getInstance("MD5");
-            var tokenBytes = value.getBytes(StandardCharsets.UTF_8);
-            tokenBytes = md5Digest.digest(tokenBytes);
-            return String.format("%032x", new BigInteger(1, tokenBytes));
-
-        } catch (NoSuchAlgorithmException exception) {
-            throw new IllegalStateException("MD5 algorithm not available");
-        }
+        return Digests.md5Hex(value);
     }
 
+    /**
+     * @return a new digest for the algorithm, owned by the caller
+     */
     public static MessageDigest getMessageDigestInstance(String algorithm) {
         try {
             return MessageDigest.getInstance(algorithm);
@@ -52,27 +45,17 @@ public class TokenUtils {
     }
 
     public static byte[] hashString(String algorithm, String value) {
-        return getMessageDigestInstance(algorithm)
-                .digest(value.getBytes(StandardCharsets.US_ASCII));
+        return Digests.hashAscii(HashAlgorithm.forName(algorithm), value);
     }
 
     public static Map<String, Object> toOpenIdCompliantMap(Map<String, Object> mutableMap) {
-        mutableMap.keySet()
-                .parallelStream()
-                .forEach(key -> {
-                    if (mutableMap.get(key) instanceof Instant) {
-                        Instant instant = (Instant) mutableMap.get(key);
-                        mutableMap.put(key, instant.getEpochSecond());
-                    }
-
-                    if (mutableMap.get(key) instanceof LocalDate) {
-                        LocalDate localDate = (LocalDate) mutableMap.get(key);
-                        mutableMap.put(key, localDate.toString());
-                    }
-
-                    if (mutableMap.get(key) == null)
-                        mutableMap.remove(key);
-                });
+        var iterator = mutableMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (entry.getValue() == null) iterator.remove();
+            else if (entry.getValue() instanceof Instant || entry.getValue() instanceof LocalDate)
+                entry.setValue(ClaimsJsonWriter.normalizeValue(entry.getValue()));
+        }
         return mutableMap;
     }
 
@@ -0,0 +1,24 @@
+package dev.rexijie.auth.reactive;
+
+import dev.rexijie.auth.tokenservices.TokenIssuanceContext;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+
+/**
+ * {@link ClientDetailsService} for the shared token engine in reactive mode,
+ * reading clients that were resolved into the {@link TokenIssuanceContext}, see {@link ContextBoundUserService}
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class ContextBoundClientService implements ClientDetailsService {
+
+    @Override
+    public ClientDetails loadClientByClientId(String clientId) throws ClientRegistrationException {
+        TokenIssuanceContext context = TokenIssuanceContext.current();
+        if (context == null) throw new IllegalStateException("clients can only be read while issuing a token");
+        return context.client(clientId, id -> {
+            throw new ClientRegistrationException("client " + id + " was not resolved before issuing the token");
+        });
+    }
+}
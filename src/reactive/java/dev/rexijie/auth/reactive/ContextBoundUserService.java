@@ -0,0 +1,31 @@
+package dev.rexijie.auth.reactive;
+
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.service.UserLookup;
+import dev.rexijie.auth.tokenservices.TokenIssuanceContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * {@link UserLookup} for the shared token engine in reactive mode. Users are resolved reactively and put
+ * into the {@link TokenIssuanceContext} before the engine runs, this service only reads them back and
+ * never blocks. Asking for a user that was not resolved first is a programming error.
+ *
+ * @author Rex Ijiekhuamen
+ */
+public class ContextBoundUserService implements UserLookup {
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        TokenIssuanceContext context = TokenIssuanceContext.current();
+        if (context == null) throw new IllegalStateException("users can only be read while issuing a token");
+        return context.user(username, name -> {
+            throw new UsernameNotFoundException("user " + name + " was not resolved before issuing the token");
+        });
+    }
+
+    @Override
+    public User findUserByUsername(String username) {
+        return (User) loadUserByUsername(username);
+    }
+}
@@ -0,0 +1,185 @@
+package dev.rexijie.auth.reactive;
+
+import dev.rexijie.auth.metrics.TimedPasswordEncoder;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.authority.Authority;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.model.token.AuthorizationToken;
+import dev.rexijie.auth.reactive.repository.ReactiveClientRepository;
+import dev.rexijie.auth.reactive.repository.ReactiveUserRepository;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.common.exceptions.InvalidClientException;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.security.oauth2.common.util.SerializationUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Non blocking lookups of clients, users and authorization codes for the reactive endpoints.
+ * Password hashes are checked on the bounded elastic scheduler, they are too slow for the event loop.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Service
+public class ReactiveIdentityService {
+    private static final String CLIENT_SECRET = "client_secret";
+
+    private final ReactiveClientRepository clientRepository;
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final PasswordEncoder clientSecretEncoder;
+    private final PasswordEncoder userPasswordEncoder;
+
+    public ReactiveIdentityService(ReactiveClientRepository clientRepository,
+                                   ReactiveUserRepository userRepository,
+                                   ReactiveMongoTemplate mongoTemplate,
+                                   PasswordEncoder passwordEncoder,
+                                   TokenMetrics tokenMetrics) {
+        this.clientRepository = clientRepository;
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.clientSecretEncoder = new TimedPasswordEncoder(passwordEncoder, tokenMetrics, TokenMetrics.CLIENT_AUTHENTICATION);
+        this.userPasswordEncoder = new TimedPasswordEncoder(passwordEncoder, tokenMetrics, TokenMetrics.USER_AUTHENTICATION);
+    }
+
+    public Mono<Client> findClient(String clientId) {
+        return clientRepository.findByClientId(clientId)
+                .switchIfEmpty(Mono.error(() -> new InvalidClientException("Bad client credentials")));
+    }
+
+    /**
+     * Authenticates the client with client_secret_basic or client_secret_post,
+     * the same way as {@link dev.rexijie.auth.controller.PushedAuthorizationEndpoint}.
+     * Public clients only identify themselves with their client_id, which is only enough at the token endpoint
+     */
+    public Mono<Client> authenticateClient(Map<String, String> parameters, String authorization) {
+        return authenticateClient(parameters, authorization, true);
+    }
+
+    /**
+     * Like {@link #authenticateClient(Map, String)}, but only confidential clients with a matching secret pass.
+     * For endpoints that disclose something to the caller, such as introspection
+     */
+    public Mono<Client> authenticateConfidentialClient(Map<String, String> parameters, String authorization) {
+        return authenticateClient(parameters, authorization, false);
+    }
+
+    /**
+     * @param clientSecret may be null for public clients
+     */
+    public Mono<Client> authenticateClient(String clientId, String clientSecret) {
+        return authenticateClient(clientId, clientSecret, true);
+    }
+
+    private Mono<Client> authenticateClient(Map<String, String> parameters, String authorization, boolean allowPublic) {
+        String clientId = parameters.get(OAuth2Utils.CLIENT_ID);
+        String clientSecret = parameters.get(CLIENT_SECRET);
+
+        if (authorization != null && authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            String[] credentials;
+            try {
+                credentials = decodeBasic(authorization.substring(6));
+            } catch (InvalidClientException e) {
+                return Mono.error(e);
+            }
+            if (clientId != null && !clientId.equals(credentials[0]))
+                return Mono.error(new InvalidClientException("Given client ID does not match authenticated client"));
+            clientId = credentials[0];
+            clientSecret = credentials[1];
+        }
+
+        if (clientId == null)
+            return Mono.error(new InvalidClientException("A client id must be provided"));
+        return authenticateClient(clientId, clientSecret, allowPublic);
+    }
+
+    private Mono<Client> authenticateClient(String clientId, String clientSecret, boolean allowPublic) {
+        return findClient(clientId)
+                .flatMap(client -> {
+                    if (client.isPublicClient()) {
+                        return allowPublic ? Mono.just(client)
+                                : Mono.error(new InvalidClientException("Public clients can not use this endpoint"));
+                    }
+                    if (clientSecret == null) return Mono.error(new InvalidClientException("Bad client credentials"));
+                    return matches(clientSecretEncoder, clientSecret, client.getClientSecret())
+                            .flatMap(matches -> matches ? Mono.just(client)
+                                    : Mono.error(new InvalidClientException("Bad client credentials")));
+                });
+    }
+
+    public Mono<User> findUser(String username) {
+        return userRepository.findByUsername(username)
+                .switchIfEmpty(Mono.error(() -> new InvalidGrantException("Bad credentials")))
+                .map(user -> {
+                    // same as UserServiceImpl, the role itself is also an authority
+                    user.getRole().getAuthorities()
+                            .add(new Authority(user.getRole().getName(), user.getRole().getDescription()));
+                    return user;
+                });
+    }
+
+    public Mono<User> authenticateUser(String username, String password) {
+        if (username == null || password == null) return Mono.error(new InvalidGrantException("Bad credentials"));
+        return findUser(username)
+                .flatMap(user -> matches(userPasswordEncoder, password, user.getPassword())
+                        .flatMap(matches -> {
+                            if (!matches) return Mono.error(new InvalidGrantException("Bad credentials"));
+                            if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()
+                                    || !user.isCredentialsNonExpired())
+                                return Mono.error(new InvalidGrantException("User account is not usable"));
+                            return Mono.just(user);
+                        }));
+    }
+
+    /**
+     * Marks the code used and returns the authentication it was issued for.
+     * Finding and marking is one atomic update, so a code can only be redeemed once across replicas.
+     */
+    public Mono<OAuth2Authentication> consumeAuthorizationCode(String code) {
+        Query unused = Query.query(Criteria.where("code").is(code).and("used").is(false));
+        Update use = new Update()
+                .set("used", true)
+                .unset("authentication")
+                .set("updatedAt", LocalDateTime.now());
+
+        return mongoTemplate.findAndModify(unused, use, FindAndModifyOptions.options().returnNew(false),
+                AuthorizationToken.class)
+                .switchIfEmpty(Mono.error(() -> new InvalidGrantException("Invalid authorization code: " + code)))
+                .flatMap(token -> {
+                    if (token.isExpired()) return Mono.error(new InvalidGrantException("Authorization code expired"));
+                    return Mono.just(SerializationUtils.<OAuth2Authentication>deserialize(token.getAuthentication()));
+                });
+    }
+
+    private Mono<Boolean> matches(PasswordEncoder encoder, String raw, String encoded) {
+        return Mono.fromCallable(() -> encoder.matches(raw, encoded))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private String[] decodeBasic(String token) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidClientException("Invalid basic authentication token");
+        }
+        int delimiter = decoded.indexOf(':');
+        if (delimiter == -1)
+            throw new InvalidClientException("Invalid basic authentication token");
+        return new String[]{decoded.substring(0, delimiter), decoded.substring(delimiter + 1)};
+    }
+}
@@ -0,0 +1,93 @@
+package dev.rexijie.auth.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidRequestException;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.jsonwebtoken.Claims.SUBJECT;
+
+/**
+ * Token introspection endpoint (RFC 7662) for the reactive deployment.
+ * Callers authenticate as a confidential client with its secret, tokens that can not be verified are reported as inactive.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@RestController
+public class ReactiveIntrospectionEndpoint {
+    private static final Map<String, Object> INACTIVE = Map.of("active", false);
+
+    private final TokenStore tokenStore;
+    private final ReactiveIdentityService identityService;
+
+    public ReactiveIntrospectionEndpoint(TokenStore tokenStore,
+                                         ReactiveIdentityService identityService) {
+        this.tokenStore = tokenStore;
+        this.identityService = identityService;
+    }
+
+    @PostMapping(value = "/oauth2/introspect", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> introspect(ServerWebExchange exchange) {
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        return exchange.getFormData()
+                .map(MultiValueMap::toSingleValueMap)
+                .flatMap(parameters -> identityService.authenticateConfidentialClient(parameters, authorization)
+                        .then(Mono.justOrEmpty(parameters.get("token"))
+                                .switchIfEmpty(Mono.error(() -> new InvalidRequestException("A token must be supplied")))))
+                .flatMap(tokenValue -> Mono.fromCallable(() -> describe(tokenValue))
+                        .subscribeOn(Schedulers.parallel()))
+                .map(response -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response));
+    }
+
+    @ExceptionHandler(OAuth2Exception.class)
+    public ResponseEntity<OAuth2Exception> handleOAuth2Exception(OAuth2Exception e) {
+        log.debug("introspection request rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.valueOf(e.getHttpErrorCode())).body(e);
+    }
+
+    private Map<String, Object> describe(String tokenValue) {
+        OAuth2AccessToken token;
+        try {
+            token = tokenStore.readAccessToken(tokenValue);
+        } catch (InvalidTokenException e) {
+            return INACTIVE;
+        }
+        if (token == null || token.isExpired()) return INACTIVE;
+
+        OAuth2Authentication authentication = tokenStore.readAuthentication(token);
+        Map<String, Object> response = new HashMap<>(token.getAdditionalInformation());
+        response.put("active", true);
+        response.put(OAuth2AccessToken.SCOPE, OAuth2Utils.formatParameterList(token.getScope()));
+        response.put("token_type", token.getTokenType());
+        response.put(OAuth2AccessToken.EXPIRES_IN, token.getExpiresIn());
+        response.put("exp", token.getExpiration().getTime() / 1000);
+        if (authentication != null) {
+            response.put(OAuth2Utils.CLIENT_ID, authentication.getOAuth2Request().getClientId());
+            if (!authentication.isClientOnly()) {
+                response.put(SUBJECT, authentication.getName());
+                response.put("username", authentication.getName());
+            }
+        }
+        return response;
+    }
+}
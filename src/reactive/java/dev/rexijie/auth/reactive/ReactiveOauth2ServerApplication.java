@@ -0,0 +1,42 @@
+package dev.rexijie.auth.reactive;
+
+import dev.rexijie.auth.config.AuditProperties;
+import dev.rexijie.auth.config.OIDCDiscovery;
+import dev.rexijie.auth.config.ThrottlingProperties;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.oauth2.OAuth2AutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Non blocking deployment of the token, userinfo, introspection and discovery endpoints,
+ * built with the {@code reactive} maven profile. Authorization, login and consent stay with
+ * {@link dev.rexijie.auth.Oauth2ServerApplication}, both deployments read the same database.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Configuration
+@ComponentScan
+@EnableAutoConfiguration(exclude = {
+        ReactiveSecurityAutoConfiguration.class,
+        ReactiveUserDetailsServiceAutoConfiguration.class,
+        ReactiveManagementWebSecurityAutoConfiguration.class,
+        OAuth2AutoConfiguration.class,
+        MongoRepositoriesAutoConfiguration.class})
+@EnableConfigurationProperties({OIDCDiscovery.class, AuditProperties.class, ThrottlingProperties.class})
+public class ReactiveOauth2ServerApplication {
+
+    public static void main(String[] args) {
+        // spring-boot-starter-web is also on the classpath, which would otherwise start tomcat
+        new SpringApplicationBuilder(ReactiveOauth2ServerApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+}
@@ -0,0 +1,38 @@
+package dev.rexijie.auth.reactive;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import dev.rexijie.auth.config.OIDCDiscovery;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Discovery and key set endpoints for the reactive deployment, see {@link dev.rexijie.auth.controller.OIDCEndpoint}.
+ * Both documents are fixed at startup so they are served directly on the event loop.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+@RestController
+public class ReactiveOidcEndpoint {
+    private final Map<String, Object> jwks;
+    private final OIDCDiscovery oidcDiscovery;
+
+    public ReactiveOidcEndpoint(JWKSet jwkSet,
+                                OIDCDiscovery oidcDiscovery) {
+        this.jwks = jwkSet.toJSONObject();
+        this.oidcDiscovery = oidcDiscovery;
+    }
+
+    @GetMapping("/openid/.well-known/openid-configuration")
+    public OIDCDiscovery openIdDiscovery() {
+        return oidcDiscovery;
+    }
+
+    @GetMapping("/openid/.well-known/jwks.json")
+    public Map<String, Object> jwkKeys() {
+        return jwks;
+    }
+}
@@ -0,0 +1,129 @@
+package dev.rexijie.auth.reactive;
+
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.audit.AuditingTokenEnhancer;
+import dev.rexijie.auth.cache.ScopeRegistry;
+import dev.rexijie.auth.config.MongoConversionConfig;
+import dev.rexijie.auth.config.PasswordEncoderConfig;
+import dev.rexijie.auth.generators.KeyGen;
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.model.token.KeyPairHolder;
+import dev.rexijie.auth.service.ClientSecretGenerator;
+import dev.rexijie.auth.throttle.LoginThrottle;
+import dev.rexijie.auth.tokenservices.DefaultJwtClaimEnhancer;
+import dev.rexijie.auth.tokenservices.JwtClaimsEnhancer;
+import dev.rexijie.auth.tokenservices.JwtTokenConverter;
+import dev.rexijie.auth.tokenservices.JwtTokenEnhancer;
+import dev.rexijie.auth.tokenservices.ScopeSetRequestValidator;
+import dev.rexijie.auth.tokenservices.openid.IDTokenClaimsEnhancer;
+import dev.rexijie.auth.tokenservices.openid.IDTokenEnhancer;
+import dev.rexijie.auth.tokenservices.openid.IdTokenGeneratingTokenEnhancer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.request.DefaultOAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.TokenEnhancer;
+import org.springframework.security.oauth2.provider.token.TokenEnhancerChain;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.util.List;
+
+/**
+ * The token engine of {@link dev.rexijie.auth.config.TokenServicesConfig} for the reactive deployment.
+ * The engine is the same, only its user and client services read from the {@link dev.rexijie.auth.tokenservices.TokenIssuanceContext}
+ * that {@link ReactiveTokenIssuer} fills before it runs, so it never blocks on mongo.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Configuration
+@Import({KeyGen.class, ClientSecretGenerator.class, PasswordEncoderConfig.class, ScopeRegistry.class,
+        ScopeSetRequestValidator.class, TokenMetrics.class, AuditLog.class, LoginThrottle.class,
+        MongoConversionConfig.class})
+public class ReactiveServerConfig {
+    private final KeyPairHolder keyPairHolder;
+    private final ScopeRegistry scopeRegistry;
+    private final TokenMetrics tokenMetrics;
+    private final AuditLog auditLog;
+    private final ContextBoundUserService userService = new ContextBoundUserService();
+    private final ClientDetailsService clientService = new ContextBoundClientService();
+
+    public ReactiveServerConfig(KeyPairHolder keyPairHolder,
+                                ScopeRegistry scopeRegistry,
+                                TokenMetrics tokenMetrics,
+                                AuditLog auditLog) {
+        this.keyPairHolder = keyPairHolder;
+        this.scopeRegistry = scopeRegistry;
+        this.tokenMetrics = tokenMetrics;
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Refresh tokens are not issued, the refresh_token grant is only served by the servlet deployment
+     */
+    @Bean
+    public DefaultTokenServices tokenServices() {
+        var tokenServices = new DefaultTokenServices();
+        tokenServices.setSupportRefreshToken(false);
+        tokenServices.setTokenStore(tokenStore());
+        tokenServices.setTokenEnhancer(tokenEnhancerChain());
+        tokenServices.setClientDetailsService(clientService);
+        return tokenServices;
+    }
+
+    @Bean
+    public TokenStore tokenStore() {
+        return new JwtTokenStore(tokenEnhancer());
+    }
+
+    @Bean
+    public OAuth2RequestFactory oAuth2RequestFactory() {
+        return new DefaultOAuth2RequestFactory(clientService);
+    }
+
+    @Bean
+    public TokenEnhancer tokenEnhancerChain() {
+        var tokenEnhancerChain = new TokenEnhancerChain();
+        List<TokenEnhancer> tokenEnhancers =
+                List.of(tokenEnhancer(), idTokenEnhancer(), new AuditingTokenEnhancer(auditLog));
+        tokenEnhancerChain.setTokenEnhancers(tokenEnhancers);
+        return tokenEnhancerChain;
+    }
+
+    @Bean
+    public JwtAccessTokenConverter tokenEnhancer() {
+        var jwtTokenEnhancer = new JwtTokenEnhancer(keyPairHolder);
+        jwtTokenEnhancer.setAccessTokenConverter(accessTokenConverter());
+        jwtTokenEnhancer.setTokenMetrics(tokenMetrics);
+        return jwtTokenEnhancer;
+    }
+
+    @Bean
+    TokenEnhancer idTokenEnhancer() {
+        var idTokenEnhancer = new IdTokenGeneratingTokenEnhancer(
+                userService, idTokenClaimsEnhancer(), keyPairHolder, scopeRegistry);
+        idTokenEnhancer.setAccessTokenConverter(accessTokenConverter());
+        idTokenEnhancer.setTokenMetrics(tokenMetrics);
+        return idTokenEnhancer;
+    }
+
+    @Bean
+    public AccessTokenConverter accessTokenConverter() {
+        return new JwtTokenConverter(jwtClaimsEnhancer());
+    }
+
+    @Bean
+    public JwtClaimsEnhancer jwtClaimsEnhancer() {
+        return new DefaultJwtClaimEnhancer(userService, tokenMetrics);
+    }
+
+    @Bean
+    public IDTokenClaimsEnhancer idTokenClaimsEnhancer() {
+        return new IDTokenEnhancer();
+    }
+}
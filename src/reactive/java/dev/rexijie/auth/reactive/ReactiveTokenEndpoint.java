@@ -0,0 +1,175 @@
+package dev.rexijie.auth.reactive;
+
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.constants.GrantTypes;
+import dev.rexijie.auth.errors.TemporarilyUnavailableException;
+import dev.rexijie.auth.model.AuditEvent;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.throttle.LoginThrottle;
+import dev.rexijie.auth.util.Pkce;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidClientException;
+import org.springframework.security.oauth2.common.exceptions.InvalidRequestException;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.common.exceptions.RedirectMismatchException;
+import org.springframework.security.oauth2.common.exceptions.UnsupportedGrantTypeException;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.OAuth2RequestValidator;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non blocking token endpoint for the client_credentials, password and authorization_code grants.
+ * It follows the rules of spring's token endpoint and granters, but resolves clients, users and codes
+ * with the reactive repositories and only hands the resolved authentication to the token engine.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Slf4j
+@RestController
+public class ReactiveTokenEndpoint {
+    private final ReactiveIdentityService identityService;
+    private final ReactiveTokenIssuer tokenIssuer;
+    private final OAuth2RequestFactory requestFactory;
+    private final OAuth2RequestValidator requestValidator;
+    private final AuditLog auditLog;
+    private final LoginThrottle loginThrottle;
+
+    public ReactiveTokenEndpoint(ReactiveIdentityService identityService,
+                                 ReactiveTokenIssuer tokenIssuer,
+                                 OAuth2RequestFactory requestFactory,
+                                 OAuth2RequestValidator requestValidator,
+                                 AuditLog auditLog,
+                                 LoginThrottle loginThrottle) {
+        this.identityService = identityService;
+        this.tokenIssuer = tokenIssuer;
+        this.requestFactory = requestFactory;
+        this.requestValidator = requestValidator;
+        this.auditLog = auditLog;
+        this.loginThrottle = loginThrottle;
+    }
+
+    @PostMapping(value = "/oauth2/token", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public Mono<ResponseEntity<OAuth2AccessToken>> token(ServerWebExchange exchange) {
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return exchange.getFormData()
+                .map(MultiValueMap::toSingleValueMap)
+                .doOnNext(parameters -> {
+                    // password grants are throttled before the client secret or the password is checked
+                    if (GrantTypes.PASSWORD.equals(parameters.get(OAuth2Utils.GRANT_TYPE)))
+                        loginThrottle.checkAttempt(parameters.get("username"),
+                                remoteAddress == null ? null : remoteAddress.getAddress().getHostAddress());
+                })
+                .flatMap(parameters -> identityService.authenticateClient(parameters, authorization)
+                        .flatMap(client -> grant(new HashMap<>(parameters), client)))
+                .map(token -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .header(HttpHeaders.PRAGMA, "no-cache")
+                        .body(token));
+    }
+
+    @ExceptionHandler(OAuth2Exception.class)
+    public ResponseEntity<OAuth2Exception> handleOAuth2Exception(OAuth2Exception e) {
+        log.debug("token request rejected: {}", e.getMessage());
+        var response = ResponseEntity.status(HttpStatus.valueOf(e.getHttpErrorCode()))
+                .cacheControl(CacheControl.noStore());
+        if (e instanceof TemporarilyUnavailableException)
+            response.header(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(((TemporarilyUnavailableException) e).getRetryAfterSeconds()));
+        return response.body(e);
+    }
+
+    private Mono<OAuth2AccessToken> grant(Map<String, String> parameters, Client client) {
+        String grantType = parameters.get(OAuth2Utils.GRANT_TYPE);
+        if (grantType == null || grantType.isEmpty())
+            return Mono.error(new InvalidRequestException("Missing grant type"));
+        if (!client.getAuthorizedGrantTypes().contains(grantType))
+            return Mono.error(new InvalidClientException("Unauthorized grant type: " + grantType));
+
+        TokenRequest tokenRequest = requestFactory.createTokenRequest(parameters, client);
+        switch (grantType) {
+            case GrantTypes.CLIENT_CREDENTIALS:
+                requestValidator.validateScope(tokenRequest, client);
+                return tokenIssuer.issue(
+                        new OAuth2Authentication(requestFactory.createOAuth2Request(client, tokenRequest), null),
+                        client, null);
+            case GrantTypes.PASSWORD:
+                requestValidator.validateScope(tokenRequest, client);
+                return passwordGrant(parameters, tokenRequest, client);
+            case GrantTypes.AUTHORIZATION_CODE:
+                return authorizationCodeGrant(parameters, client);
+            default:
+                // refresh_token needs the token store and implicit is answered by the authorize endpoint,
+                // both stay with the servlet deployment
+                return Mono.error(new UnsupportedGrantTypeException("Unsupported grant type: " + grantType));
+        }
+    }
+
+    private Mono<OAuth2AccessToken> passwordGrant(Map<String, String> parameters, TokenRequest tokenRequest, Client client) {
+        String username = parameters.get("username");
+        String password = parameters.remove("password");
+        tokenRequest.setRequestParameters(parameters);
+
+        return identityService.authenticateUser(username, password)
+                .flatMap(user -> {
+                    var userAuth = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                    userAuth.setDetails(parameters);
+                    OAuth2Request storedRequest = requestFactory.createOAuth2Request(client, tokenRequest);
+                    return tokenIssuer.issue(new OAuth2Authentication(storedRequest, userAuth), client, user);
+                });
+    }
+
+    private Mono<OAuth2AccessToken> authorizationCodeGrant(Map<String, String> parameters, Client client) {
+        String code = parameters.get("code");
+        String redirectUri = parameters.get(OAuth2Utils.REDIRECT_URI);
+        if (code == null)
+            return Mono.error(new InvalidRequestException("An authorization code must be supplied."));
+
+        return identityService.consumeAuthorizationCode(code)
+                .flatMap(storedAuth -> {
+                    OAuth2Request pendingRequest = storedAuth.getOAuth2Request();
+                    String redirectUriApprovalParameter = pendingRequest.getRequestParameters().get(OAuth2Utils.REDIRECT_URI);
+                    if ((redirectUri != null || redirectUriApprovalParameter != null)
+                            && !pendingRequest.getRedirectUri().equals(redirectUri))
+                        return Mono.error(new RedirectMismatchException("Redirect URI mismatch."));
+                    if (!client.getClientId().equals(pendingRequest.getClientId()))
+                        return Mono.error(new InvalidClientException("Client ID mismatch"));
+                    // the challenge is read before the caller's parameters are merged over the stored ones
+                    Pkce.verifyCodeChallenge(pendingRequest.getRequestParameters(), parameters.get(Pkce.CODE_VERIFIER));
+
+                    Authentication userAuth = storedAuth.getUserAuthentication();
+                    auditLog.record(AuditEvent.Type.CODE_REDEEMED, userAuth.getName(), client.getClientId(),
+                            GrantTypes.AUTHORIZATION_CODE, null);
+
+                    // the scopes were fixed when the code was issued, only the remaining parameters are combined
+                    Map<String, String> combinedParameters = new HashMap<>(pendingRequest.getRequestParameters());
+                    combinedParameters.putAll(parameters);
+                    combinedParameters.remove(Pkce.CODE_VERIFIER);
+                    OAuth2Request finalRequest = pendingRequest.createOAuth2Request(combinedParameters);
+
+                    return identityService.findUser(userAuth.getName())
+                            .flatMap(user -> tokenIssuer.issue(new OAuth2Authentication(finalRequest, userAuth), client, user));
+                });
+    }
+}
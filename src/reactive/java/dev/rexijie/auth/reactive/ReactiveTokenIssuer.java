@@ -0,0 +1,49 @@
+package dev.rexijie.auth.reactive;
+
+import dev.rexijie.auth.metrics.TokenMetrics;
+import dev.rexijie.auth.tokenservices.TokenIssuanceContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AuthorizationServerTokenServices;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs the shared token engine for an authentication that was resolved reactively.
+ * The client and user are put into a {@link TokenIssuanceContext} first, so the engine reads them
+ * from memory and only signs, which is cpu bound work for the parallel scheduler.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@Service
+public class ReactiveTokenIssuer {
+    private final AuthorizationServerTokenServices tokenServices;
+    private final TokenMetrics tokenMetrics;
+
+    public ReactiveTokenIssuer(AuthorizationServerTokenServices tokenServices,
+                               TokenMetrics tokenMetrics) {
+        this.tokenServices = tokenServices;
+        this.tokenMetrics = tokenMetrics;
+    }
+
+    /**
+     * @param user the resolved user, null for client only grants
+     */
+    public Mono<OAuth2AccessToken> issue(OAuth2Authentication authentication, ClientDetails client, UserDetails user) {
+        String grantType = authentication.getOAuth2Request().getGrantType();
+        return Mono.fromCallable(() -> {
+            TokenIssuanceContext context = TokenIssuanceContext.begin();
+            try {
+                context.putClient(client);
+                if (user != null) context.putUser(user);
+                return tokenMetrics.record(TokenMetrics.GRANT, client.getClientId(), grantType,
+                        () -> tokenServices.createAccessToken(authentication));
+            } finally {
+                TokenIssuanceContext.end();
+            }
+        }).subscribeOn(Schedulers.parallel());
+    }
+}
@@ -0,0 +1,93 @@
+package dev.rexijie.auth.reactive;
+
+import dev.rexijie.auth.audit.AuditLog;
+import dev.rexijie.auth.model.AuditEvent;
+import dev.rexijie.auth.tokenservices.openid.IDTokenClaimsEnhancer;
+import dev.rexijie.auth.tokenservices.openid.UserInfoRenderer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non blocking version of {@link dev.rexijie.auth.controller.UserInfoEndpoint}, with the same scope
+ * filtered responses and ETags. The token is verified on the parallel scheduler and the user is read
+ * with the reactive repository.
+ *
+ * @author Rex Ijiekhuamen
+ */
+@RestController
+public class ReactiveUserInfoEndpoint {
+    private final TokenStore tokenStore;
+    private final ReactiveIdentityService identityService;
+    private final AuditLog auditLog;
+    private final UserInfoRenderer userInfoRenderer;
+
+    public ReactiveUserInfoEndpoint(TokenStore tokenStore,
+                                    ReactiveIdentityService identityService,
+                                    AuditLog auditLog,
+                                    IDTokenClaimsEnhancer claimsEnhancer) {
+        this.tokenStore = tokenStore;
+        this.identityService = identityService;
+        this.auditLog = auditLog;
+        this.userInfoRenderer = new UserInfoRenderer(claimsEnhancer);
+    }
+
+    @RequestMapping("/openid/userinfo")
+    public Mono<ResponseEntity<byte[]>> userInfo(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String tokenValue = authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        if (tokenValue == null) return Mono.error(new InvalidTokenException("Token was not recognised"));
+
+        return Mono.fromCallable(() -> readUserAuthentication(tokenValue))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(authentication -> identityService.findUser(authentication.getName())
+                        .onErrorMap(OAuth2Exception.class, e -> new InvalidTokenException("Token was not recognised"))
+                        .map(user -> userInfoRenderer.render(user,
+                                UserInfoRenderer.scopeMask(authentication.getOAuth2Request().getScope()))))
+                .map(userInfo -> {
+                    CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+                    if (userInfo.matches(ifNoneMatch))
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(userInfo.getEtag()).cacheControl(cacheControl).build();
+                    return ResponseEntity.ok()
+                            .eTag(userInfo.getEtag())
+                            .cacheControl(cacheControl)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(userInfo.getBody());
+                });
+    }
+
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<OAuth2Exception> handleException(InvalidTokenException e) {
+        auditLog.record(AuditEvent.Type.TOKEN_REJECTED, null, null, null, "/openid/userinfo");
+        // same as the servlet endpoint, invalid tokens are answered with a 400
+        return ResponseEntity.badRequest()
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(new InvalidTokenException(e.getMessage()));
+    }
+
+    private OAuth2Authentication readUserAuthentication(String tokenValue) {
+        OAuth2AccessToken token = tokenStore.readAccessToken(tokenValue);
+        if (token == null) throw new InvalidTokenException("Token was not recognised");
+        if (token.isExpired()) throw new InvalidTokenException("Token has expired");
+
+        OAuth2Authentication authentication = tokenStore.readAuthentication(token);
+        if (authentication == null || authentication.isClientOnly())
+            throw new InvalidTokenException("Token was not issued to a user");
+        return authentication;
+    }
+}
@@ -0,0 +1,9 @@
+package dev.rexijie.auth.reactive.repository;
+
+import dev.rexijie.auth.model.client.Client;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveClientRepository extends ReactiveMongoRepository<Client, String> {
+    Mono<Client> findByClientId(String clientId);
+}
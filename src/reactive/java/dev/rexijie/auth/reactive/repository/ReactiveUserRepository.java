@@ -0,0 +1,9 @@
+package dev.rexijie.auth.reactive.repository;
+
+import dev.rexijie.auth.model.User;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+    Mono<User> findByUsername(String username);
+}
@@ -0,0 +1,96 @@
+package dev.rexijie.auth.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTests {
+
+    @Test
+    void roundsTheCapacityUpToAPowerOfTwo() {
+        assertEquals(4, new AuditRingBuffer<>(3).capacity());
+        assertEquals(8, new AuditRingBuffer<>(8).capacity());
+        assertEquals(16, new AuditRingBuffer<>(9).capacity());
+    }
+
+    @Test
+    void refusesOffersWhenFull() {
+        var buffer = new AuditRingBuffer<Integer>(4);
+        for (int i = 0; i < 4; i++)
+            assertTrue(buffer.offer(i));
+        assertFalse(buffer.offer(4));
+
+        // draining frees the slots again
+        assertEquals(1, buffer.drain(element -> {}, 1));
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+    }
+
+    @Test
+    void drainsInOrderUpToMax() {
+        var buffer = new AuditRingBuffer<Integer>(8);
+        for (int i = 0; i < 5; i++)
+            buffer.offer(i);
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drain(drained::add, 3));
+        assertEquals(2, buffer.drain(drained::add, 10));
+        assertEquals(0, buffer.drain(drained::add, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+    }
+
+    @Test
+    void keepsOrderOverManyLaps() {
+        var buffer = new AuditRingBuffer<Integer>(4);
+        List<Integer> drained = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(buffer.offer(i));
+            if (i % 3 == 2) buffer.drain(drained::add, 4);
+        }
+        buffer.drain(drained::add, 4);
+
+        assertEquals(100, drained.size());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i, drained.get(i));
+    }
+
+    @Test
+    void drainsEveryElementOfConcurrentProducers() throws InterruptedException {
+        var buffer = new AuditRingBuffer<Integer>(64);
+        int producers = 4;
+        int perProducer = 10000;
+        var start = new CountDownLatch(1);
+        var refused = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            var thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    if (!buffer.offer(i)) refused.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        var drained = new AtomicInteger();
+        start.countDown();
+        while (threads.stream().anyMatch(Thread::isAlive))
+            drained.addAndGet(buffer.drain(element -> {}, 64));
+        for (Thread thread : threads)
+            thread.join();
+        drained.addAndGet(buffer.drain(element -> {}, 64));
+
+        // every offer either failed or was handed to the consumer exactly once
+        assertEquals(producers * perProducer, drained.get() + refused.get());
+    }
+}
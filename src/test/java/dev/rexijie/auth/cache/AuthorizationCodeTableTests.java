@@ -0,0 +1,86 @@
+package dev.rexijie.auth.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthorizationCodeTableTests {
+    private static final long TICK = 1_000;
+    private static final long TTL = 10 * TICK;
+
+    private final OAuth2Authentication authentication = new OAuth2Authentication(
+            new OAuth2Request(Map.of(), "client", List.of(), true, Set.of("openid"), Set.of(), null, Set.of(), Map.of()),
+            null);
+
+    @Test
+    void redeemsACodeOnlyOnce() {
+        var table = new AuthorizationCodeTable(TTL, TICK, 10, 4, 0);
+        assertTrue(table.put("code", authentication, TTL));
+
+        var redeemed = table.remove("code", TICK);
+        assertSame(authentication, redeemed.getAuthentication());
+        assertEquals(TTL, redeemed.getExpiresAt());
+        assertNull(table.remove("code", TICK));
+        assertNull(table.remove("unknown", TICK));
+    }
+
+    @Test
+    void refusesExpiredCodes() {
+        var table = new AuthorizationCodeTable(TTL, TICK, 10, 4, 0);
+        table.put("code", authentication, TTL);
+        assertNull(table.remove("code", TTL));
+    }
+
+    @Test
+    void expiresOnlyCodesThatWereNotRedeemed() {
+        var table = new AuthorizationCodeTable(TTL, TICK, 10, 4, 0);
+        table.put("redeemed", authentication, TTL);
+        table.put("pending", authentication, TTL);
+        table.remove("redeemed", TICK);
+
+        List<String> expired = new ArrayList<>();
+        table.expire(TTL - TICK, expired::add);
+        assertTrue(expired.isEmpty());
+        assertEquals(2, table.size());
+
+        table.expire(TTL, expired::add);
+        assertEquals(List.of("pending"), expired);
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void refusesCodesOverCapacityUntilTheyExpire() {
+        var table = new AuthorizationCodeTable(TTL, TICK, 2, 4, 0);
+        assertTrue(table.put("first", authentication, TTL));
+        assertTrue(table.put("second", authentication, TTL));
+        assertFalse(table.put("third", authentication, TTL));
+
+        // a redeemed code holds its place until its slot is emptied
+        table.remove("first", TICK);
+        assertFalse(table.put("third", authentication, TTL));
+
+        table.expire(TTL, code -> {});
+        assertTrue(table.put("third", authentication, 2 * TTL));
+    }
+
+    @Test
+    void aCodePutBackKeepsItsExpiry() {
+        var table = new AuthorizationCodeTable(TTL, TICK, 10, 4, 0);
+        table.put("code", authentication, TTL);
+        var removed = table.remove("code", TICK);
+        assertTrue(table.put("code", removed.getAuthentication(), removed.getExpiresAt()));
+
+        List<String> expired = new ArrayList<>();
+        table.expire(TTL, expired::add);
+        assertEquals(List.of("code"), expired);
+        assertEquals(0, table.size());
+        assertNull(table.remove("code", TTL));
+    }
+}
@@ -0,0 +1,36 @@
+package dev.rexijie.auth.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keys must be remembered for at least the window and forgotten once their bucket is reused
+ */
+class TimeBucketedBloomFilterTests {
+    private static final long WINDOW = 60_000;
+
+    private final TimeBucketedBloomFilter filter =
+            TimeBucketedBloomFilter.sized(100, WINDOW, 4, 0.000001, 1024 * 1024, 0);
+
+    @Test
+    void remembersKeysForTheWindow() {
+        assertFalse(filter.put("client\nnonce", 0));
+        assertTrue(filter.put("client\nnonce", 1));
+        assertTrue(filter.put("client\nnonce", WINDOW));
+        assertFalse(filter.put("client\nother", WINDOW));
+    }
+
+    @Test
+    void forgetsKeysAfterTheirBucketIsReused() {
+        assertFalse(filter.put("client\nnonce", 0));
+        long afterWindow = filter.getBucketMillis() * filter.getBuckets();
+        assertFalse(filter.put("client\nnonce", afterWindow));
+    }
+
+    @Test
+    void staysWithinTheMemoryBound() {
+        TimeBucketedBloomFilter bounded = TimeBucketedBloomFilter.sized(1_000_000, WINDOW, 4, 0.000001, 4096, 0);
+        assertTrue(bounded.sizeInBytes() <= 4096);
+    }
+}
@@ -0,0 +1,124 @@
+package dev.rexijie.auth.config.session;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.Cookie;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptedCookieSessionAttributeStoreTests {
+    private static final String ATTRIBUTE = "authorizationRequest";
+    private static final String COOKIE = "OAUTH2_AUTHZ";
+    private static final int MAX_AGE_SECONDS = 600;
+
+    private final BytesEncryptor encryptor = Encryptors.stronger("secret", "5c0744940b5c369b");
+    private final Clock clock = Clock.fixed(Instant.parse("2020-09-09T10:00:00Z"), ZoneOffset.UTC);
+    private final EncryptedCookieSessionAttributeStore store = storeAt(clock);
+    private final HashMap<String, String> value = new HashMap<>(Map.of("client_id", "client", "state", "xyz"));
+
+    @Test
+    void readsTheValueBackOnAnotherRequest() {
+        Cookie cookie = stored("alice");
+
+        assertEquals(MAX_AGE_SECONDS, cookie.getMaxAge());
+        assertTrue(cookie.isHttpOnly());
+        assertEquals(value, store.retrieveAttribute(requestWith(cookie, "alice"), ATTRIBUTE));
+    }
+
+    @Test
+    void discardsATamperedCookie() {
+        Cookie cookie = stored("alice");
+        char[] chars = cookie.getValue().toCharArray();
+        int middle = chars.length / 2;
+        chars[middle] = chars[middle] == 'A' ? 'B' : 'A';
+
+        var tampered = new Cookie(COOKIE, new String(chars));
+        assertNull(store.retrieveAttribute(requestWith(tampered, "alice"), ATTRIBUTE));
+    }
+
+    @Test
+    void discardsAnExpiredCookie() {
+        Cookie cookie = stored("alice");
+
+        var justValid = storeAt(Clock.offset(clock, Duration.ofSeconds(MAX_AGE_SECONDS)));
+        assertEquals(value, justValid.retrieveAttribute(requestWith(cookie, "alice"), ATTRIBUTE));
+
+        var expired = storeAt(Clock.offset(clock, Duration.ofSeconds(MAX_AGE_SECONDS + 1)));
+        assertNull(expired.retrieveAttribute(requestWith(cookie, "alice"), ATTRIBUTE));
+    }
+
+    @Test
+    void discardsACookieOfAnotherUser() {
+        Cookie cookie = stored("alice");
+
+        assertNull(store.retrieveAttribute(requestWith(cookie, "bob"), ATTRIBUTE));
+        assertNull(store.retrieveAttribute(requestWith(cookie, null), ATTRIBUTE));
+    }
+
+    @Test
+    void discardsACookieSealedForAnotherAttribute() {
+        Cookie cookie = stored("alice");
+        var store = new EncryptedCookieSessionAttributeStore(encryptor,
+                Map.of(ATTRIBUTE, COOKIE, "originalAuthorizationRequest", "OAUTH2_AUTHZ_ORIG"), MAX_AGE_SECONDS, clock);
+
+        var replayed = new Cookie("OAUTH2_AUTHZ_ORIG", cookie.getValue());
+        assertNull(store.retrieveAttribute(requestWith(replayed, "alice"), "originalAuthorizationRequest"));
+    }
+
+    @Test
+    void cleanupExpiresTheCookie() {
+        var request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        store.cleanupAttribute(request, ATTRIBUTE);
+
+        Cookie cookie = ((MockHttpServletResponse) request.getResponse()).getCookie(COOKIE);
+        assertNotNull(cookie);
+        assertEquals(0, cookie.getMaxAge());
+    }
+
+    @Test
+    void keepsUnmappedAttributesInTheSession() {
+        var servletRequest = new MockHttpServletRequest();
+        var request = new ServletWebRequest(servletRequest, new MockHttpServletResponse());
+        store.storeAttribute(request, "other", "value");
+
+        assertEquals("value", servletRequest.getSession().getAttribute("other"));
+        assertEquals(0, ((MockHttpServletResponse) request.getResponse()).getCookies().length);
+    }
+
+    private EncryptedCookieSessionAttributeStore storeAt(Clock clock) {
+        return new EncryptedCookieSessionAttributeStore(encryptor, Map.of(ATTRIBUTE, COOKIE), MAX_AGE_SECONDS, clock);
+    }
+
+    private Cookie stored(String username) {
+        var request = new ServletWebRequest(requestOf(username), new MockHttpServletResponse());
+        store.storeAttribute(request, ATTRIBUTE, value);
+        Cookie cookie = ((MockHttpServletResponse) request.getResponse()).getCookie(COOKIE);
+        assertNotNull(cookie);
+        return cookie;
+    }
+
+    private ServletWebRequest requestWith(Cookie cookie, String username) {
+        MockHttpServletRequest request = requestOf(username);
+        request.setCookies(cookie);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private MockHttpServletRequest requestOf(String username) {
+        var request = new MockHttpServletRequest();
+        if (username != null)
+            request.setUserPrincipal(new UsernamePasswordAuthenticationToken(username, null));
+        return request;
+    }
+}
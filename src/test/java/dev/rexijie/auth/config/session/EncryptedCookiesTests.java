@@ -0,0 +1,50 @@
+package dev.rexijie.auth.config.session;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.encrypt.Encryptors;
+
+import javax.servlet.http.Cookie;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptedCookiesTests {
+    private final BytesEncryptor encryptor = Encryptors.stronger("secret", "5c0744940b5c369b");
+    private final EncryptedCookies login = new EncryptedCookies(encryptor, "OAUTH2_LOGIN", 3600);
+    private final EncryptedCookies returnTo = new EncryptedCookies(encryptor, "OAUTH2_LOGIN_RETURN", 600);
+
+    @Test
+    void readsTheSealedValueBack() {
+        Cookie cookie = written(login, "alice");
+
+        var request = new MockHttpServletRequest();
+        request.setCookies(cookie);
+        assertArrayEquals("alice".getBytes(StandardCharsets.UTF_8), login.read(request));
+    }
+
+    @Test
+    void refusesAValueSealedForAnotherCookie() {
+        Cookie cookie = written(returnTo, "https://client.example.com/callback");
+
+        var request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("OAUTH2_LOGIN", cookie.getValue()));
+        assertNull(login.read(request));
+    }
+
+    @Test
+    void refusesAnUnreadableValue() {
+        var request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("OAUTH2_LOGIN", "not-sealed"));
+        assertTrue(login.isPresent(request));
+        assertNull(login.read(request));
+    }
+
+    private static Cookie written(EncryptedCookies cookies, String value) {
+        var response = new MockHttpServletResponse();
+        cookies.write(new MockHttpServletRequest(), response, value.getBytes(StandardCharsets.UTF_8));
+        return response.getCookies()[0];
+    }
+}
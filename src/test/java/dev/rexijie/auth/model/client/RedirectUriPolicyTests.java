@@ -0,0 +1,80 @@
+package dev.rexijie.auth.model.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedirectUriPolicyTests {
+
+    @Test
+    void matchesExactUrisIgnoringTheCaseOfSchemeAndHost() {
+        var policy = new RedirectUriPolicy(List.of("https://app.example.com/callback"));
+        assertTrue(policy.matches("https://app.example.com/callback"));
+        assertTrue(policy.matches("HTTPS://App.Example.com/callback"));
+        assertFalse(policy.matches("https://app.example.com/Callback"));
+        assertFalse(policy.matches("https://app.example.com/callback/other"));
+        assertFalse(policy.matches("https://app.example.com/callback#fragment"));
+        assertEquals("https://app.example.com/callback", policy.getSingleUri());
+    }
+
+    @Test
+    void requiresTheRegisteredQuery() {
+        var policy = new RedirectUriPolicy(List.of("https://app.example.com/callback?tenant=a"));
+        assertTrue(policy.matches("https://app.example.com/callback?tenant=a&state=1"));
+        assertFalse(policy.matches("https://app.example.com/callback?tenant=b"));
+        assertFalse(policy.matches("https://app.example.com/callback"));
+    }
+
+    @Test
+    void matchesPrefixes() {
+        var policy = new RedirectUriPolicy(List.of("https://app.example.com/cb/*"));
+        assertTrue(policy.matches("https://app.example.com/cb/one"));
+        assertTrue(policy.matches("https://app.example.com/cb/one/two?x=1"));
+        assertFalse(policy.matches("https://app.example.com/other"));
+        assertFalse(policy.matches("https://app.example.com.evil.com/cb/one"));
+        assertNull(policy.getSingleUri());
+    }
+
+    @Test
+    void refusesDotSegmentsUnderAPrefix() {
+        var policy = new RedirectUriPolicy(List.of("https://app.example.com/cb/*"));
+        assertFalse(policy.matches("https://app.example.com/cb/../evil"));
+        assertFalse(policy.matches("https://app.example.com/cb/./x"));
+        assertFalse(policy.matches("https://app.example.com/cb/..\\evil"));
+        assertFalse(policy.matches("https://app.example.com/cb/%2e%2e/evil"));
+        assertFalse(policy.matches("https://app.example.com/cb/%2E./evil"));
+        assertFalse(policy.matches("https://app.example.com/cb/..%2fevil"));
+        assertFalse(policy.matches("https://app.example.com/cb/..%5Cevil"));
+        assertTrue(policy.matches("https://app.example.com/cb/file..name"));
+        assertTrue(policy.matches("https://app.example.com/cb/one?next=%2e%2e"));
+    }
+
+    @Test
+    void neverMatchesRegularExpressions() {
+        var policy = new RedirectUriPolicy(List.of("regex:https://[a-z]+\\.example\\.com/cb"));
+        assertTrue(policy.isEmpty());
+        assertFalse(policy.matches("https://tenant.example.com/cb"));
+        assertFalse(policy.matches("regex:https://[a-z]+\\.example\\.com/cb"));
+        assertNull(policy.getSingleUri());
+    }
+
+    @Test
+    void validatesPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> RedirectUriPolicy.validate("regex:https://.*"));
+        assertThrows(IllegalArgumentException.class, () -> RedirectUriPolicy.validate("https://app.example.com*"));
+        RedirectUriPolicy.validate("https://app.example.com/cb/*");
+    }
+
+    @Test
+    void clientRecompilesItsPolicyWhenItsUrisAreReplaced() {
+        var client = new Client("app", ClientTypes.CONFIDENTIAL, ClientProfiles.WEB);
+        client.setRegisteredRedirectUri(Set.of("https://app.example.com/cb"));
+        assertTrue(client.getRedirectUriPolicy().matches("https://app.example.com/cb"));
+
+        client.setRegisteredRedirectUri(Set.of());
+        assertTrue(client.getRedirectUriPolicy().isEmpty());
+    }
+}
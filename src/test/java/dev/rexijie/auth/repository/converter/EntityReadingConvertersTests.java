@@ -0,0 +1,162 @@
+package dev.rexijie.auth.repository.converter;
+
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.authority.Authority;
+import dev.rexijie.auth.model.authority.AuthorityEnum;
+import dev.rexijie.auth.model.authority.Role;
+import dev.rexijie.auth.model.authority.RoleEnum;
+import dev.rexijie.auth.model.client.Client;
+import dev.rexijie.auth.model.client.ClientProfiles;
+import dev.rexijie.auth.model.client.ClientTypes;
+import dev.rexijie.auth.model.token.AuthorizationToken;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Documents written by the default reflective mapping must read back to equal entities
+ * through the hand written converters
+ */
+class EntityReadingConvertersTests {
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    private MappingMongoConverter reflectiveConverter;
+    private MappingMongoConverter customConverter;
+
+    @BeforeEach
+    void setUp() {
+        reflectiveConverter = converter(new MongoCustomConversions(List.of()));
+        customConverter = converter(new MongoCustomConversions(EntityReadingConverters.getConvertersToRegister()));
+    }
+
+    @Test
+    void readsUsers() {
+        var user = new User("rexijie", "$2a$10$hash", role());
+        user.setId("3c2a6a4e-2f0b-4d5c-9a53-9e1b0c6f4d11");
+        user.setCreatedAt(NOW);
+        user.setUpdatedAt(NOW.plusMinutes(5));
+        user.setEnabled(true);
+        user.setAccountNonExpired(true);
+        user.setAccountNonLocked(true);
+        user.setCredentialsNonExpired(false);
+
+        User read = roundTrip(user, User.class);
+        assertEquals(user, read);
+        assertTrue(read.isEnabled());
+        assertFalse(read.isCredentialsNonExpired());
+        assertEquals(user.getPassword(), read.getPassword());
+    }
+
+    @Test
+    void readsRoles() {
+        var role = role();
+        role.setId(new ObjectId().toHexString());
+
+        assertEquals(role, roundTrip(role, Role.class));
+    }
+
+    @Test
+    void readsClients() {
+        var client = new Client("web client", ClientTypes.CONFIDENTIAL, ClientProfiles.WEB);
+        client.setClientId("web-client");
+        client.setClientSecret("$2a$10$secret");
+        client.setScope(Set.of("openid", "profile", "read"));
+        client.setResourceIds(Set.of("api"));
+        client.setAuthorizedGrantTypes(Set.of("authorization_code", "refresh_token"));
+        client.setAutoApproveScopes(Set.of("openid"));
+        client.setRegisteredRedirectUri(Set.of("http://localhost:8080/callback", "https://client.example.com/*"));
+        client.setAuthorities(List.of(new Authority(AuthorityEnum.CAN_CREATE), new SimpleGrantedAuthority("ROLE_CLIENT")));
+        client.setAccessTokenValiditySeconds(600);
+        client.setAdditionalInformation(Map.of("tenant", "acme", "limits", Map.of("rps", 50)));
+        client.setDefaultMaxAge(3600);
+        client.setRequireAuthTime(true);
+        client.setReuseAccessTokens(true);
+        client.setCreatedAt(NOW);
+
+        Client read = roundTrip(client, Client.class);
+        assertEquals(client, read);
+        assertEquals(client.getAuthorities(), read.getAuthorities());
+        assertEquals(client.getAdditionalInformation(), read.getAdditionalInformation());
+        assertNull(read.getRefreshTokenValiditySeconds());
+        assertTrue(read.getRedirectUriPolicy().matches("https://client.example.com/app/callback"));
+        assertTrue(read.isReuseAccessTokens());
+        assertEquals(3600, read.getDefaultMaxAge());
+    }
+
+    @Test
+    void readsClientProjections() {
+        var client = new Client("listed client", ClientTypes.PUBLIC, ClientProfiles.USER_AGENT_APPLICATION);
+        client.setClientId("listed-client");
+        client.setClientSecret("$2a$10$secret");
+        client.setScope(Set.of("read"));
+
+        var document = new Document();
+        reflectiveConverter.write(client, document);
+        document.keySet().retainAll(Set.of("_id", "clientId", "clientName", "clientType"));
+
+        Client read = customConverter.read(Client.class, document);
+        assertEquals(client.getClientId(), read.getClientId());
+        assertEquals(client.getClientType(), read.getClientType());
+        assertNull(read.getClientSecret());
+        assertTrue(read.getScope().isEmpty());
+    }
+
+    @Test
+    void readsAuthorizationTokens() {
+        var token = AuthorizationToken.builder()
+                .authentication(new byte[]{1, 2, 3, 4})
+                .username("rexijie")
+                .code("a1b2c3")
+                .used(true)
+                .expiresAt(NOW.plusMinutes(10))
+                .build();
+        token.setId("code-id");
+        token.setCreatedAt(NOW);
+
+        assertEquals(token, roundTrip(token, AuthorizationToken.class));
+    }
+
+    // writes the entity the way mongo template does and reads it back as the driver decodes it
+    private <T> T roundTrip(T entity, Class<T> type) {
+        var written = new Document();
+        reflectiveConverter.write(entity, written);
+        var codec = new DocumentCodec();
+        Document stored = new RawBsonDocument(written, codec).decode(codec);
+
+        T expected = reflectiveConverter.read(type, stored);
+        T read = customConverter.read(type, stored);
+        assertEquals(expected, read);
+        return read;
+    }
+
+    private Role role() {
+        return new Role(RoleEnum.ADMIN, List.of(new Authority(AuthorityEnum.CAN_CREATE),
+                new Authority(AuthorityEnum.CAN_VIEW)));
+    }
+
+    private static MappingMongoConverter converter(MongoCustomConversions conversions) {
+        var mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,74 @@
+package dev.rexijie.auth.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTableTests {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void startsFullAndRefusesOnceEmpty() {
+        var table = new TokenBucketTable(3, 60, 100, 1);
+        for (int i = 0; i < 3; i++)
+            assertEquals(0, table.tryAcquire("key", 0));
+        assertEquals(SECOND, table.tryAcquire("key", 0));
+        // buckets are independent
+        assertEquals(0, table.tryAcquire("other", 0));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        var table = new TokenBucketTable(3, 60, 100, 1);
+        for (int i = 0; i < 3; i++)
+            table.tryAcquire("key", 0);
+
+        assertEquals(SECOND / 2, table.tryAcquire("key", SECOND / 2));
+        assertEquals(0, table.tryAcquire("key", SECOND));
+        assertEquals(SECOND, table.tryAcquire("key", SECOND));
+
+        // a bucket never holds more than its capacity however long it was idle
+        long later = 60 * SECOND;
+        for (int i = 0; i < 3; i++)
+            assertEquals(0, table.tryAcquire("key", later));
+        assertTrue(table.tryAcquire("key", later) > 0);
+    }
+
+    @Test
+    void waitTimeDoesNotTakeATokenOrRememberTheKey() {
+        var table = new TokenBucketTable(2, 60, 100, 1);
+        assertEquals(0, table.waitTime("key", 0));
+        assertEquals(0, table.size());
+
+        table.tryAcquire("key", 0);
+        assertEquals(0, table.waitTime("key", 0));
+        assertEquals(0, table.waitTime("key", 0));
+        table.tryAcquire("key", 0);
+        assertEquals(SECOND, table.waitTime("key", 0));
+        assertEquals(SECOND / 2, table.waitTime("key", SECOND / 2));
+        assertEquals(0, table.waitTime("key", SECOND));
+    }
+
+    @Test
+    void evictsIdleKeysWhenAStripeIsFull() {
+        var table = new TokenBucketTable(3, 60, 2, 1);
+        table.tryAcquire("a", 0);
+        table.tryAcquire("b", 0);
+        assertEquals(2, table.size());
+
+        // both buckets are full again after a second
+        table.tryAcquire("c", 2 * SECOND);
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void staysBoundedWhenEveryKeyIsActive() {
+        var table = new TokenBucketTable(3, 60, 2, 1);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, table.tryAcquire("key-" + i, 0));
+            assertTrue(table.size() <= 2);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package dev.rexijie.auth.tokenservices;
+
+import dev.rexijie.auth.cache.InMemoryNonceStore;
+import dev.rexijie.auth.config.NonceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NonceReplayDetectorTests {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void refusesANonceReusedByTheSameClient() {
+        var detector = detector(properties(0.000001, 1024 * 1024));
+
+        assertFalse(detector.isReplay("client", "nonce"));
+        assertTrue(detector.isReplay("client", "nonce"));
+        assertFalse(detector.isReplay("other-client", "nonce"));
+        assertEquals(1, registry.counter("oauth2.nonce.replays").count());
+    }
+
+    @Test
+    void acceptsFirstUsesTheFiltersReportAsSeen() {
+        // 64 bits per bucket, the filters report most nonces as seen long before these are added
+        var detector = detector(properties(0.5, 16));
+
+        for (int i = 0; i < 500; i++)
+            assertFalse(detector.isReplay("client", "nonce-" + i), "nonce-" + i + " was used once");
+
+        assertTrue(registry.counter("oauth2.nonce.false-positives").count() > 0);
+        assertEquals(0, registry.counter("oauth2.nonce.replays").count());
+        assertTrue(detector.isReplay("client", "nonce-0"));
+    }
+
+    @Test
+    void acceptsEverythingWhenDisabled() {
+        var properties = properties(0.000001, 1024 * 1024);
+        properties.setEnabled(false);
+        var detector = detector(properties);
+
+        assertFalse(detector.isReplay("client", "nonce"));
+        assertFalse(detector.isReplay("client", "nonce"));
+    }
+
+    private NonceReplayDetector detector(NonceProperties properties) {
+        return new NonceReplayDetector(properties, new InMemoryNonceStore(10000), registry);
+    }
+
+    private static NonceProperties properties(double falsePositiveRate, long maxFilterBytes) {
+        var properties = new NonceProperties();
+        properties.setBuckets(2);
+        properties.setExpectedRatePerSecond(1);
+        properties.setFalsePositiveRate(falsePositiveRate);
+        properties.setMaxFilterBytes(maxFilterBytes);
+        return properties;
+    }
+}
@@ -0,0 +1,85 @@
+package dev.rexijie.auth.tokenservices;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenIssuanceContextTests {
+    private final AtomicInteger clientLoads = new AtomicInteger();
+    private final AtomicInteger userLoads = new AtomicInteger();
+
+    private final Function<String, ClientDetails> clientLoader = clientId -> {
+        clientLoads.incrementAndGet();
+        return new BaseClientDetails(clientId, null, "openid", "authorization_code", null);
+    };
+    private final Function<String, UserDetails> userLoader = username -> {
+        userLoads.incrementAndGet();
+        return User.withUsername(username).password("password").roles("USER").build();
+    };
+
+    @AfterEach
+    void unbind() {
+        TokenIssuanceContext.end();
+    }
+
+    @Test
+    void loadsEachEntityOnce() {
+        var context = TokenIssuanceContext.begin();
+        for (int i = 0; i < 3; i++) {
+            context.client("client", clientLoader);
+            context.user("user", userLoader);
+        }
+
+        assertEquals(1, clientLoads.get());
+        assertEquals(1, userLoads.get());
+        assertEquals(1, context.getLoadCount("client", "client"));
+        assertEquals(1, context.getLoadCount("user", "user"));
+        assertEquals(6, context.getLookupCount());
+        assertEquals(2, context.getTotalLoadCount());
+    }
+
+    @Test
+    void usesEntitiesResolvedBeforeTheContextWasBound() {
+        var context = TokenIssuanceContext.begin();
+        context.putClient(clientLoader.apply("client"));
+        context.putUser(userLoader.apply("user"));
+
+        context.client("client", clientLoader);
+        context.user("user", userLoader);
+        assertEquals(0, context.getTotalLoadCount());
+    }
+
+    @Test
+    void reloadsAnEvictedEntity() {
+        var context = TokenIssuanceContext.begin();
+        context.user("user", userLoader);
+        context.evictUser("user");
+        context.user("user", userLoader);
+
+        assertEquals(2, userLoads.get());
+        assertEquals(1, context.getLoadCount("user", "user"));
+    }
+
+    @Test
+    void remembersEntitiesThatWereNotFound() {
+        var context = TokenIssuanceContext.begin();
+        AtomicInteger misses = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertNull(context.client("missing", clientId -> {
+                misses.incrementAndGet();
+                return null;
+            }));
+        }
+
+        assertEquals(1, misses.get());
+        assertEquals(1, context.getLoadCount("client", "missing"));
+    }
+}
@@ -0,0 +1,90 @@
+package dev.rexijie.auth.tokenservices.openid;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rexijie.auth.model.OidcAddress;
+import dev.rexijie.auth.model.User;
+import dev.rexijie.auth.model.UserInfo;
+import dev.rexijie.auth.tokenservices.openid.UserInfoRenderer.RenderedUserInfo;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import static dev.rexijie.auth.constants.Claims.OpenIdClaims.ADDRESS_CLAIM;
+import static dev.rexijie.auth.constants.Claims.OpenIdClaims.EMAIL_CLAIM;
+import static dev.rexijie.auth.constants.Claims.OpenIdClaims.GIVEN_NAME_CLAIM;
+import static dev.rexijie.auth.constants.Claims.OpenIdClaims.PHONE_CLAIM;
+import static dev.rexijie.auth.constants.Scopes.IDTokenScopes.ADDRESS;
+import static dev.rexijie.auth.constants.Scopes.IDTokenScopes.EMAIL;
+import static dev.rexijie.auth.constants.Scopes.IDTokenScopes.PHONE;
+import static dev.rexijie.auth.constants.Scopes.IDTokenScopes.PROFILE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserInfoRendererTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserInfoRenderer renderer = new UserInfoRenderer(new IDTokenEnhancer());
+    private final User user = user();
+
+    @Test
+    void reducesScopesToAMask() {
+        assertEquals(0, UserInfoRenderer.scopeMask(null));
+        assertEquals(0, UserInfoRenderer.scopeMask(Set.of("openid", "read")));
+        assertEquals(UserInfoRenderer.SCOPE_COMBINATIONS - 1,
+                UserInfoRenderer.scopeMask(Set.of("openid", PROFILE, EMAIL, PHONE, ADDRESS)));
+        assertNotEquals(UserInfoRenderer.scopeMask(Set.of(EMAIL)), UserInfoRenderer.scopeMask(Set.of(PHONE)));
+    }
+
+    @Test
+    void rendersOnlyTheSubjectWithoutClaimScopes() throws IOException {
+        var claims = claims(renderer.render(user, UserInfoRenderer.scopeMask(Set.of("openid"))));
+        assertEquals(Map.of("sub", "alice"), claims);
+    }
+
+    @Test
+    void rendersTheClaimsOfEachGrantedScope() throws IOException {
+        var email = claims(renderer.render(user, UserInfoRenderer.scopeMask(Set.of(EMAIL))));
+        assertEquals("alice@example.com", email.get(EMAIL_CLAIM));
+        assertFalse(email.containsKey(GIVEN_NAME_CLAIM));
+        assertFalse(email.containsKey(PHONE_CLAIM));
+        assertFalse(email.containsKey(ADDRESS_CLAIM));
+
+        var profileAndAddress = claims(renderer.render(user, UserInfoRenderer.scopeMask(Set.of(PROFILE, ADDRESS))));
+        assertEquals("Alice", profileAndAddress.get(GIVEN_NAME_CLAIM));
+        assertEquals(Map.of("locality", "Lagos", "country", "NG"), profileAndAddress.get(ADDRESS_CLAIM));
+        assertFalse(profileAndAddress.containsKey(EMAIL_CLAIM));
+        assertFalse(profileAndAddress.containsKey(PHONE_CLAIM));
+    }
+
+    @Test
+    void givesEachResponseItsOwnEntityTag() {
+        RenderedUserInfo email = renderer.render(user, UserInfoRenderer.scopeMask(Set.of(EMAIL)));
+        RenderedUserInfo phone = renderer.render(user, UserInfoRenderer.scopeMask(Set.of(PHONE)));
+
+        assertNotEquals(email.getEtag(), phone.getEtag());
+        assertEquals(email.getEtag(), renderer.render(user, UserInfoRenderer.scopeMask(Set.of(EMAIL))).getEtag());
+        assertTrue(email.matches("W/\"other\", " + email.getEtag()));
+        assertFalse(email.matches(phone.getEtag()));
+        assertFalse(email.matches(null));
+    }
+
+    private Map<String, Object> claims(RenderedUserInfo rendered) throws IOException {
+        return objectMapper.readValue(rendered.getBody(), new TypeReference<Map<String, Object>>() {
+        });
+    }
+
+    private static User user() {
+        var user = new User("alice", "password", null);
+        user.setUserInfo(UserInfo.builder()
+                .firstName("Alice")
+                .lastName("Smith")
+                .username("alice")
+                .email("alice@example.com")
+                .emailVerified(true)
+                .phoneNumber("+2348000000000")
+                .address(OidcAddress.builder().locality("Lagos").country("NG").build())
+                .build());
+        return user;
+    }
+}
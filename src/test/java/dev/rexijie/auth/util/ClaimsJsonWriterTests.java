@@ -0,0 +1,43 @@
+package dev.rexijie.auth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimsJsonWriterTests {
+    private static final Instant TIME = Instant.ofEpochMilli(1_600_000_000_123L);
+
+    @Test
+    void writesClaimsInTheirCompliantFormats() {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", "user");
+        claims.put("iat", TIME);
+        claims.put("updated_at", Date.from(TIME));
+        claims.put("birthdate", LocalDate.of(1990, 1, 31));
+        claims.put("email_verified", true);
+        claims.put("nonce", null);
+
+        assertEquals("{\"sub\":\"user\",\"iat\":1600000000,\"updated_at\":1600000000123," +
+                "\"birthdate\":\"1990-01-31\",\"email_verified\":true}", ClaimsJsonWriter.write(claims));
+    }
+
+    @Test
+    void normalizesLikeItWrites() {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iat", TIME);
+        claims.put("updated_at", Date.from(TIME));
+        claims.put("nonce", null);
+
+        var normalized = ClaimsJsonWriter.normalize(claims);
+        assertEquals(1_600_000_000L, normalized.get("iat"));
+        // dates keep the millisecond format jackson has always written them in
+        assertEquals(Date.from(TIME), normalized.get("updated_at"));
+        assertFalse(normalized.containsKey("nonce"));
+    }
+}
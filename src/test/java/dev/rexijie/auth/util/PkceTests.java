@@ -0,0 +1,49 @@
+package dev.rexijie.auth.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PkceTests {
+    private static final String VERIFIER = "dBjftJeZ4CVP-mJ92VFQN2xlLgzT9SeQbbyXE0ozBSE";
+    private static final String S256_CHALLENGE = "a8PA9I003ZHnm59CbRgCgmsb9Os22a5JR-DYS_DZmUs";
+
+    @Test
+    void verifiesS256Challenges() {
+        assertTrue(Pkce.verify(VERIFIER, S256_CHALLENGE, Pkce.S256));
+        assertFalse(Pkce.verify(VERIFIER, S256_CHALLENGE.replace('a', 'b'), Pkce.S256));
+        assertFalse(Pkce.verify(VERIFIER, VERIFIER, Pkce.S256));
+    }
+
+    @Test
+    void verifiesPlainChallenges() {
+        assertTrue(Pkce.verify(VERIFIER, VERIFIER, Pkce.PLAIN));
+        assertTrue(Pkce.verify(VERIFIER, VERIFIER, null));
+        assertFalse(Pkce.verify(VERIFIER, S256_CHALLENGE, Pkce.PLAIN));
+    }
+
+    @Test
+    void rejectsMalformedVerifiers() {
+        assertFalse(Pkce.verify("too-short", "too-short", Pkce.PLAIN));
+        String withSpace = VERIFIER.substring(1) + " ";
+        assertFalse(Pkce.verify(withSpace, withSpace, Pkce.PLAIN));
+        assertFalse(Pkce.isSupportedMethod("S512"));
+    }
+
+    @Test
+    void checksTheStoredChallengeOnCodeExchange() {
+        Map<String, String> stored = Map.of(Pkce.CODE_CHALLENGE, S256_CHALLENGE, Pkce.CODE_CHALLENGE_METHOD, Pkce.S256);
+        Pkce.verifyCodeChallenge(stored, VERIFIER);
+        assertThrows(InvalidGrantException.class, () -> Pkce.verifyCodeChallenge(stored, null));
+        assertThrows(InvalidGrantException.class, () -> Pkce.verifyCodeChallenge(stored, VERIFIER.replace('d', 'e')));
+    }
+
+    @Test
+    void refusesVerifiersForCodesIssuedWithoutAChallenge() {
+        Pkce.verifyCodeChallenge(Map.of(), null);
+        assertThrows(InvalidGrantException.class, () -> Pkce.verifyCodeChallenge(Map.of(), VERIFIER));
+    }
+}